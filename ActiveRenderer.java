@@ -0,0 +1,335 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+
+/**
+ * ActiveRenderer paints a Game on its own thread through a BufferStrategy, instead of waiting for
+ * Swing to repaint on the event thread. The event thread only publishes a MoveAnimation after
+ * every move, through a volatile field, and never waits for the renderer. The render loop advances
+ * the animations in fixed ticks, interpolates between two ticks when it draws a frame, slides every
+ * Tile to where it went, pops the merged Tiles and grows the spawned one. A burst of moves only
+ * restarts the animation from the newest one, so input is never held back. The time of every frame
+ * goes into a log-linear Histogram. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the frame time statistics
+ * getFrames() - GETTER METHOD: the number of frames drawn
+ * getFrameTime(double) - GETTER METHOD: a percentile of the frame time
+ *
+ * publish(MoveAnimation) - hand the latest move to the renderer
+ * start() - start the render thread
+ * stop() - stop the render thread
+ * run() - the render loop
+ * render(Graphics2D, double) - draw one frame
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class ActiveRenderer implements Runnable {
+  // TICK: the length of a fixed step of the animations, in nanoseconds
+  // SLIDE_TICKS: the number of ticks the Tiles slide for
+  // POP_TICKS: the number of ticks the merged and spawned Tiles pop for, after the slide
+  // MAX_FPS: the most frames drawn per second, so a fast machine does not spin
+  static final long TICK = 1_000_000_000L / 240;
+  static final int SLIDE_TICKS = 24;
+  static final int POP_TICKS = 24;
+  static final int MAX_FPS = 240;
+
+  // canvas: the Canvas that is painted
+  // background: the background color of the window
+  // latest: the latest MoveAnimation published by the event thread
+  // thread: the render thread
+  // running: if the render loop should keep going
+  // animation: the MoveAnimation being drawn
+  // ticks: the number of ticks since the animation started
+  // base: the empty Board with the title and the score of the animation
+  // settled: the whole frame after the animation is over
+  // baseValid: if base is drawn for the animation
+  // settledValid: if settled is drawn for the animation
+  // sprites: the pre-rendered Tiles
+  // frameTimes: the time of every frame drawn, in nanoseconds
+  private final Canvas canvas;
+  private final Color background;
+  private volatile MoveAnimation latest;
+  private Thread thread;
+  private volatile boolean running;
+  private MoveAnimation animation;
+  private long ticks;
+  private final BufferedImage base;
+  private final BufferedImage settled;
+  private boolean baseValid;
+  private boolean settledValid;
+  private SpriteCache sprites;
+  private final Histogram frameTimes = new Histogram();
+
+
+
+  /**
+   * Constructor for an ActiveRenderer with:
+   * canvas: input
+   * background: the background color of the window
+   * latest: a still MoveAnimation of the Board
+   *
+   * @param canvas is the Canvas to be painted, which must be displayable
+   * @param board is the Board to be drawn first
+   */
+  public ActiveRenderer(Canvas canvas, Board board) {
+    this.canvas = canvas;
+    this.background = canvas.getBackground() == null ? Color.WHITE : canvas.getBackground();
+    this.latest = MoveAnimation.still(board);
+    this.base = new BufferedImage(400 + 2 * Game.margin, 400 + 100 + 2 * Game.margin,
+            BufferedImage.TYPE_INT_RGB);
+    this.settled = new BufferedImage(this.base.getWidth(), this.base.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the frame time statistics.
+   *
+   * @return the number of frames and the percentiles of the frame time
+   */
+  @Override
+  public String toString() {
+    return String.format("frames: %d, frame time p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f"
+            + " ms", this.getFrames(), this.getFrameTime(50), this.getFrameTime(99),
+            this.getFrameTime(99.9), this.frameTimes.getMax() / 1e6);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of frames drawn
+   *
+   * @return the number of frames
+   */
+  public long getFrames() {
+    return this.frameTimes.getCount();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of the frame time, to the width of a bucket
+   *
+   * @param percent is the percentile, between 0 and 100
+   * @return the frame time, in milliseconds
+   */
+  public double getFrameTime(double percent) {
+    return this.frameTimes.getPercentile(percent) / 1e6;
+  }
+
+
+
+  /**
+   * To hand the latest move to the renderer. It never waits, so it can be called from the event
+   * thread.
+   *
+   * @param next is the MoveAnimation of the move
+   */
+  public void publish(MoveAnimation next) {
+    this.latest = next;
+  }
+
+  /**
+   * To start the render thread.
+   */
+  public void start() {
+    this.running = true;
+    this.thread = new Thread(this, "2048-render");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * To stop the render thread and wait for it.
+   *
+   * @throws InterruptedException if the wait is interrupted
+   */
+  public void stop() throws InterruptedException {
+    this.running = false;
+    if (this.thread != null) {
+      this.thread.join();
+    }
+  }
+
+  /**
+   * To run the render loop.
+   * - pick up the latest MoveAnimation, restarting the ticks if it is new
+   * - advance the ticks by the time that passed, in fixed steps
+   * - draw a frame between the last two ticks, and show it
+   * - record the frame time, and wait if the frame was faster than the most frames per second
+   */
+  @Override
+  public void run() {
+    this.canvas.createBufferStrategy(2);
+    BufferStrategy strategy = this.canvas.getBufferStrategy();
+    long previous = System.nanoTime();
+    long lag = 0;
+
+    while (this.running) {
+      long start = System.nanoTime();
+      // To restart the ticks for a new move
+      MoveAnimation next = this.latest;
+      if (next != this.animation) {
+        this.animation = next;
+        this.ticks = 0;
+        this.baseValid = false;
+        this.settledValid = false;
+        lag = 0;
+      }
+
+      // To advance the animation in fixed ticks
+      lag += start - previous;
+      previous = start;
+      while (lag >= TICK) {
+        this.ticks++;
+        lag -= TICK;
+      }
+
+      // To draw the frame, again if the buffer was lost while drawing
+      do {
+        do {
+          Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+          this.render(g, (double) lag / TICK);
+          g.dispose();
+        } while (strategy.contentsRestored());
+        strategy.show();
+      } while (strategy.contentsLost());
+      Toolkit.getDefaultToolkit().sync();
+
+      // To record the frame time
+      long elapsed = System.nanoTime() - start;
+      this.frameTimes.record(elapsed);
+
+      // To wait for the next frame
+      long wait = 1_000_000_000L / MAX_FPS - elapsed;
+      if (wait > 0) {
+        try {
+          Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * To draw one frame of the current animation.
+   * - while sliding, draw the empty Board and every Tile between where it was and where it went
+   * - while popping, draw the Tiles after the slide, the merged ones and the spawned one scaled
+   * - once it is over, copy the whole frame drawn once
+   *
+   * @param g is the Graphics of the frame
+   * @param between is how far the frame is between the last tick and the next, from 0 to 1
+   */
+  void render(Graphics2D g, double between) {
+    MoveAnimation move = this.animation;
+    int grid = move.getGrid();
+    int tileSize = (400 - (grid + 1) * 10) / grid;
+    if (this.sprites == null || !this.sprites.matches(move.getMultiplier(), tileSize)) {
+      this.sprites = new SpriteCache(move.getMultiplier(), Math.max(1, tileSize));
+    }
+    if (!this.baseValid) {
+      this.drawBase(move, tileSize);
+      this.baseValid = true;
+    }
+    double tick = this.ticks + between;
+
+    // To copy the whole frame once the animation is over
+    if (tick >= SLIDE_TICKS + POP_TICKS || tileSize <= 0) {
+      if (!this.settledValid) {
+        this.drawSettled(move, tileSize);
+        this.settledValid = true;
+      }
+      g.drawImage(this.settled, 0, 0, null);
+      return;
+    }
+    g.drawImage(this.base, 0, 0, null);
+    Tile[] tiles = Tile.forMultiplier(move.getMultiplier());
+
+    // To slide every Tile between where it was and where it went
+    if (tick < SLIDE_TICKS) {
+      double progress = tick / SLIDE_TICKS;
+      for (int slide = 0; slide < move.getSlideCount(); slide++) {
+        int from = move.getFrom(slide);
+        int to = move.getTo(slide);
+        double row = from / grid + (to / grid - from / grid) * progress;
+        double col = from % grid + (to % grid - from % grid) * progress;
+        g.drawImage(this.sprites.get(tiles[move.getSlideExponent(slide)]),
+                (int) Math.round(Game.margin + 10 + col * (tileSize + 10)),
+                (int) Math.round(110 + row * (tileSize + 10)), null);
+      }
+      return;
+    }
+
+    // To pop the merged Tiles and grow the spawned one
+    double progress = (tick - SLIDE_TICKS) / POP_TICKS;
+    for (int cell = 0; cell < grid * grid; cell++) {
+      int exponent = move.getExponent(cell);
+      if (exponent == 0) {
+        continue;
+      }
+      double scale = 1;
+      if (cell == move.getSpawned()) {
+        scale = progress;
+      }
+      else if (move.isMerged(cell)) {
+        scale = 1 + 0.2 * Math.sin(Math.PI * progress);
+      }
+      int size = (int) Math.round(tileSize * scale);
+      int x = Game.margin + 10 + (cell % grid) * (tileSize + 10) + (tileSize - size) / 2;
+      int y = 110 + (cell / grid) * (tileSize + 10) + (tileSize - size) / 2;
+      g.drawImage(this.sprites.get(tiles[exponent]), x, y, size, size, null);
+    }
+  }
+
+  /**
+   * To draw the title, the score and the empty Board of a MoveAnimation on the base image.
+   *
+   * @param move is the MoveAnimation
+   * @param tileSize is the size of a Tile
+   */
+  private void drawBase(MoveAnimation move, int tileSize) {
+    Graphics g = this.base.getGraphics();
+    g.setColor(this.background);
+    g.fillRect(0, 0, this.base.getWidth(), this.base.getHeight());
+    Game.drawHeader(g, move.getScore(), this.background);
+    // To draw the empty cells
+    if (tileSize > 0) {
+      BufferedImage empty = this.sprites.get(Tile.EMPTY);
+      for (int cell = 0; cell < move.getGrid() * move.getGrid(); cell++) {
+        g.drawImage(empty, Game.margin + 10 + (cell % move.getGrid()) * (tileSize + 10),
+                110 + (cell / move.getGrid()) * (tileSize + 10), null);
+      }
+    }
+    g.dispose();
+  }
+
+  /**
+   * To draw the whole frame of a MoveAnimation once it is over on the settled image.
+   *
+   * @param move is the MoveAnimation
+   * @param tileSize is the size of a Tile
+   */
+  private void drawSettled(MoveAnimation move, int tileSize) {
+    Graphics g = this.settled.getGraphics();
+    g.drawImage(this.base, 0, 0, null);
+    // To draw every Tile in place
+    if (tileSize > 0) {
+      Tile[] tiles = Tile.forMultiplier(move.getMultiplier());
+      for (int cell = 0; cell < move.getGrid() * move.getGrid(); cell++) {
+        if (move.getExponent(cell) != 0) {
+          g.drawImage(this.sprites.get(tiles[move.getExponent(cell)]),
+                  Game.margin + 10 + (cell % move.getGrid()) * (tileSize + 10),
+                  110 + (cell / move.getGrid()) * (tileSize + 10), null);
+        }
+      }
+    }
+    if (move.isOver()) {
+      Game.drawOver(g);
+    }
+    g.dispose();
+  }
+}
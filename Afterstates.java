@@ -0,0 +1,153 @@
+/**
+ * Afterstates holds the four Boards that a Board turns into after moving in every Direction, with
+ * the MoveResult of every move and the mask of the Directions that changed the Board. It is
+ * filled by Board.afterstates(Afterstates) in one pass, and meant to be reused for every position
+ * of a search or a game, so trying every Direction does not copy the Board four times or
+ * allocate anything. Its Boards are created for the grid size, multiplier and backend of the
+ * first Board it is filled from, and again only for the Boards that no longer match.
+ * Additionally, it offers several methods:
+ *
+ * getBoard(Direction) - GETTER METHOD: the Board after moving in the Direction
+ * getResult(Direction) - GETTER METHOD: the MoveResult of moving in the Direction
+ * getScoreGained(Direction) - GETTER METHOD: the score gained by moving in the Direction
+ * getChanged() - GETTER METHOD: the mask of the Directions that changed the Board
+ * isChanged(Direction) - GETTER METHOD: if moving in the Direction changed the Board
+ *
+ * prepare(Board) - create the Boards for the grid size, multiplier and backend of a Board
+ * results() - clear the MoveResults and return them to be filled
+ * packed() - the packed cells of every Board, to be filled from a BitBoard
+ * setChanged(int) - set the mask of the Directions that changed the Board
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class Afterstates {
+  // boards: the Board after moving in every Direction, by the ordinal of the Direction
+  // results: the MoveResult of every Direction, by the ordinal of the Direction
+  // packed: the packed cells of every Board, while they are filled from a BitBoard
+  // changed: the mask of the Directions that changed the Board
+  private final Board[] boards = new Board[Direction.values().length];
+  private final MoveResult[] results = new MoveResult[Direction.values().length];
+  private final long[] packed = new long[Direction.values().length];
+  private int changed;
+
+
+
+  /**
+   * Constructor for an empty Afterstates, whose Boards are created when it is first filled.
+   */
+  public Afterstates() {
+    for (int i = 0; i < this.results.length; i++) {
+      this.results[i] = new MoveResult();
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the Board after moving in a Direction, which is the same as the Board it was filled
+   * from if the Direction did not change it. It is overwritten by the next fill.
+   *
+   * @param direction is the Direction
+   * @return the Board after the move
+   */
+  public Board getBoard(Direction direction) {
+    return this.boards[direction.ordinal()];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the MoveResult of moving in a Direction, overwritten by the next fill
+   *
+   * @param direction is the Direction
+   * @return the MoveResult of the move
+   */
+  public MoveResult getResult(Direction direction) {
+    return this.results[direction.ordinal()];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the score gained by moving in a Direction
+   *
+   * @param direction is the Direction
+   * @return the score gained
+   */
+  public long getScoreGained(Direction direction) {
+    return this.results[direction.ordinal()].getScoreGained();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the mask of the Directions that changed the Board, the same as its legalMoves()
+   *
+   * @return the mask of the changed Directions
+   */
+  public int getChanged() {
+    return this.changed;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if moving in a Direction changed the Board
+   *
+   * @param direction is the Direction
+   * @return if the move changed the Board
+   */
+  public boolean isChanged(Direction direction) {
+    return direction.isIn(this.changed);
+  }
+
+
+
+  /**
+   * To create the Boards for the grid size, multiplier and backend of a Board, except the ones
+   * that already match it. Every Board is checked, since a caller may have moved one of them off
+   * the backend of the others, for example by promoting it from a BitBoard.
+   *
+   * @param board is the Board to be filled from
+   * @return the Boards, by the ordinal of the Direction
+   */
+  Board[] prepare(Board board) {
+    for (int i = 0; i < this.boards.length; i++) {
+      Board after = this.boards[i];
+      if (after == null || after.getGrid() != board.getGrid()
+              || after.getMultiplier() != board.getMultiplier()
+              || after.isBitBoard() != board.isBitBoard()) {
+        this.boards[i] = new Board(board);
+      }
+    }
+    return this.boards;
+  }
+
+  /**
+   * To clear the MoveResults and return them to be filled.
+   *
+   * @return the MoveResults, by the ordinal of the Direction
+   */
+  MoveResult[] results() {
+    for (MoveResult result : this.results) {
+      result.reset();
+    }
+    return this.results;
+  }
+
+  /**
+   * To get the packed cells of every Board, to be filled from a BitBoard.
+   *
+   * @return the packed cells, by the ordinal of the Direction
+   */
+  long[] packed() {
+    return this.packed;
+  }
+
+  /**
+   * To set the mask of the Directions that changed the Board.
+   *
+   * @param changed is the mask
+   */
+  void setChanged(int changed) {
+    this.changed = changed;
+  }
+}
@@ -0,0 +1,469 @@
+/**
+ * BitBoard represents a 4x4 Board packed into a single long, where every cell is stored as a
+ * 4-bit exponent of the multiplier (0 means empty, 1 means the multiplier, 2 means the multiplier
+ * squared, and so on). The cell at [row][col] lives in the nibble (row * 4 + col), so every row is
+ * a 16-bit chunk of the long. Moving left and right is a lookup in a precomputed 65,536-entry row
+ * table, and moving up and down transposes the board so columns become rows. Additionally, it
+ * offers several methods:
+ *
+ * getExponent(int, int) - GETTER METHOD: the exponent at the given location
+ * getBits() - GETTER METHOD: the packed cells
+ * countEmpty() - GETTER METHOD: the number of empty cells
+ * getEmptyCell(int) - GETTER METHOD: the location of one of the empty cells
+ *
+ * setExponent(int, int, int) - set the exponent at the given location
+ * setBits(long) - set all the packed cells at once
+ * spawn(double) - spawn the multiplier in one of the empty cells
+ * canMerge() - return if two adjacent cells hold the same exponent or not
+ * hasMaxExponent() - return if a cell holds MAX_EXPONENT or not
+ * legalMoves() - return the mask of the Directions that would change the cells
+ * transpose(long) - swap the rows and the columns of the packed cells
+ *
+ * left(MoveResult) - move the cells to the left
+ * right(MoveResult) - move the cells to the right
+ * up(MoveResult) - move the cells up
+ * down(MoveResult) - move the cells down
+ * afterstates(long[], MoveResult[]) - move the cells in every Direction at once, without changing
+ * them
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class BitBoard {
+  // MAX_EXPONENT: the biggest exponent a nibble can hold, two of them do not merge here, so a
+  // Board moves to its cells array once it holds one
+  // ROW_LEFT: the row after moving left, for every possible 16-bit row
+  // ROW_RIGHT: the row after moving right, for every possible 16-bit row
+  // ROW_MERGED: the exponents created by merges in a row, one nibble each (at most two merges)
+  // ROW_LEGAL: if moving a row changes it, with the bit of LEFT and the bit of RIGHT
+  static final int MAX_EXPONENT = 15;
+  static final char[] ROW_LEFT = new char[65536];
+  static final char[] ROW_RIGHT = new char[65536];
+  static final char[] ROW_MERGED = new char[65536];
+  static final byte[] ROW_LEGAL = new byte[65536];
+
+  // cells: the 16 packed exponents
+  // powers: the value of every exponent (multiplier ^ exponent)
+  private long cells;
+  private final long[] powers;
+
+
+
+  static {
+    // To loop through every possible row
+    for (int row = 0; row < 65536; row++) {
+      // To unpack the row into four exponents
+      int[] line = {row & 0xF, (row >>> 4) & 0xF, (row >>> 8) & 0xF, (row >>> 12) & 0xF};
+
+      // To slide and merge the line to the left
+      int[] result = new int[4];
+      int merged = 0;
+      int mergeCount = 0;
+      int write = 0;
+      int pending = 0;
+      for (int i = 0; i < 4; i++) {
+        // To skip the empty cells
+        if (line[i] == 0) {
+          continue;
+        }
+        // To merge with the pending cell if both have the same exponent
+        if (pending == line[i] && pending < MAX_EXPONENT) {
+          result[write++] = pending + 1;
+          merged |= (pending + 1) << (4 * mergeCount++);
+          pending = 0;
+        }
+        // Otherwise, to place the pending cell and keep the current one
+        else {
+          if (pending != 0) {
+            result[write++] = pending;
+          }
+          pending = line[i];
+        }
+      }
+      // To place the last pending cell
+      if (pending != 0) {
+        result[write] = pending;
+      }
+
+      // To pack the results into the tables
+      int left = result[0] | (result[1] << 4) | (result[2] << 8) | (result[3] << 12);
+      ROW_LEFT[row] = (char) left;
+      ROW_MERGED[row] = (char) merged;
+      // Moving right is moving the reversed row to the left and reversing it back
+      ROW_RIGHT[reverse(row)] = (char) reverse(left);
+    }
+
+    // To loop through every possible row again, now that both tables are filled
+    for (int row = 0; row < 65536; row++) {
+      int legal = 0;
+      if (ROW_LEFT[row] != row) {
+        legal |= Direction.LEFT.getMask();
+      }
+      if (ROW_RIGHT[row] != row) {
+        legal |= Direction.RIGHT.getMask();
+      }
+      ROW_LEGAL[row] = (byte) legal;
+    }
+  }
+
+  /**
+   * Constructor for an empty BitBoard with:
+   * multiplier: input
+   *
+   * @param multiplier is the multiplier of the game
+   */
+  public BitBoard(int multiplier) {
+    this.cells = 0L;
+    this.powers = new long[MAX_EXPONENT + 1];
+
+    // To compute the value of every exponent once, checking that the biggest one fits in a long
+    this.powers[0] = 0;
+    long value = 1;
+    for (int i = 1; i <= MAX_EXPONENT; i++) {
+      if (multiplier > 1 && value > Long.MAX_VALUE / multiplier) {
+        throw new IllegalArgumentException("Multiplier too big for a BitBoard: " + multiplier);
+      }
+      value *= multiplier;
+      this.powers[i] = value;
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the exponent at given location
+   *
+   * @param row is the row number
+   * @param col is the column number
+   * @return the exponent, 0 if the cell is empty
+   */
+  public int getExponent(int row, int col) {
+    return (int) (this.cells >>> (4 * (row * 4 + col))) & 0xF;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the packed cells
+   *
+   * @return the 16 exponents packed into a long
+   */
+  public long getBits() {
+    return this.cells;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of empty cells.
+   *
+   * @return the number of empty cells
+   */
+  public int countEmpty() {
+    return Long.bitCount(emptyMarks(this.cells));
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the location of the k-th empty cell, counting from the first cell.
+   *
+   * @param k is which empty cell to find, from 0 to countEmpty() - 1
+   * @return the location of the cell (row * 4 + col)
+   */
+  public int getEmptyCell(int k) {
+    long empty = emptyMarks(this.cells);
+    // To clear the marks before the k-th empty cell
+    for (; k > 0; k--) {
+      empty &= empty - 1;
+    }
+    return Long.numberOfTrailingZeros(empty) / 4;
+  }
+
+
+
+  /**
+   * To set the exponent at given location.
+   *
+   * @param row is the row number
+   * @param col is the column number
+   * @param exponent is the exponent to be set, 0 to empty the cell
+   */
+  public void setExponent(int row, int col, int exponent) {
+    int shift = 4 * (row * 4 + col);
+    this.cells = (this.cells & ~(0xFL << shift)) | ((long) exponent << shift);
+  }
+
+  /**
+   * To set all the packed cells at once.
+   *
+   * @param cells is the 16 exponents packed into a long
+   */
+  public void setBits(long cells) {
+    this.cells = cells;
+  }
+
+  /**
+   * To spawn the multiplier (exponent 1) in one of the empty cells.
+   * - mark the lowest bit of every empty nibble
+   * - pick which empty cell to use from the random number
+   * - clear the lower marks until the picked one is the lowest
+   *
+   * @param random is a random number in [0, 1)
+   * @return the location of the spawned cell (row * 4 + col), -1 if there was no empty cell
+   */
+  public int spawn(double random) {
+    // To check if there is an empty cell to spawn
+    int empty = this.countEmpty();
+    if (empty == 0) {
+      return -1;
+    }
+
+    // To pick the empty cell and set its exponent to 1
+    int cell = this.getEmptyCell((int) (random * empty));
+    this.cells |= 1L << (4 * cell);
+    return cell;
+  }
+
+  /**
+   * To check if two adjacent cells hold the same exponent.
+   *
+   * @return if a merge is still possible or not
+   */
+  public boolean canMerge() {
+    return hasMerge(this.cells) || hasMerge(transpose(this.cells));
+  }
+
+  /**
+   * To check if a cell holds MAX_EXPONENT, by folding every nibble into its lowest bit with AND.
+   *
+   * @return if a cell holds the biggest exponent or not
+   */
+  public boolean hasMaxExponent() {
+    long x = this.cells & (this.cells >>> 2);
+    return (x & (x >>> 1) & 0x1111111111111111L) != 0;
+  }
+
+  /**
+   * To find the Directions that would change the cells, without moving them.
+   * - combine the row legality of every row for LEFT and RIGHT
+   * - combine the row legality of every transposed row for UP and DOWN
+   *
+   * @return the mask of the legal Directions
+   */
+  public int legalMoves() {
+    long transposed = transpose(this.cells);
+    int rows = 0;
+    int cols = 0;
+    // To loop through the rows and the columns
+    for (int shift = 0; shift < 64; shift += 16) {
+      rows |= ROW_LEGAL[(int) ((this.cells >>> shift) & 0xFFFF)];
+      cols |= ROW_LEGAL[(int) ((transposed >>> shift) & 0xFFFF)];
+    }
+    // The columns moving LEFT and RIGHT are the Board moving UP and DOWN
+    return rows | (cols << 2);
+  }
+
+  /**
+   * To swap the rows and the columns of the packed cells.
+   *
+   * @param x is the packed cells
+   * @return the transposed cells
+   */
+  static long transpose(long x) {
+    // To swap the nibbles inside every 2x2 block
+    long a1 = x & 0xF0F00F0FF0F00F0FL;
+    long a2 = x & 0x0000F0F00000F0F0L;
+    long a3 = x & 0x0F0F00000F0F0000L;
+    long a = a1 | (a2 << 12) | (a3 >>> 12);
+    // To swap the 2x2 blocks
+    long b1 = a & 0xFF00FF0000FF00FFL;
+    long b2 = a & 0x00FF00FF00000000L;
+    long b3 = a & 0x00000000FF00FF00L;
+    return b1 | (b2 >>> 24) | (b3 << 24);
+  }
+
+
+
+  /**
+   * To move left.
+   *
+   * @param result is the MoveResult to be filled
+   */
+  public void left(MoveResult result) {
+    long moved = moveRows(this.cells, ROW_LEFT);
+    this.record(this.cells, moved, result);
+    this.cells = moved;
+  }
+
+  /**
+   * To move right.
+   *
+   * @param result is the MoveResult to be filled
+   */
+  public void right(MoveResult result) {
+    long moved = moveRows(this.cells, ROW_RIGHT);
+    this.record(this.cells, moved, result);
+    this.cells = moved;
+  }
+
+  /**
+   * To move up.
+   * - transpose so the columns become rows
+   * - move the rows to the left
+   * - transpose back
+   *
+   * @param result is the MoveResult to be filled
+   */
+  public void up(MoveResult result) {
+    long transposed = transpose(this.cells);
+    long moved = moveRows(transposed, ROW_LEFT);
+    this.record(transposed, moved, result);
+    this.cells = transpose(moved);
+  }
+
+  /**
+   * To move down.
+   * - transpose so the columns become rows
+   * - move the rows to the right
+   * - transpose back
+   *
+   * @param result is the MoveResult to be filled
+   */
+  public void down(MoveResult result) {
+    long transposed = transpose(this.cells);
+    long moved = moveRows(transposed, ROW_RIGHT);
+    this.record(transposed, moved, result);
+    this.cells = transpose(moved);
+  }
+
+  /**
+   * To move the cells in every Direction at once, without changing them.
+   * - look every row up once for both LEFT and RIGHT, which merge the same exponents
+   * - transpose once and look every column up once for both UP and DOWN
+   *
+   * @param into is the packed cells after every move, by the ordinal of the Direction
+   * @param results is the cleared MoveResult of every move, by the ordinal of the Direction
+   * @return the mask of the Directions that changed the cells
+   */
+  public int afterstates(long[] into, MoveResult[] results) {
+    long transposed = transpose(this.cells);
+    long left = 0;
+    long right = 0;
+    long up = 0;
+    long down = 0;
+    int rowMerges = 0;
+    int colMerges = 0;
+    long rowScore = 0;
+    long colScore = 0;
+
+    // To loop through the rows and the columns together
+    for (int shift = 0; shift < 64; shift += 16) {
+      int row = (int) ((this.cells >>> shift) & 0xFFFF);
+      left |= (long) ROW_LEFT[row] << shift;
+      right |= (long) ROW_RIGHT[row] << shift;
+      int merged = ROW_MERGED[row];
+      if (merged != 0) {
+        rowMerges += (merged >>> 4) == 0 ? 1 : 2;
+        rowScore += this.powers[merged & 0xF] + this.powers[merged >>> 4];
+      }
+
+      int col = (int) ((transposed >>> shift) & 0xFFFF);
+      up |= (long) ROW_LEFT[col] << shift;
+      down |= (long) ROW_RIGHT[col] << shift;
+      merged = ROW_MERGED[col];
+      if (merged != 0) {
+        colMerges += (merged >>> 4) == 0 ? 1 : 2;
+        colScore += this.powers[merged & 0xF] + this.powers[merged >>> 4];
+      }
+    }
+
+    // To record every move, the columns moved back into place
+    into[Direction.LEFT.ordinal()] = left;
+    into[Direction.RIGHT.ordinal()] = right;
+    into[Direction.UP.ordinal()] = transpose(up);
+    into[Direction.DOWN.ordinal()] = transpose(down);
+    results[Direction.LEFT.ordinal()].add(left != this.cells, rowMerges, rowScore);
+    results[Direction.RIGHT.ordinal()].add(right != this.cells, rowMerges, rowScore);
+    results[Direction.UP.ordinal()].add(up != transposed, colMerges, colScore);
+    results[Direction.DOWN.ordinal()].add(down != transposed, colMerges, colScore);
+    return (left != this.cells ? Direction.LEFT.getMask() : 0)
+            | (right != this.cells ? Direction.RIGHT.getMask() : 0)
+            | (up != transposed ? Direction.UP.getMask() : 0)
+            | (down != transposed ? Direction.DOWN.getMask() : 0);
+  }
+
+
+
+  /**
+   * To mark the lowest bit of every empty nibble.
+   * - fold every nibble into its lowest bit
+   * - keep the lowest bits that are still zero
+   *
+   * @param x is the packed cells
+   * @return the marks of the empty nibbles
+   */
+  private static long emptyMarks(long x) {
+    x |= (x >>> 2) & 0x3333333333333333L;
+    x |= x >>> 1;
+    return ~x & 0x1111111111111111L;
+  }
+
+  /**
+   * To move every row with the given table.
+   *
+   * @param x is the packed cells
+   * @param table is the row table to use
+   * @return the moved cells
+   */
+  private static long moveRows(long x, char[] table) {
+    return (long) table[(int) (x & 0xFFFF)]
+            | ((long) table[(int) ((x >>> 16) & 0xFFFF)] << 16)
+            | ((long) table[(int) ((x >>> 32) & 0xFFFF)] << 32)
+            | ((long) table[(int) ((x >>> 48) & 0xFFFF)] << 48);
+  }
+
+  /**
+   * To check if any row of the packed cells has a merge in it.
+   *
+   * @param x is the packed cells
+   * @return if a row can merge or not
+   */
+  private static boolean hasMerge(long x) {
+    return ROW_MERGED[(int) (x & 0xFFFF)] != 0
+            || ROW_MERGED[(int) ((x >>> 16) & 0xFFFF)] != 0
+            || ROW_MERGED[(int) ((x >>> 32) & 0xFFFF)] != 0
+            || ROW_MERGED[(int) ((x >>> 48) & 0xFFFF)] != 0;
+  }
+
+  /**
+   * To record a move into the MoveResult by adding up the merges of every row. Moving a row left
+   * or right creates the same merged exponents, so one table serves both directions.
+   *
+   * @param before is the packed cells (or transposed cells) before the move
+   * @param after is the packed cells (or transposed cells) after the move
+   * @param result is the MoveResult to be filled
+   */
+  private void record(long before, long after, MoveResult result) {
+    int merges = 0;
+    long score = 0;
+    // To loop through the rows
+    for (int shift = 0; shift < 64; shift += 16) {
+      int merged = ROW_MERGED[(int) ((before >>> shift) & 0xFFFF)];
+      // To count the merged nibbles and add their values
+      if (merged != 0) {
+        merges += (merged >>> 4) == 0 ? 1 : 2;
+        score += this.powers[merged & 0xF] + this.powers[merged >>> 4];
+      }
+    }
+    result.add(before != after, merges, score);
+  }
+
+  /**
+   * To reverse the order of the four nibbles in a row.
+   *
+   * @param row is the 16-bit row
+   * @return the reversed row
+   */
+  private static int reverse(int row) {
+    return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >>> 4) & 0xF0) | (row >>> 12);
+  }
+}
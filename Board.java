@@ -1,39 +1,129 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Board represents a 2048 game board that contains the Tiles and their information, and it
  * also provides different constructors that allows customization of the Board, including grid size
- * and multiplier. Additionally, it offers several methods:
+ * and multiplier. The default 4x4 Board is backed by a BitBoard, which packs its 16 cells into a
+ * single long, until it holds a Tile too big for it; any other Board keeps every Tile as the
+ * exponent of the multiplier in one flat array of bytes, row by row. Additionally, it offers
+ * several methods:
  *
  * toString() - GETTER METHOD: the string representation of the Board
  * getGrid() - GETTER METHOD: the grid size
  * getTile(int, int) - GETTER METHOD: the Tile
+ * getExponent(int, int) - GETTER METHOD: the exponent of the Tile
  * getMultiplier() - GETTER METHOD: the multiplier
  * getScore() - GETTER METHOD: the current score
+ * getEmptyCount() - GETTER METHOD: the number of empty Tiles
+ * getEmptyCell(int) - GETTER METHOD: the location of one of the empty Tiles
+ * getKey() - GETTER METHOD: the 64-bit Zobrist hash of the Tiles, for caching positions
+ * isBitBoard() - GETTER METHOD: if the Board is backed by a BitBoard or not
+ * getPool() - GETTER METHOD: the pool the lines of a move are split across
+ * isSwar() - GETTER METHOD: if the rows are slid by SwarSlide or not
  * printBoard() - TESTING PURPOSES: print the Board in the console
  *
  * containEmptyTile() - return if the Board still has an empty Tile in it or not
  * isGameOver() - return if the game is over or not
+ * hasLegalMove() - return if any move would still change the Board or not
+ * legalMoves() - return the mask of the Directions that would change the Board
+ * canMove(Direction) - return if moving in the Direction would change the Board or not
  *
- * spawn() - spawn a Tile at a random location on the Board
- * compress(Tile[]) - compress a list of number and remove all the zeroes in it (ex. 2002 -> 2200)
- * merge(Tile[]) - merge the same number in a list of number (ex. 2200 -> 4000)
+ * copyFrom(Board) - copy the Tiles and the score of another Board into this Board
+ * setExponent(int, int, int) - set the exponent of the Tile at the given location
+ * spawn() - spawn a Tile at a random empty location on the Board
+ * restore(byte[], long) - set every Tile and the score at once
+ * getPackedWords() - GETTER METHOD: the number of longs pack(long[], int) writes
+ * pack(long[], int) - pack every Tile into longs, without allocating
+ * unpack(long[], int, long) - set every Tile from packed longs and the score
+ * unpackBits(long, long) - set every Tile of a 4x4 Board from the packed cells of a BitBoard
+ * setPool(ForkJoinPool) - split the lines of every move across a pool, or stop
+ * setSwar(boolean) - slide the lines with SwarSlide, or stop
+ * slide(byte[], byte[], int, int, MoveResult) - slide and merge one line (ex. 1011 -> 2100)
  *
- * left() - move Tiles to the left
- * right() - move Tiles to the right
- * up() - move Tiles up
- * down() - move Tiles down
+ * left() - move Tiles to the left and return the MoveResult
+ * right() - move Tiles to the right and return the MoveResult
+ * up() - move Tiles up and return the MoveResult
+ * down() - move Tiles down and return the MoveResult
+ * move(Direction) - move Tiles in the Direction and return the MoveResult
+ * afterstates(Afterstates) - move Tiles in every Direction at once into reused Boards
  *
  * @author Jiaying Zheng
  * @version Feb 7, 2023
  */
 public class Board {
+  // PARALLEL_GRID: the smallest grid size whose moves are split across the common pool by default
+  // LINES: the number of lines a worker moves without splitting them further
+  // SWAR_GRID: the smallest grid size whose lines are slid by SwarSlide by default
+  // SLIDE: the phase of Lines that moves the lines
+  // COUNT: the phase of Lines that counts the empty cells and the pairs of every row
+  // FILL: the phase of Lines that lists the empty cells of every row
+  // DIRECTIONS: every Direction, without copying values() for every afterstate
+  static final int PARALLEL_GRID = 128;
+  static final int LINES = 16;
+  static final int SWAR_GRID = 64;
+  private static final int SLIDE = 0;
+  private static final int COUNT = 1;
+  private static final int FILL = 2;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  // PACKED_BITS: the second long of a 4x4 Board packed from a BitBoard, which the bytes of the
+  // cells array never make since no exponent has its top bit set
+  private static final long PACKED_BITS = -1L;
+
   // grid: the grid size of the Board
   // multiplier: the root of the number
-  // board: a 2D array of Tiles
+  // cells: the exponent of every Tile, row by row, null when the Board is backed by a BitBoard
+  // bits: the packed 4x4 cells, null when the Board is backed by the cells array
+  // powers: the value of every exponent (multiplier ^ exponent)
+  // tiles: the shared Tile of every exponent
+  // free: the indices of the empty cells, in no particular order
+  // freeSlot: the position of every cell in free, -1 if the cell is not empty
+  // freeCount: the number of empty cells
+  // pairs: the number of adjacent pairs of Tiles that have the same exponent and can merge
+  // legalMask: the mask of the legal Directions, only valid if legalValid is true
+  // legalValid: if legalMask is up to date with the cells
+  // hash: the Zobrist hash of the cells, only valid if hashValid is true
+  // hashValid: if hash is up to date with the cells, false after a split move until getKey()
+  // colEmpty: if an empty cell was seen in every column, used while finding the legal Directions
+  // colTile: if a Tile was seen in every column, used while finding the legal Directions
+  // result: the MoveResult reused by every move
   // score: the current score of the game
+  // random: the seeded random numbers of the spawns, null to use those of the current thread
+  // pool: the pool the lines of a move are split across, null to move them one by one
+  // swar: if the rows, and the columns of a move split across the pool, are slid by SwarSlide
+  // transposed: the columns of the cells as rows, used while a column move is split
+  // lines: the reused tree of Lines a split move is run through, created at the first one
+  // scratch: the scratch array of SwarSlide for the moves on this thread, created at the first one
+  // rowFree: the empty cells of every row, then where every row starts in free, while a move is
+  // split
   private final int grid;
   private final int multiplier;
-  private Tile[][] board;
-  public int score = 0;
+  private byte[] cells;
+  private BitBoard bits;
+  private long[] powers;
+  private Tile[] tiles;
+  private int[] free;
+  private int[] freeSlot;
+  private int freeCount;
+  private int pairs;
+  private int legalMask;
+  private boolean legalValid = false;
+  private long hash;
+  private boolean hashValid;
+  private boolean[] colEmpty;
+  private boolean[] colTile;
+  private final MoveResult result = new MoveResult();
+  private long score = 0;
+  private SplittableRandom random;
+  private ForkJoinPool pool;
+  private boolean swar;
+  private byte[] transposed;
+  private Lines lines;
+  private byte[] scratch;
+  private int[] rowFree;
 
 
 
@@ -43,24 +133,8 @@ public class Board {
    * multiplier: 2
    */
   public Board() {
-    // To initialize the Board with 4x4 grid size
-    this.board = new Tile[4][4];
-    this.grid = 4;
-    // To initialize the multiplier wiht 2
-    this.multiplier = 2;
-
-    // To loop through the rows of the Board
-    for (int i = 0; i < 4; i++) {
-      // To loop through the columns of the Board
-      for (int j = 0; j < 4; j++) {
-        // To add an empty Tile at the [i][j] location
-        this.board[i][j] = new Tile();
-      }
-    }
-
-    // To spawn two Tiles
-    this.spawn();
-    this.spawn();
+    // To initialize the Board with 4x4 grid size and a multiplier of 2 on a BitBoard
+    this(2, true);
   }
 
   /**
@@ -71,20 +145,25 @@ public class Board {
    * @param multiplier is the multiplier of the game
    */
   public Board(int multiplier) {
+    // To initialize the Board with 4x4 grid size on a BitBoard
+    this(multiplier, true);
+  }
+
+  /**
+   * Constructor for a game with:
+   * grid: 4
+   * multiplier: input
+   * backend: a BitBoard if bitBoard is true, or the cells array otherwise
+   *
+   * @param multiplier is the multiplier of the game
+   * @param bitBoard is if the Board should be backed by a BitBoard
+   */
+  public Board(int multiplier, boolean bitBoard) {
     // To initialize the Board with 4x4 grid size
-    this.board = new Tile[4][4];
     this.grid = 4;
     // To initialize the multiplier with the given input
     this.multiplier = multiplier;
-
-    // To loop through the rows of the Board
-    for (int i = 0; i < 4; i++) {
-      // To loop through the columns of the Board
-      for (int j = 0; j < 4; j++) {
-        // To add a empty Tile at the [i][j] location
-        this.board[i][j] = new Tile();
-      }
-    }
+    this.initialize(bitBoard);
 
     // To spawn two Tiles
     this.spawn();
@@ -101,25 +180,57 @@ public class Board {
    */
   public Board(int multiplier, int grid) {
     // To initialize the Board with the given input
-    this.board = new Tile[grid][grid];
     this.grid = grid;
     // To initialize the multiplier with the given input
     this.multiplier = multiplier;
+    this.initialize(false);
 
-    // To loop through the rows of the Board
-    for (int i = 0; i < this.grid; i++) {
-      // To loop through the columns of the Board
-      for (int j = 0; j < this.grid; j++) {
-        // To add a empty Tile at the [i][j] location
-        this.board[i][j] = new Tile();
-      }
-    }
+    // To spawn two Tiles
+    this.spawn();
+    this.spawn();
+  }
+
+  /**
+   * Constructor for a reproducible game with:
+   * grid: input (4 is backed by a BitBoard)
+   * multiplier: input
+   * spawns: drawn from a generator seeded with the input, so the same seed and the same moves
+   * always give the same game
+   *
+   * @param multiplier is the multiplier of the game
+   * @param grid is the grid of the game
+   * @param seed is the seed of the spawns
+   */
+  public Board(int multiplier, int grid, long seed) {
+    // To initialize the Board with the given input
+    this.grid = grid;
+    // To initialize the multiplier with the given input
+    this.multiplier = multiplier;
+    this.initialize(grid == 4);
+    this.random = new SplittableRandom(seed);
 
     // To spawn two Tiles
     this.spawn();
     this.spawn();
   }
 
+  /**
+   * Constructor for a copy of another game with:
+   * grid: the grid of the other game
+   * multiplier: the multiplier of the other game
+   * Tiles and score: the Tiles and score of the other game
+   *
+   * @param other is the game to be copied
+   */
+  public Board(Board other) {
+    // To initialize the Board with the same grid size and multiplier
+    this.grid = other.grid;
+    this.multiplier = other.multiplier;
+    this.initialize(other.bits != null);
+    // To copy the Tiles
+    this.copyFrom(other);
+  }
+
   /**
    * TESTING PURPOSES:
    * Constructor for a game with
@@ -129,10 +240,108 @@ public class Board {
    */
   public Board(Tile[][] board) {
     // To initialize the Board with given Tiles
-    this.board = board;
     this.grid = board.length;
     // To initialize the multiplier with 2
     this.multiplier = 2;
+    this.initialize(false);
+
+    // To copy the exponent of every Tile
+    for (int i = 0; i < this.grid; i++) {
+      for (int j = 0; j < this.grid; j++) {
+        this.put(i * this.grid + j, this.exponentOf(board[i][j].getValue()));
+      }
+    }
+    // To compute the hash of the Tiles from scratch
+    this.rehash();
+  }
+
+  /**
+   * To initialize the storage of the Board, which is empty afterwards.
+   * - compute the value of every exponent until it no longer fits in a long
+   * - create either the BitBoard, if the value of its biggest exponent fits too, or the empty
+   * cells array
+   *
+   * @param bitBoard is if the Board should be backed by a BitBoard
+   */
+  private void initialize(boolean bitBoard) {
+    // To find the biggest exponent whose value still fits in a long (and in a byte)
+    int maxExponent = 1;
+    long value = this.multiplier;
+    while (maxExponent < Byte.MAX_VALUE && this.multiplier > 1
+            && value <= Long.MAX_VALUE / this.multiplier) {
+      value *= this.multiplier;
+      maxExponent++;
+    }
+
+    // To compute the value of every exponent once
+    this.powers = new long[maxExponent + 1];
+    this.powers[0] = 0;
+    value = 1;
+    for (int i = 1; i <= maxExponent; i++) {
+      value *= this.multiplier;
+      this.powers[i] = value;
+    }
+    this.tiles = Tile.forMultiplier(this.multiplier);
+
+    // To pack the cells into a BitBoard
+    if (bitBoard && maxExponent >= BitBoard.MAX_EXPONENT) {
+      this.bits = new BitBoard(this.multiplier);
+      this.cells = null;
+    }
+    // To create the empty cells, which are all free
+    else {
+      this.bits = null;
+      int size = this.grid * this.grid;
+      this.cells = new byte[size];
+      this.free = new int[size];
+      this.freeSlot = new int[size];
+      this.freeCount = size;
+      this.colEmpty = new boolean[this.grid];
+      this.colTile = new boolean[this.grid];
+      for (int i = 0; i < size; i++) {
+        this.free[i] = i;
+        this.freeSlot[i] = i;
+      }
+      // To compute the hash of the empty cells
+      this.rehash();
+      // To split the moves of a big Board across the common pool
+      if (this.grid >= PARALLEL_GRID) {
+        this.pool = ForkJoinPool.commonPool();
+      }
+      // To slide the wide lines 8 cells at a time
+      this.swar = this.grid >= SWAR_GRID;
+    }
+    this.legalValid = false;
+  }
+
+  /**
+   * To check if the Board is backed by a BitBoard that can still make every merge, before a move
+   * or a check of the moves. A Board that holds a Tile of BitBoard.MAX_EXPONENT is promoted to the
+   * cells array first, since merging two of them makes an exponent that a nibble cannot hold.
+   *
+   * @return if the Board is still backed by a BitBoard
+   */
+  private boolean stillPacked() {
+    if (this.bits == null) {
+      return false;
+    }
+    if (this.bits.hasMaxExponent()) {
+      this.promote();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * To move the Tiles of a BitBoard into a new cells array, which then backs the Board for good.
+   */
+  private void promote() {
+    BitBoard packed = this.bits;
+    this.initialize(false);
+    // To write every nibble into its cell, which keeps the counts and the hash up to date
+    for (int index = 0; index < this.cells.length; index++) {
+      this.put(index, packed.getExponent(index / 4, index % 4));
+    }
   }
 
 
@@ -140,21 +349,28 @@ public class Board {
   /**
    * GETTER METHOD:
    * To convert the board into a string with a new line for each row, and an empty Tile would be
-   * represented as "_" while other Tiles are represented as their own value.
+   * represented as " " while other Tiles are represented as their own value. The string is built
+   * in one growing buffer, so it takes time in proportion to the number of Tiles.
    *
    * @return the string representation of the Board
    */
   @Override
   public String toString() {
-    // To create a temp variable to store the tile information
-    String temp = "";
+    // To create a buffer to store the tile information, sized for a digit or two per Tile
+    StringBuilder temp = new StringBuilder(this.grid * (2 * this.grid + 2));
 
     // To loop through the rows of the Board
     for (int i = 0; i < this.grid; i++) {
       // To loop through the columns of the Board
       for (int j = 0; j < this.grid; j++) {
-        // To add the string representation of the Tile to temp
-        temp += this.board[i][j].toString();
+        // To add the string representation of the Tile to temp, without a String for every Tile
+        Tile tile = this.getTile(i, j);
+        if (tile.isEmpty()) {
+          temp.append(' ');
+        }
+        else {
+          temp.append(tile.getValue());
+        }
       }
       // To determine if it is the last row and do not start a new line
       if (i == this.grid - 1) {
@@ -162,11 +378,11 @@ public class Board {
         break;
       }
       // To start a new line for the next row
-      temp += "\r\n";
+      temp.append("\r\n");
     }
 
     // To return the string
-    return temp;
+    return temp.toString();
   }
 
   /**
@@ -181,14 +397,30 @@ public class Board {
 
   /**
    * GETTER METHOD:
-   * Return the Tile at given location
+   * Return the Tile at given location, the shared Tile of its exponent
    *
    * @param x is the x-axis
    * @param y is the y-axis
    * @return the Tile at x y
    */
   public Tile getTile(int x, int y) {
-    return this.board[x][y];
+    return this.tiles[this.getExponent(x, y)];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the exponent of the Tile at given location
+   *
+   * @param x is the x-axis
+   * @param y is the y-axis
+   * @return the exponent at x y, 0 if the Tile is empty
+   */
+  public int getExponent(int x, int y) {
+    // To read the packed cells if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      return this.bits.getExponent(x, y);
+    }
+    return this.cells[x * this.grid + y];
   }
 
   /**
@@ -206,11 +438,93 @@ public class Board {
    *
    * @return the current score of the game
    */
-  public int getScore() {
+  public long getScore() {
     // To return the current score of the game
     return this.score;
   }
 
+  /**
+   * GETTER METHOD:
+   * Return the number of empty Tiles
+   *
+   * @return the number of empty Tiles
+   */
+  public int getEmptyCount() {
+    // To count the empty nibbles if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      return this.bits.countEmpty();
+    }
+    return this.freeCount;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the location of the k-th empty Tile. The order of the empty Tiles stays the same until
+   * the next change of the Board.
+   *
+   * @param k is which empty Tile to find, from 0 to getEmptyCount() - 1
+   * @return the location of the Tile (x * grid + y)
+   */
+  public int getEmptyCell(int k) {
+    // To find the k-th empty nibble if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      return this.bits.getEmptyCell(k);
+    }
+    return this.free[k];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a 64-bit key of the Tiles, which is the same for two Boards with the same Tiles. The
+   * packed cells of a BitBoard are the key itself, and the cells array has its Zobrist hash kept
+   * up to date by every write and by the count after a move on this thread, so the key is found
+   * in constant time. Only after a move split across the pool, which writes whole lines at once,
+   * is it computed again.
+   *
+   * @return the key of the Tiles
+   */
+  public long getKey() {
+    // To use the packed cells if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      return this.bits.getBits();
+    }
+    // To hash the cells again after a split move
+    if (!this.hashValid) {
+      this.rehash();
+    }
+    return this.hash;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if the Board is backed by a BitBoard
+   *
+   * @return if the cells are packed into a BitBoard
+   */
+  public boolean isBitBoard() {
+    return this.bits != null;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the pool the lines of a move are split across
+   *
+   * @return the pool, null if the lines are moved one by one
+   */
+  public ForkJoinPool getPool() {
+    return this.pool;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if the rows are slid by SwarSlide
+   *
+   * @return if the lines are slid 8 cells at a time
+   */
+  public boolean isSwar() {
+    return this.swar;
+  }
+
   /**
    * TESTING PURPOSES:
    * To print the board as a string in the console.
@@ -226,269 +540,1191 @@ public class Board {
 
   /**
    * To check if game still contains an empty Tile.
-   * - go through every Tiles on the Board to check
+   * - check the number of empty Tiles, which is kept up to date by every move and spawn
    *
    * @return if there is an empty Tile or not
    */
   public boolean containEmptyTile() {
-    // To loop through the rows of the Board
-    for(int i = 0; i < this.grid; i++) {
-      // To loop through the columns of the Board
-      for(int j = 0; j < this.grid; j++) {
-        // To check if the Tile at [i][j] location is empty
-        if(this.board[i][j].isEmpty()) {
-          // Return true if the Tile is empty
-          return true;
-        }
-      }
-    }
-
-    // Return false if there is no empty Tile
-    return false;
+    return this.getEmptyCount() != 0;
   }
 
   /**
    * To check if game is over.
    * - check first if there is an empty Tile, which means game is not over
-   * - check horizontally and vertically for duplicate number, since duplicate number means the
-   * Tiles can still be moved, which means game is not over
+   * - check for adjacent Tiles with the same exponent, since they mean the Tiles can still be
+   * merged, which means game is not over
+   * - both are counted by every move and spawn, so no Tile is visited here
+   * - time the check if the Metrics are on
    *
    * @return if the game is over or not
    */
   public boolean isGameOver() {
+    // To time the check if the metrics are on
+    if (Metrics.ENABLED) {
+      long start = System.nanoTime();
+      boolean over = this.checkGameOver();
+      Metrics.gameOver(start);
+      return over;
+    }
+    return this.checkGameOver();
+  }
+
+  /**
+   * To check if the game is over, for isGameOver().
+   *
+   * @return if the game is over or not
+   */
+  private boolean checkGameOver() {
     // To check if there is an empty tile
     if (containEmptyTile()) {
       // Return false because there is still an empty Tile
       return false;
     }
 
-    // To check horizontal for duplicate number
-    for(int i = 0; i < this.grid; i++){
-      for(int j = 0; j < this.grid - 1; j++){
-        if(this.board[i][j].getValue() == this.board[i][j + 1].getValue()) {
-          return false;
-        }
-      }
+    // To check for adjacent exponents if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      return !this.bits.canMerge();
     }
 
-    // To check vertical for duplicate number
-    for(int i = 0; i < this.grid - 1; i++) {
-      for(int j = 0; j < this.grid; j++) {
-        if(this.board[i][j].getValue() == this.board[i + 1][j].getValue()) {
-          return false;
+    // Return true if none duplicate exponents exist
+    return this.pairs == 0;
+  }
+
+  /**
+   * To check if any move would still change the Board.
+   * - two adjacent Tiles with the same exponent can always merge
+   * - an empty Tile next to a Tile can always be moved into, and if there are both empty Tiles
+   * and Tiles on the Board, some empty Tile is next to some Tile
+   *
+   * @return if there is a legal move or not
+   */
+  public boolean hasLegalMove() {
+    // To check the packed cells if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      return this.bits.canMerge() || (this.bits.getBits() != 0 && this.bits.countEmpty() != 0);
+    }
+
+    return this.pairs != 0 || (this.freeCount != 0 && this.freeCount != this.cells.length);
+  }
+
+  /**
+   * To find the Directions that would change the Board, without moving it.
+   * - a row can move left if an empty cell comes before a Tile, and right if a Tile comes
+   * before an empty cell
+   * - a column can move up or down in the same way
+   * - two adjacent Tiles with the same exponent can move both ways
+   * - go through the cells once, row by row, keeping what every column has seen so far
+   * - keep the mask until the next change of the Board
+   *
+   * @return the mask of the legal Directions
+   */
+  public int legalMoves() {
+    // To reuse the mask if nothing changed since it was found
+    if (this.legalValid) {
+      return this.legalMask;
+    }
+    if (Metrics.ENABLED) {
+      Metrics.legalScan();
+    }
+
+    // To find the mask with the row tables if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      this.legalMask = this.bits.legalMoves();
+      this.legalValid = true;
+      return this.legalMask;
+    }
+
+    int mask = 0;
+    int all = Direction.LEFT.getMask() | Direction.RIGHT.getMask()
+            | Direction.UP.getMask() | Direction.DOWN.getMask();
+    Arrays.fill(this.colEmpty, false);
+    Arrays.fill(this.colTile, false);
+
+    // To loop through the rows, and stop once every Direction is legal
+    for (int i = 0; i < this.grid && mask != all; i++) {
+      int row = i * this.grid;
+      boolean rowEmpty = false;
+      boolean rowTile = false;
+      // To loop through the columns
+      for (int j = 0; j < this.grid; j++) {
+        int exponent = this.cells[row + j];
+        if (exponent == 0) {
+          // A Tile before an empty cell can move right or down
+          if (rowTile) {
+            mask |= Direction.RIGHT.getMask();
+          }
+          if (this.colTile[j]) {
+            mask |= Direction.DOWN.getMask();
+          }
+          rowEmpty = true;
+          this.colEmpty[j] = true;
+        }
+        else {
+          // An empty cell before a Tile can be moved into left or up
+          if (rowEmpty) {
+            mask |= Direction.LEFT.getMask();
+          }
+          if (this.colEmpty[j]) {
+            mask |= Direction.UP.getMask();
+          }
+          // Two adjacent Tiles with the same exponent can merge both ways
+          if (this.canGrow(exponent)) {
+            if (j > 0 && this.cells[row + j - 1] == exponent) {
+              mask |= Direction.LEFT.getMask() | Direction.RIGHT.getMask();
+            }
+            if (i > 0 && this.cells[row - this.grid + j] == exponent) {
+              mask |= Direction.UP.getMask() | Direction.DOWN.getMask();
+            }
+          }
+          rowTile = true;
+          this.colTile[j] = true;
         }
       }
     }
 
-    // Return true if none duplicate number exist
-    return true;
+    // To keep the mask until the next change
+    this.legalMask = mask;
+    this.legalValid = true;
+    return mask;
+  }
+
+  /**
+   * To check if moving in a Direction would change the Board.
+   *
+   * @param direction is the Direction to be checked
+   * @return if the move is legal or not
+   */
+  public boolean canMove(Direction direction) {
+    return direction.isIn(this.legalMoves());
+  }
+
+
+
+  /**
+   * To copy the Tiles and the score of another Board into this Board, without allocating.
+   * - the other Board must have the same grid size and multiplier
+   * - move to the backend of the other Board first if it was promoted from a BitBoard and this
+   * Board was not, or the other way round, which allocates
+   * - copy the cells, the free cells and the counts so nothing has to be recomputed
+   *
+   * @param other is the Board to be copied
+   */
+  public void copyFrom(Board other) {
+    // To check that the two Boards have the same size
+    if (other.grid != this.grid || other.multiplier != this.multiplier) {
+      throw new IllegalArgumentException("Cannot copy a " + other.grid + "x" + other.grid
+              + " Board with multiplier " + other.multiplier + " into a " + this.grid + "x"
+              + this.grid + " Board with multiplier " + this.multiplier);
+    }
+    // To switch to the backend of the other Board
+    if ((other.bits != null) != (this.bits != null)) {
+      this.initialize(other.bits != null);
+    }
+
+    // To copy the packed cells if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      this.bits.setBits(other.bits.getBits());
+    }
+    // To copy the cells and everything counted from them
+    else {
+      System.arraycopy(other.cells, 0, this.cells, 0, this.cells.length);
+      System.arraycopy(other.free, 0, this.free, 0, this.free.length);
+      System.arraycopy(other.freeSlot, 0, this.freeSlot, 0, this.freeSlot.length);
+      this.freeCount = other.freeCount;
+      this.pairs = other.pairs;
+      this.hash = other.hash;
+      this.hashValid = other.hashValid;
+    }
+    this.legalMask = other.legalMask;
+    this.legalValid = other.legalValid;
+    this.score = other.score;
   }
 
+  /**
+   * To set the exponent of the Tile at given location, such as placing a spawned Tile.
+   *
+   * @param x is the x-axis
+   * @param y is the y-axis
+   * @param exponent is the exponent to be set, 0 to empty the Tile
+   */
+  public void setExponent(int x, int y, int exponent) {
+    // To check that the value of the exponent fits
+    if (exponent < 0 || exponent >= this.powers.length) {
+      throw new IllegalArgumentException("Exponent out of range: " + exponent);
+    }
+    // To move to the cells array if the exponent does not fit in a nibble
+    if (this.bits != null && exponent > BitBoard.MAX_EXPONENT) {
+      this.promote();
+    }
 
+    // To set the nibble if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      this.bits.setExponent(x, y, exponent);
+      this.legalValid = false;
+      return;
+    }
+    this.put(x * this.grid + y, exponent);
+  }
 
   /**
    * To spawn a random tile on the board.
    * - check first if there is an empty Tile to spawn
-   * - pick a random location and attempt to spawn a new Tile
-   * - iterate until an empty Tile is found
+   * - pick one of the empty Tiles uniformly, in constant time, from the free cells
+   * - use the seeded random numbers of the Board if it has them, or else the random numbers of
+   * the current thread, so Boards played on many threads do not compete for one shared generator
+   * - spawn a new Tile there
+   * - time the spawn if the Metrics are on
+   *
+   * @return the location of the new Tile as x * grid + y, -1 if there was no empty Tile
    */
-  public void spawn() {
+  public int spawn() {
+    // To time the spawn if the metrics are on
+    if (Metrics.ENABLED) {
+      long start = System.nanoTime();
+      int cell = this.spawnTile();
+      Metrics.spawn(start, cell);
+      return cell;
+    }
+    return this.spawnTile();
+  }
+
+  /**
+   * To spawn a random tile on the board, for spawn().
+   *
+   * @return the location of the new Tile as x * grid + y, -1 if there was no empty Tile
+   */
+  private int spawnTile() {
+    // To spawn in the packed cells if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      double next = this.random != null ? this.random.nextDouble()
+              : ThreadLocalRandom.current().nextDouble();
+      this.legalValid = false;
+      return this.bits.spawn(next);
+    }
+
     // To check if there is an empty tile to spawn
-    if(this.containEmptyTile()) {
-      // To loop until a tile is spawned
-      while (true) {
-        // To randomly pick a tile in the board
-        int randomRow = (int) Math.floor(Math.random() * ((this.grid - 1) - 0 + 1) + 0);
-        int randomCol = (int) Math.floor(Math.random() * ((this.grid - 1) - 0 + 1) + 0);
-        // If the random tile is empty and can spawn a new number
-        if (this.board[randomRow][randomCol].isEmpty()) {
-          // To create the tile with a value of the multiplier
-          this.board[randomRow][randomCol] = new Tile(this.multiplier);
-          // To break the loop
-          break;
-        }
+    if(this.freeCount != 0) {
+      // To randomly pick one of the empty tiles
+      int next = this.random != null ? this.random.nextInt(this.freeCount)
+              : ThreadLocalRandom.current().nextInt(this.freeCount);
+      int index = this.free[next];
+      // To create the tile with the exponent of the multiplier
+      this.put(index, 1);
+      return index;
+    }
+    return -1;
+  }
+
+  /**
+   * To set every Tile and the score at once, such as when a game is replayed from a keyframe.
+   *
+   * @param exponents is the exponent of every Tile, row by row
+   * @param score is the score
+   */
+  public void restore(byte[] exponents, long score) {
+    // To check that the exponents fit the Board
+    if (exponents.length != this.grid * this.grid) {
+      throw new IllegalArgumentException("Expected " + this.grid * this.grid + " exponents, got "
+              + exponents.length);
+    }
+    for (int i = 0; i < exponents.length; i++) {
+      this.setExponent(i / this.grid, i % this.grid, exponents[i]);
+    }
+    this.score = score;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of longs pack(long[], int) writes: one for every 8 cells, so a 4x4 Board
+   * packs into as many longs before and after it is promoted from a BitBoard
+   *
+   * @return the number of longs of a packed Board
+   */
+  public int getPackedWords() {
+    return (this.grid * this.grid + 7) / 8;
+  }
+
+  /**
+   * To pack every Tile into longs, without allocating: the 16 nibbles of a BitBoard as they are,
+   * followed by PACKED_BITS, or else one byte for every cell, 8 cells to a long.
+   *
+   * @param into is the longs to write to
+   * @param offset is where to start writing, with getPackedWords() longs after it
+   */
+  public void pack(long[] into, int offset) {
+    // To copy the packed cells if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      into[offset] = this.bits.getBits();
+      into[offset + 1] = PACKED_BITS;
+      return;
+    }
+
+    // To pack 8 cells into every long
+    for (int word = 0; word < this.getPackedWords(); word++) {
+      long packed = 0;
+      int end = Math.min(this.cells.length, word * 8 + 8);
+      for (int index = word * 8; index < end; index++) {
+        packed |= (this.cells[index] & 0xFFL) << (8 * (index & 7));
       }
+      into[offset + word] = packed;
+    }
+  }
+
+  /**
+   * To set every Tile from longs written by pack(long[], int) on a Board of the same grid size,
+   * and the score.
+   * - unpack the nibbles of a BitBoard with unpackBits(long, long)
+   * - promote a BitBoard to the cells array before unpacking the bytes of one
+   * - only write the cells that changed, so the free cells and the pairs stay up to date
+   *
+   * @param from is the longs to read from
+   * @param offset is where to start reading
+   * @param score is the score
+   */
+  public void unpack(long[] from, int offset, long score) {
+    // To unpack the packed cells if they were packed from a BitBoard
+    if (this.grid == 4 && from[offset + 1] == PACKED_BITS) {
+      this.unpackBits(from[offset], score);
+      return;
+    }
+    this.score = score;
+    if (this.bits != null) {
+      this.promote();
+    }
+
+    // To unpack 8 cells from every long
+    for (int index = 0; index < this.cells.length; index++) {
+      this.put(index, (int) (from[offset + (index >>> 3)] >>> (8 * (index & 7))) & 0xFF);
     }
   }
 
   /**
-   * To compress the number together with no zero in between.
-   * - check if the number is 0
-   * - remove the 0 and move the rest forward
-   * - iterate until no 0 left
-   * - add the 0 at the end to keep up with the length
+   * To set every Tile of a 4x4 Board from the packed cells of a BitBoard, as getKey() returns
+   * them, and the score. A Board already promoted to the cells array stays there.
    *
-   * @param list is the list of number to be compressed
-   * @return the compressed list
+   * @param packed is the 16 exponents packed into a long
+   * @param score is the score
    */
-  public Tile[] compress(Tile[] list) {
-    // To create a list to store the compressed number
-    Tile[] temp = new Tile[list.length];
-    // To loop through the list and create tiles in it
-    for(int i = 0; i < temp.length; i++) {
-      // To create the tile
-      temp[i] = new Tile();
+  public void unpackBits(long packed, long score) {
+    // To check that the packed cells fit the Board
+    if (this.grid != 4) {
+      throw new IllegalArgumentException("Cannot unpack 16 cells into a " + this.grid + "x"
+              + this.grid + " Board");
+    }
+    this.score = score;
+    // To copy the packed cells if the Board is backed by a BitBoard
+    if (this.bits != null) {
+      this.bits.setBits(packed);
+      this.legalValid = false;
+      return;
+    }
+
+    // To unpack every nibble into its cell
+    for (int index = 0; index < this.cells.length; index++) {
+      this.put(index, (int) (packed >>> (4 * index)) & 0xF);
+    }
+  }
+
+  /**
+   * To split the lines of every move across a pool, or to move them one by one. The pool of a
+   * Board of PARALLEL_GRID or more is the common pool at first. A Board backed by a BitBoard
+   * always moves with its row tables.
+   *
+   * @param pool is the pool to split the lines across, null to move them one by one
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = this.bits != null ? null : pool;
+  }
+
+  /**
+   * To slide the rows of every move with SwarSlide, 8 cells to a long, and the columns of a move
+   * split across the pool once they are copied into rows, or to stop. The cells of a split move are
+   * then counted again 8 cells at a time too. On this thread, the columns are slid where they are
+   * by the plain kernel, since copying them into rows and back costs more than SwarSlide saves. A
+   * Board of SWAR_GRID or more does at first. It is ignored if the Board is backed by a BitBoard.
+   *
+   * @param swar is if the lines should be slid 8 cells at a time
+   */
+  public void setSwar(boolean swar) {
+    this.swar = swar && this.bits == null;
+  }
+
+  /**
+   * To count the neighbours of a cell that could merge with the given exponent.
+   *
+   * @param index is the index of the cell
+   * @param exponent is the exponent of the cell
+   * @return the number of neighbours that have the same exponent, 0 if it cannot merge
+   */
+  private int countPairs(int index, int exponent) {
+    // To skip the empty cells and the exponents that cannot grow
+    if (!this.canGrow(exponent)) {
+      return 0;
     }
 
-    // To create a counter for the index
     int count = 0;
-    // To loop through the given list and look for numbers
-    for(int i = 0; i < list.length; i++) {
-      // If the number is not zero
-      if(list[i].getValue() != 0) {
-        // To copy the number to the compressed list
-        temp[count].setValue(list[i].getValue());
-        // To add one to the counter
-        count++;
+    int col = index % this.grid;
+    // To check the left and right neighbours
+    if (col > 0 && this.cells[index - 1] == exponent) {
+      count++;
+    }
+    if (col < this.grid - 1 && this.cells[index + 1] == exponent) {
+      count++;
+    }
+    // To check the neighbours above and below
+    if (index >= this.grid && this.cells[index - this.grid] == exponent) {
+      count++;
+    }
+    if (index + this.grid < this.cells.length && this.cells[index + this.grid] == exponent) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * To check if a non-empty exponent can still be raised by a merge without its value
+   * overflowing a long.
+   *
+   * @param exponent is the exponent to be checked
+   * @return if two Tiles of this exponent can merge
+   */
+  private boolean canGrow(int exponent) {
+    return exponent != 0 && exponent < this.powers.length - 1;
+  }
+
+  /**
+   * To compute the Zobrist hash of the cells from scratch: the key of the grid size, with the key
+   * of every Tile XOR-ed into it.
+   */
+  private void rehash() {
+    long hash = zobrist(this.grid);
+    // To loop through the Tiles, the empty cells have no key
+    for (int index = 0; index < this.cells.length; index++) {
+      hash ^= zobrist(index, this.cells[index]);
+    }
+    this.hash = hash;
+    this.hashValid = true;
+  }
+
+  /**
+   * To find the Zobrist key of an exponent in a cell. Instead of a table of random numbers, which
+   * would need a long for every exponent of every cell of the biggest Board, the key is the index
+   * and the exponent mixed into 64 random-looking bits (the finalizer of SplitMix64).
+   *
+   * @param index is the index of the cell
+   * @param exponent is the exponent in the cell
+   * @return the key, 0 for an empty cell
+   */
+  static long zobrist(int index, int exponent) {
+    return exponent == 0 ? 0 : mix(((long) index << 8 | exponent) + 1);
+  }
+
+  /**
+   * To find the Zobrist key of a grid size, which is the hash of an empty Board. It is mixed from
+   * a negative value, so it is never the key of a cell.
+   *
+   * @param grid is the grid size
+   * @return the key
+   */
+  static long zobrist(int grid) {
+    return mix(-(long) grid);
+  }
+
+  /**
+   * To mix the bits of a value into 64 random-looking bits, with the finalizer of SplitMix64.
+   *
+   * @param value is the value to mix
+   * @return the mixed bits
+   */
+  private static long mix(long value) {
+    long z = value * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * To find the exponent of a value, which is how many times the multiplier goes into it.
+   *
+   * @param value is the value of a Tile
+   * @return the exponent, 0 for an empty Tile
+   */
+  private int exponentOf(long value) {
+    // To loop through the values of every exponent
+    for (int i = 0; i < this.powers.length; i++) {
+      if (this.powers[i] == value) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException(value + " is not a power of " + this.multiplier);
+  }
+
+  /**
+   * To slide and merge one line of an array into the same line of another array, or of the same
+   * one, with no temporary list and without put(), so the lines of a move can be slid by many
+   * workers at once and the lines of afterstates(Afterstates) straight into the Board of every
+   * Direction. The empty cells and the pairs are counted again once every line is slid.
+   * - read the line from its first cell and skip the empty ones
+   * - keep the last Tile read as pending until the next Tile is known
+   * - merge the pending Tile with the next one if they have the same exponent
+   * - write the Tiles from the first cell, which is never ahead of the cell being read, so the
+   * line is read before it is written when both arrays are the same
+   * - empty the rest of the line
+   *
+   * @param from is the array the line is read from, the cells or the transposed cells
+   * @param to is the array the line is written to, which can be from
+   * @param start is the index of the first cell of the line, the one the Tiles move towards
+   * @param step is the distance between two cells of the line
+   * @param into is the MoveResult to record the line in
+   */
+  private void slide(byte[] from, byte[] to, int start, int step, MoveResult into) {
+    // write: the index where the next Tile goes
+    // pending: the exponent waiting to be placed or merged, 0 if none
+    int write = start;
+    int pending = 0;
+    boolean moved = false;
+    int merges = 0;
+    long scoreGained = 0;
+
+    // To loop through the line
+    for (int k = 0, read = start; k < this.grid; k++, read += step) {
+      int exponent = from[read];
+      // To skip the empty cells
+      if (exponent == 0) {
+        continue;
+      }
+      // To merge with the pending Tile if both have the same exponent
+      if (exponent == pending && this.canGrow(exponent)) {
+        moved |= from[write] != exponent + 1;
+        to[write] = (byte) (exponent + 1);
+        write += step;
+        merges++;
+        scoreGained += this.powers[exponent + 1];
+        pending = 0;
+      }
+      // Otherwise, to place the pending Tile and keep the current one
+      else {
+        if (pending != 0) {
+          moved |= from[write] != pending;
+          to[write] = (byte) pending;
+          write += step;
+        }
+        pending = exponent;
       }
     }
+    // To place the last pending Tile
+    if (pending != 0) {
+      moved |= from[write] != pending;
+      to[write] = (byte) pending;
+      write += step;
+    }
+    // To empty the rest of the line
+    for (int end = start + this.grid * step; write != end; write += step) {
+      moved |= from[write] != 0;
+      to[write] = 0;
+    }
+
+    into.add(moved, merges, scoreGained);
+  }
 
-    // To loop through the rest of the compressed list
-    for(int j = count; j < temp.length; j++) {
-      // To create a zero in it
-      temp[j].setValue(0);
+  /**
+   * To move every line across the pool, or on this thread if there is none. Every line is slid by
+   * slide(byte[], byte[], int, int, MoveResult), or by SwarSlide if the Board uses it.
+   * - on this thread, slide every line into the MoveResult of the Board, and count the empty
+   * cells, the pairs and the hash again in one pass if anything moved
+   * - otherwise, slide the lines on the workers, LINES at a time, with the columns of a column
+   * move copied into the rows of the transposed cells and back, so every line is read
+   * contiguously
+   * - if anything moved, count the empty cells of every row and the pairs on the workers
+   * - find where the empty cells of every row start in free
+   * - list the empty cells on the workers, in row order
+   * The Lines of the workers are created once and reused by every split move, so a move on this
+   * thread allocates nothing, and a split move only the few bytes the pool needs to wait for
+   * every phase.
+   *
+   * @param direction is the Direction to move in
+   */
+  private void split(Direction direction) {
+    // To slide the lines on this thread if there is no pool
+    if (this.pool == null) {
+      this.slideLines(direction);
+      if (this.result.isMoved()) {
+        this.recount();
+      }
+      return;
     }
 
-    // Return the list
-    return temp;
+    // To create the transposed cells and the Lines at the first split move that needs them
+    if (this.transposed == null && (direction == Direction.UP || direction == Direction.DOWN)) {
+      this.transposed = new byte[this.cells.length];
+    }
+    if (this.lines == null) {
+      this.lines = new Lines(0, this.grid);
+    }
+    Lines lines = this.lines;
+    this.run(lines, SLIDE, direction);
+    this.result.add(lines.result.isMoved(), lines.result.getMerges(),
+            lines.result.getScoreGained());
+    if (!lines.result.isMoved()) {
+      return;
+    }
+    this.legalValid = false;
+    this.hashValid = false;
+
+    // To count the empty cells and the pairs again
+    if (this.rowFree == null) {
+      this.rowFree = new int[this.grid];
+    }
+    this.run(lines, COUNT, direction);
+    this.pairs = lines.pairs;
+    // To turn the empty cells of every row into where the row starts in free
+    int total = 0;
+    for (int i = 0; i < this.grid; i++) {
+      int empty = this.rowFree[i];
+      this.rowFree[i] = total;
+      total += empty;
+    }
+    this.freeCount = total;
+    this.run(lines, FILL, direction);
   }
 
   /**
-   * To merge the adjacent number together and multiplying them together.
-   * - check if the adjacent Tile has the same value
-   * - merge the number and update the score
-   * - make the adjacent Tile empty
-   * - iterate until the end of the list of number
+   * To slide every line of a move on this thread, into the MoveResult of the Board: the rows and
+   * the columns where they are, with the rows 8 cells at a time if the Board uses SwarSlide.
    *
-   * @param list is the list of number to be merged
-   * @return the merged list
+   * @param direction is the Direction to move in
    */
-  public Tile[] merge(Tile[] list) {
-    // To loop through the list
-    for(int i = 0; i < list.length - 1; i++) {
-      // To check if the number after it is the same number
-      if(list[i].getValue() == list[i + 1].getValue() && list[i].getValue() != 0) {
-        // To multiply the number
-        list[i].setValue(list[i].getValue() * this.multiplier);
-        // To keep track of the score
-        this.score += list[i].getValue();
-        // To set the number to zero
-        list[i + 1].setValue(0);
+  private void slideLines(Direction direction) {
+    boolean forward = direction == Direction.LEFT || direction == Direction.UP;
+    // To slide the rows
+    if (direction == Direction.LEFT || direction == Direction.RIGHT) {
+      if (this.swar && this.scratch == null) {
+        this.scratch = SwarSlide.scratch(this.grid);
       }
+      byte[] scratch = this.swar ? this.scratch : null;
+      for (int i = 0; i < this.grid; i++) {
+        int start = forward ? i * this.grid : i * this.grid + this.grid - 1;
+        if (scratch != null) {
+          SwarSlide.slide(this.cells, start, forward ? 1 : -1, this.grid, this.powers, scratch,
+                  this.result);
+        }
+        else {
+          this.slide(this.cells, this.cells, start, forward ? 1 : -1, this.result);
+        }
+      }
+      return;
+    }
+    // To slide the columns
+    for (int j = 0; j < this.grid; j++) {
+      this.slide(this.cells, this.cells, forward ? j : (this.grid - 1) * this.grid + j,
+              forward ? this.grid : -this.grid, this.result);
+    }
+  }
+
+  /**
+   * To run a phase of a split move across the pool, through the reused Lines.
+   *
+   * @param lines is the root of the Lines
+   * @param phase is SLIDE, COUNT or FILL
+   * @param direction is the Direction of the move
+   */
+  private void run(Lines lines, int phase, Direction direction) {
+    lines.start(phase, direction);
+    this.pool.invoke(lines);
+  }
+
+  /**
+   * To write an exponent into a cell.
+   * - skip the cells that already hold the exponent
+   * - remove the cell from the free cells if it is filled
+   * - add the cell to the free cells if it is emptied
+   * - recount the pairs of same exponents between the cell and its neighbours
+   * - XOR the key of the old exponent out of the hash and the key of the new one in
+   *
+   * @param index is the index of the cell
+   * @param exponent is the exponent to be written
+   * @return if the cell changed or not
+   */
+  private boolean put(int index, int exponent) {
+    int old = this.cells[index];
+    // To skip the cells that already hold the exponent
+    if (old == exponent) {
+      return false;
+    }
+    this.legalValid = false;
+    this.hash ^= zobrist(index, old) ^ zobrist(index, exponent);
+    this.pairs -= this.countPairs(index, old);
+    this.cells[index] = (byte) exponent;
+    this.pairs += this.countPairs(index, exponent);
+
+    // If the cell was empty, to move the last free cell into its slot
+    if (old == 0) {
+      int slot = this.freeSlot[index];
+      int last = this.free[--this.freeCount];
+      this.free[slot] = last;
+      this.freeSlot[last] = slot;
+      this.freeSlot[index] = -1;
+    }
+    // If the cell is now empty, to add it at the end of the free cells
+    else if (exponent == 0) {
+      this.free[this.freeCount] = index;
+      this.freeSlot[index] = this.freeCount++;
     }
-    // Return list
-    return list;
+    return true;
   }
 
 
 
   /**
    * To move left.
-   * - compress
-   * - merge
-   * - compress
+   * - move every row towards its first column
+   *
+   * @return the MoveResult of the move, reused by the next move
    */
-  public void left() {
-    // To loop through every row
-    for(int i = 0; i < this.grid; i++) {
-      // To compress first
-      this.board[i] = this.compress(this.board[i]);
-      // To merge
-      this.board[i] = this.merge(this.board[i]);
-      // To compress again
-      this.board[i] = this.compress(this.board[i]);
+  public MoveResult left() {
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+    this.result.reset();
+    // To move with the row tables if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      this.bits.left(this.result);
+      this.legalValid &= !this.result.isMoved();
+    }
+    // To slide the rows, split across the pool or 8 cells at a time if the Board does so
+    else {
+      this.split(Direction.LEFT);
     }
+
+    // To keep track of the score
+    this.score += this.result.getScoreGained();
+    if (Metrics.ENABLED) {
+      Metrics.move(Direction.LEFT, start, this.result);
+    }
+    return this.result;
   }
 
   /**
    * To move right.
-   * - translate the rows first for compress and merge
-   * - compress
-   * - merge
-   * - compress
-   */
-  public void right() {
-    // To loop through the rows
-    for(int i = 0; i < this.grid; i++) {
-      // To create a list to store the reversed number
-      Tile[] temp = new Tile[this.grid];
-      // To loop through the columns
-      for(int j = 0; j < this.grid; j++) {
-        // To assign the value
-        temp[j] = new Tile(this.board[i][this.grid - 1- j].getValue());
+   * - move every row towards its last column
+   *
+   * @return the MoveResult of the move, reused by the next move
+   */
+  public MoveResult right() {
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+    this.result.reset();
+    // To move with the row tables if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      this.bits.right(this.result);
+      this.legalValid &= !this.result.isMoved();
+    }
+    // To slide the rows, split across the pool or 8 cells at a time if the Board does so
+    else {
+      this.split(Direction.RIGHT);
+    }
+
+    // To keep track of the score
+    this.score += this.result.getScoreGained();
+    if (Metrics.ENABLED) {
+      Metrics.move(Direction.RIGHT, start, this.result);
+    }
+    return this.result;
+  }
+
+  /**
+   * To move up.
+   * - move every column towards its first row
+   *
+   * @return the MoveResult of the move, reused by the next move
+   */
+  public MoveResult up() {
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+    this.result.reset();
+    // To move with the row tables if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      this.bits.up(this.result);
+      this.legalValid &= !this.result.isMoved();
+    }
+    // To slide the columns, split across the pool or 8 cells at a time if the Board does so
+    else {
+      this.split(Direction.UP);
+    }
+
+    // To keep track of the score
+    this.score += this.result.getScoreGained();
+    if (Metrics.ENABLED) {
+      Metrics.move(Direction.UP, start, this.result);
+    }
+    return this.result;
+  }
+
+  /**
+   * To move down.
+   * - move every column towards its last row
+   *
+   * @return the MoveResult of the move, reused by the next move
+   */
+  public MoveResult down() {
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+    this.result.reset();
+    // To move with the row tables if the Board is backed by a BitBoard
+    if (this.stillPacked()) {
+      this.bits.down(this.result);
+      this.legalValid &= !this.result.isMoved();
+    }
+    // To slide the columns, split across the pool or 8 cells at a time if the Board does so
+    else {
+      this.split(Direction.DOWN);
+    }
+
+    // To keep track of the score
+    this.score += this.result.getScoreGained();
+    if (Metrics.ENABLED) {
+      Metrics.move(Direction.DOWN, start, this.result);
+    }
+    return this.result;
+  }
+
+  /**
+   * To move in a Direction.
+   *
+   * @param direction is the Direction to move in
+   * @return the MoveResult of the move, reused by the next move
+   */
+  public MoveResult move(Direction direction) {
+    switch (direction) {
+      case LEFT:
+        return this.left();
+      case RIGHT:
+        return this.right();
+      case UP:
+        return this.up();
+      default:
+        return this.down();
+    }
+  }
+
+
+  /**
+   * To move in every Direction at once into the reused Boards of an Afterstates, without
+   * changing this Board, so a search or a policy can try every Direction without copying it.
+   * - on a BitBoard, look every row and every column up once for both of its Directions
+   * - otherwise, read every line of the cells once for each of its two Directions and write the
+   * slid line straight into the Board of that Direction, so nothing is copied first
+   * - count the empty cells and the pairs of every Board that changed, and copy this Board into
+   * every Board that did not
+   * - keep the mask of the changed Directions as the legal Directions of this Board
+   *
+   * @param into is the Afterstates to fill, reused for every position
+   * @return the mask of the Directions that changed the Board
+   */
+  public int afterstates(Afterstates into) {
+    // To check the backend first, since the Boards are prepared for it
+    boolean bitBoard = this.stillPacked();
+    Board[] boards = into.prepare(this);
+    MoveResult[] results = into.results();
+    int changed = 0;
+
+    // To move the packed cells if the Board is backed by a BitBoard
+    if (bitBoard) {
+      long[] packed = into.packed();
+      changed = this.bits.afterstates(packed, results);
+      for (int i = 0; i < boards.length; i++) {
+        boards[i].bits.setBits(packed[i]);
+        boards[i].legalValid = false;
+      }
+    }
+    else {
+      Board left = boards[Direction.LEFT.ordinal()];
+      Board right = boards[Direction.RIGHT.ordinal()];
+      Board up = boards[Direction.UP.ordinal()];
+      Board down = boards[Direction.DOWN.ordinal()];
+      // To slide every row both ways
+      for (int i = 0; i < this.grid; i++) {
+        this.slide(this.cells, left.cells, i * this.grid, 1, results[Direction.LEFT.ordinal()]);
+        this.slide(this.cells, right.cells, i * this.grid + this.grid - 1, -1,
+                results[Direction.RIGHT.ordinal()]);
+      }
+      // To slide every column both ways
+      for (int i = 0; i < this.grid; i++) {
+        this.slide(this.cells, up.cells, i, this.grid, results[Direction.UP.ordinal()]);
+        this.slide(this.cells, down.cells, (this.grid - 1) * this.grid + i, -this.grid,
+                results[Direction.DOWN.ordinal()]);
       }
-      // To compress the list
-      temp = this.compress(temp);
-      // To merge the list
-      temp = this.merge(temp);
-      // To compress the list
-      temp = this.compress(temp);
-      // To loop through the columns again
-      for(int k = 0; k < this.grid; k++) {
-        // To reverse the numbers
-        this.board[i][k].setValue(temp[this.grid - k - 1].getValue());
+
+      // To count the Boards that changed again, and copy this Board into the others
+      for (Direction direction : DIRECTIONS) {
+        Board board = boards[direction.ordinal()];
+        if (results[direction.ordinal()].isMoved()) {
+          board.recount();
+          changed |= direction.getMask();
+        }
+        else {
+          board.copyFrom(this);
+        }
       }
     }
+
+    // To keep track of the scores, and of the legal Directions of this Board
+    for (int i = 0; i < boards.length; i++) {
+      boards[i].score = this.score + results[i].getScoreGained();
+    }
+    this.legalMask = changed;
+    this.legalValid = true;
+    into.setChanged(changed);
+    return changed;
   }
 
   /**
-   * To move up.
-   * - translate the columns first for compress and merge
-   * - compress
-   * - merge
-   * - compress
+   * To count the empty cells, the pairs and the hash again after the cells were written without
+   * put(), by a move on this thread or by afterstates(Afterstates).
+   * - list the empty cells in row order
+   * - count every pair once, with the neighbours to the right and below
+   * - XOR the key of every Tile into the hash
    */
-  public void up() {
-    // To loop through the columns
-    for(int i = 0; i < this.grid; i++) {
-      // To create a list to store the number
-      Tile[] temp = new Tile[this.grid];
-      // To loop through the rows
-      for(int j = 0; j < this.grid; j++) {
-        // To get the number
-        temp[j] = new Tile(this.board[j][i].getValue());
+  private void recount() {
+    this.freeCount = 0;
+    this.pairs = 0;
+    long hash = zobrist(this.grid);
+    // To loop through the cells
+    for (int index = 0; index < this.cells.length; index++) {
+      int exponent = this.cells[index];
+      if (exponent == 0) {
+        this.free[this.freeCount] = index;
+        this.freeSlot[index] = this.freeCount++;
       }
-      // To compress the list
-      temp = this.compress(temp);
-      // To merge the list
-      temp = this.merge(temp);
-      // To compress the list
-      temp = this.compress(temp);
-      // To loop through the list
-      for(int k = 0; k < this.grid; k++) {
-        // To retrieve the numbers
-        this.board[k][i].setValue(temp[k].getValue());
+      else {
+        this.freeSlot[index] = -1;
+        hash ^= zobrist(index, exponent);
+        if (this.canGrow(exponent)) {
+          if (index % this.grid < this.grid - 1 && this.cells[index + 1] == exponent) {
+            this.pairs++;
+          }
+          if (index + this.grid < this.cells.length && this.cells[index + this.grid] == exponent) {
+            this.pairs++;
+          }
+        }
       }
     }
+    this.hash = hash;
+    this.hashValid = true;
+    this.legalValid = false;
   }
 
+
+
   /**
-   * To move down.
-   * - translate the columns first for compress and merge
-   * - compress
-   * - merge
-   * - compress
-   */
-  public void down() {
-    // To loop through the columns
-    for(int i = 0; i < this.grid; i++) {
-      // To create a list to store the number
-      Tile[] temp = new Tile[this.grid];
-      // To loop through the rows
-      for(int j = 0; j < this.grid; j++) {
-        // To retrieve the number
-        temp[j] = new Tile(this.board[this.grid - j - 1][i].getValue());
-      }
-      // To compress the list
-      temp = this.compress(temp);
-      // To merge the list
-      temp = this.merge(temp);
-      // To compress the list
-      temp = this.compress(temp);
-      // To loop through the rows
-      for(int k = 0; k < this.grid; k++) {
-        // To assign the value
-        this.board[this.grid - k - 1][i].setValue(temp[k].getValue());
+   * Lines represents a range of rows or columns of a split move, split in half until it is small
+   * enough for one worker. The whole tree of ranges is created once for the grid size and reused
+   * by every phase of every split move. Depending on its phase, it slides the lines, counts the
+   * empty cells and the pairs of the rows, or lists the empty cells of the rows.
+   */
+  private class Lines extends RecursiveAction {
+    // from: the first line of the range
+    // to: the line after the last line of the range
+    // first: the first half of the range, null if the range is not split
+    // second: the second half of the range, null if the range is not split
+    // result: the MoveResult of the lines slid
+    // scratch: the scratch array of SwarSlide for the worker sliding the range, created at the
+    // first move that slides it with SwarSlide
+    // phase: SLIDE, COUNT or FILL
+    // direction: the Direction of the move
+    // pairs: the pairs counted, of the rows and between them and the next row
+    private final int from;
+    private final int to;
+    private final Lines first;
+    private final Lines second;
+    private final MoveResult result = new MoveResult();
+    private byte[] scratch;
+    private int phase;
+    private Direction direction;
+    private int pairs;
+
+    Lines(int from, int to) {
+      this.from = from;
+      this.to = to;
+      // To split the range in half if it is too big
+      if (to - from > LINES) {
+        int middle = (from + to) >>> 1;
+        this.first = new Lines(from, middle);
+        this.second = new Lines(middle, to);
+      }
+      else {
+        this.first = null;
+        this.second = null;
+      }
+    }
+
+    /**
+     * To get the range and its halves ready to run a phase again.
+     *
+     * @param phase is SLIDE, COUNT or FILL
+     * @param direction is the Direction of the move
+     */
+    void start(int phase, Direction direction) {
+      this.reinitialize();
+      this.phase = phase;
+      this.direction = direction;
+      this.result.reset();
+      this.pairs = 0;
+      if (this.first != null) {
+        this.first.start(phase, direction);
+        this.second.start(phase, direction);
+      }
+    }
+
+    @Override
+    protected void compute() {
+      // To run both halves if the range is split
+      if (this.first != null) {
+        invokeAll(this.first, this.second);
+        this.add(this.first);
+        this.add(this.second);
+        return;
+      }
+      if (this.phase == SLIDE) {
+        this.slide();
+      }
+      else if (this.phase == COUNT) {
+        this.count();
+      }
+      else {
+        this.fill();
+      }
+    }
+
+    /**
+     * To add what one half of the range slid and counted.
+     *
+     * @param half is the half
+     */
+    private void add(Lines half) {
+      this.result.add(half.result.isMoved(), half.result.getMerges(),
+              half.result.getScoreGained());
+      this.pairs += half.pairs;
+    }
+
+    /**
+     * To slide the lines of the range in place: the rows, and the columns through the rows of the
+     * transposed cells.
+     */
+    private void slide() {
+      int grid = Board.this.grid;
+      byte[] cells = Board.this.cells;
+      boolean forward = this.direction == Direction.LEFT || this.direction == Direction.UP;
+      if (Board.this.swar && this.scratch == null) {
+        this.scratch = SwarSlide.scratch(grid);
+      }
+      byte[] scratch = Board.this.swar ? this.scratch : null;
+      // To slide the rows where they are
+      if (this.direction == Direction.LEFT || this.direction == Direction.RIGHT) {
+        for (int i = this.from; i < this.to; i++) {
+          this.slide(cells, forward ? i * grid : i * grid + grid - 1, forward ? 1 : -1, scratch);
+        }
+        return;
+      }
+
+      // To copy the columns into rows, reading a short run of every row at a time
+      byte[] transposed = Board.this.transposed;
+      for (int i = 0; i < grid; i++) {
+        for (int j = this.from; j < this.to; j++) {
+          transposed[j * grid + i] = cells[i * grid + j];
+        }
+      }
+      // To slide the columns as rows
+      for (int j = this.from; j < this.to; j++) {
+        this.slide(transposed, forward ? j * grid : j * grid + grid - 1, forward ? 1 : -1,
+                scratch);
+      }
+      // To copy the columns back if any changed
+      if (this.result.isMoved()) {
+        for (int i = 0; i < grid; i++) {
+          for (int j = this.from; j < this.to; j++) {
+            cells[i * grid + j] = transposed[j * grid + i];
+          }
+        }
+      }
+    }
+
+    /**
+     * To slide one line of an array in place, 8 cells at a time with SwarSlide if there is a
+     * scratch array for it.
+     *
+     * @param line is the array that holds the line, the cells or the transposed cells
+     * @param start is the index of the first cell of the line
+     * @param step is the distance between two cells of the line, 1 or -1 for SwarSlide
+     * @param scratch is the scratch array of SwarSlide, null if the line is slid without it
+     */
+    private void slide(byte[] line, int start, int step, byte[] scratch) {
+      if (scratch != null) {
+        SwarSlide.slide(line, start, step, Board.this.grid, Board.this.powers, scratch,
+                this.result);
+      }
+      else {
+        Board.this.slide(line, line, start, step, this.result);
+      }
+    }
+
+    /**
+     * To count the empty cells of every row of the range into rowFree, and the pairs of the rows
+     * and between them and the next row.
+     */
+    private void count() {
+      int grid = Board.this.grid;
+      byte[] cells = Board.this.cells;
+      // To count 8 cells at a time
+      if (Board.this.swar) {
+        int highest = Board.this.powers.length - 2;
+        for (int i = this.from; i < this.to; i++) {
+          long counted = SwarSlide.count(cells, i * grid, grid, i + 1 < grid, highest);
+          Board.this.rowFree[i] = (int) counted;
+          this.pairs += (int) (counted >>> 32);
+        }
+        return;
+      }
+      for (int i = this.from; i < this.to; i++) {
+        int empty = 0;
+        for (int index = i * grid, end = index + grid; index < end; index++) {
+          int exponent = cells[index];
+          if (exponent == 0) {
+            empty++;
+          }
+          else if (Board.this.canGrow(exponent)) {
+            // To count the pair with the right neighbour and the one below
+            if (index + 1 < end && cells[index + 1] == exponent) {
+              this.pairs++;
+            }
+            if (index + grid < cells.length && cells[index + grid] == exponent) {
+              this.pairs++;
+            }
+          }
+        }
+        Board.this.rowFree[i] = empty;
+      }
+    }
+
+    /**
+     * To list the empty cells of every row of the range in free, from where the row starts.
+     */
+    private void fill() {
+      int grid = Board.this.grid;
+      byte[] cells = Board.this.cells;
+      int[] free = Board.this.free;
+      int[] freeSlot = Board.this.freeSlot;
+      for (int i = this.from; i < this.to; i++) {
+        int slot = Board.this.rowFree[i];
+        // To list them 8 cells at a time
+        if (Board.this.swar) {
+          SwarSlide.fill(cells, i * grid, grid, free, freeSlot, slot);
+          continue;
+        }
+        for (int index = i * grid, end = index + grid; index < end; index++) {
+          if (cells[index] == 0) {
+            free[slot] = index;
+            freeSlot[index] = slot++;
+          }
+          else {
+            freeSlot[index] = -1;
+          }
+        }
       }
     }
   }
@@ -0,0 +1,39 @@
+/**
+ * Direction represents the four directions a Board can be moved in. Every Direction has its own
+ * bit, so a set of Directions (such as the legal moves of a Board) fits in a 4-bit mask.
+ * Additionally, it offers several methods:
+ *
+ * getMask() - GETTER METHOD: the bit of the Direction
+ * isIn(int) - return if the Direction is in a mask or not
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public enum Direction {
+  LEFT,
+  RIGHT,
+  UP,
+  DOWN;
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the bit of the Direction
+   *
+   * @return the bit of the Direction in a mask
+   */
+  public int getMask() {
+    return 1 << this.ordinal();
+  }
+
+  /**
+   * To check if the Direction is in a mask.
+   *
+   * @param mask is the mask of Directions
+   * @return if the bit of the Direction is set or not
+   */
+  public boolean isIn(int mask) {
+    return (mask & this.getMask()) != 0;
+  }
+}
@@ -0,0 +1,315 @@
+/**
+ * Expectimax is a Policy that searches the moves of a Board and the Tiles that could spawn after
+ * them. A move node takes the best Direction, and a spawn node takes the average over the empty
+ * Tiles. The search deepens one level at a time until the time budget of the move runs out, and
+ * then uses the best Direction of the deepest finished level. The values of spawn nodes are cached
+ * in a TranspositionTable keyed by Board.getKey(), and every level of the search moves into its own
+ * Afterstates and copies into its own scratch Board, so a search allocates nothing. On big Boards,
+ * a spawn node only averages a few empty Tiles spread across the Board, so every level stays
+ * affordable. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the statistics of the last search
+ * getCompletedDepth() - GETTER METHOD: the deepest finished level of the last search
+ * getNodes() - GETTER METHOD: the number of nodes of the last search
+ * getTable() - GETTER METHOD: the TranspositionTable
+ *
+ * choose(Board) - search the best Direction within the time budget
+ * searchMove(Board, int) - find the best value of the legal Directions
+ * searchSpawn(Board, int) - find the average value of the spawns
+ * evaluate(Board) - estimate the value of a position at the end of the search
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class Expectimax implements Policy {
+  // MAX_DEPTH: the deepest level, where one level is a move and a spawn
+  // MAX_SPAWNS: the most empty Tiles a spawn node averages over
+  // CHECK_EVERY: the number of nodes between two checks of the time budget, minus one
+  // EMPTY_WEIGHT: how many merges of two spawned Tiles an empty Tile is worth
+  // DIRECTIONS: every Direction by its ordinal, without copying values() for every node
+  static final int MAX_DEPTH = 12;
+  static final int MAX_SPAWNS = 6;
+  static final int CHECK_EVERY = 255;
+  static final double EMPTY_WEIGHT = 2.0;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // budget: the time budget of a move, in nanoseconds
+  // table: the cached values of spawn nodes
+  // afterstates: the Boards after every move of every level
+  // spawnBoards: the scratch Board of the spawns of every level
+  // emptyValue: the value of one empty Tile
+  // deadline: when the current search has to stop
+  // timedOut: if the current level ran out of time
+  // nodes: the number of nodes of the current search
+  // completedDepth: the deepest finished level of the current search
+  private final long budget;
+  private final TranspositionTable table;
+  private final Afterstates[] afterstates = new Afterstates[MAX_DEPTH + 1];
+  private final Board[] spawnBoards = new Board[MAX_DEPTH + 1];
+  private double emptyValue;
+  private long deadline;
+  private boolean timedOut;
+  private long nodes;
+  private int completedDepth;
+
+
+
+  /**
+   * Constructor for an Expectimax with:
+   * budget: input
+   * table: a TranspositionTable of about a million slots
+   *
+   * @param budgetMillis is the time budget of a move, in milliseconds
+   */
+  public Expectimax(double budgetMillis) {
+    this(budgetMillis, new TranspositionTable(1 << 20));
+  }
+
+  /**
+   * Constructor for an Expectimax with:
+   * budget: input
+   * table: input
+   *
+   * @param budgetMillis is the time budget of a move, in milliseconds
+   * @param table is the TranspositionTable to cache the spawn nodes in
+   */
+  public Expectimax(double budgetMillis, TranspositionTable table) {
+    this.budget = (long) (budgetMillis * 1e6);
+    this.table = table;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the statistics of the last search.
+   *
+   * @return the depth, the nodes and the hit rate of the table
+   */
+  @Override
+  public String toString() {
+    return "depth: " + this.completedDepth + ", nodes: " + this.nodes + ", table hits: "
+            + this.table.getHits() + "/" + this.table.getLookups();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the deepest finished level of the last search
+   *
+   * @return the completed depth
+   */
+  public int getCompletedDepth() {
+    return this.completedDepth;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of nodes of the last search
+   *
+   * @return the number of nodes
+   */
+  public long getNodes() {
+    return this.nodes;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the TranspositionTable
+   *
+   * @return the table
+   */
+  public TranspositionTable getTable() {
+    return this.table;
+  }
+
+
+
+  /**
+   * To search the best Direction within the time budget.
+   * - search one level, then two levels, and so on
+   * - stop once a level runs out of time, and forget that level
+   * - the first level always finishes, so there is always a Direction
+   *
+   * @param board is the Board to be moved, which is not changed
+   * @return the best Direction
+   */
+  @Override
+  public Direction choose(Board board) {
+    this.prepare(board);
+    this.deadline = System.nanoTime() + this.budget;
+    this.nodes = 0;
+    this.completedDepth = 0;
+    this.table.nextGeneration();
+
+    Direction best = null;
+    // To deepen one level at a time
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      this.timedOut = false;
+      Direction found = this.searchRoot(board, depth, best);
+      // To forget a level that ran out of time
+      if (this.timedOut) {
+        break;
+      }
+      best = found;
+      this.completedDepth = depth;
+      if (System.nanoTime() >= this.deadline) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * To find the best Direction at the top of the search, trying the best Direction of the last
+   * level first.
+   *
+   * @param board is the Board to be moved
+   * @param depth is the number of levels to search
+   * @param first is the Direction to try first, or null
+   * @return the best Direction
+   */
+  private Direction searchRoot(Board board, int depth, Direction first) {
+    Direction best = null;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    Afterstates afterstates = this.afterstates[depth];
+    int legal = board.afterstates(afterstates);
+
+    // To try every legal Direction, the one to try first before the others
+    for (int i = -1; i < 4; i++) {
+      Direction direction = i < 0 ? first : DIRECTIONS[i];
+      if (direction == null || !direction.isIn(legal) || (i >= 0 && direction == first)) {
+        continue;
+      }
+      double value = afterstates.getScoreGained(direction)
+              + this.searchSpawn(afterstates.getBoard(direction), depth);
+      if (value > bestValue) {
+        best = direction;
+        bestValue = value;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * To find the best value of the legal Directions of a move node.
+   *
+   * @param board is the Board to be moved
+   * @param depth is the number of levels left
+   * @return the best score gained plus the value of the spawns after it
+   */
+  double searchMove(Board board, int depth) {
+    // To stop the search once it runs out of time
+    if (this.checkTime()) {
+      return 0;
+    }
+    Afterstates afterstates = this.afterstates[depth];
+    int legal = board.afterstates(afterstates);
+    // A position with no legal move is worth nothing more
+    if (legal == 0) {
+      return 0;
+    }
+
+    double best = Double.NEGATIVE_INFINITY;
+    // To try every legal Direction
+    for (Direction direction : DIRECTIONS) {
+      if (direction.isIn(legal)) {
+        double value = afterstates.getScoreGained(direction)
+                + this.searchSpawn(afterstates.getBoard(direction), depth);
+        best = Math.max(best, value);
+      }
+    }
+    return best;
+  }
+
+  /**
+   * To find the average value of a spawn node over its empty Tiles.
+   * - use the cached value if the position was searched deep enough
+   * - average over every empty Tile, or over a few spread across the Board if there are many
+   * - cache the value
+   *
+   * @param board is the Board after a move
+   * @param depth is the number of levels left, including this one
+   * @return the average value of the spawns
+   */
+  double searchSpawn(Board board, int depth) {
+    // To stop the search once it runs out of time
+    if (this.checkTime()) {
+      return 0;
+    }
+    long key = board.getKey();
+    double cached = this.table.lookup(key, depth);
+    if (!Double.isNaN(cached)) {
+      return cached;
+    }
+
+    int empty = board.getEmptyCount();
+    int samples = Math.min(empty, MAX_SPAWNS);
+    double total = 0;
+    Board child = this.spawnBoards[depth];
+    // To try the spawns spread across the empty Tiles
+    for (int i = 0; i < samples; i++) {
+      int cell = board.getEmptyCell((int) ((long) i * empty / samples));
+      child.copyFrom(board);
+      child.setExponent(cell / board.getGrid(), cell % board.getGrid(), 1);
+      total += depth == 1 ? this.evaluate(child) : this.searchMove(child, depth - 1);
+    }
+    double value = samples == 0 ? this.evaluate(board) : total / samples;
+
+    // To cache the value, unless the level ran out of time
+    if (!this.timedOut) {
+      this.table.store(key, depth, value);
+    }
+    return value;
+  }
+
+  /**
+   * To estimate the value of a position at the end of the search from its empty Tiles, since
+   * every empty Tile is room for future merges.
+   *
+   * @param board is the Board at the end of the search
+   * @return the value of the position
+   */
+  double evaluate(Board board) {
+    return board.getEmptyCount() * this.emptyValue;
+  }
+
+
+
+  /**
+   * To create the scratch Boards for the size, multiplier and backend of a Board.
+   *
+   * @param board is the Board to be searched
+   */
+  private void prepare(Board board) {
+    Board scratch = this.spawnBoards[1];
+    if (scratch != null && scratch.getGrid() == board.getGrid()
+            && scratch.getMultiplier() == board.getMultiplier()
+            && scratch.isBitBoard() == board.isBitBoard()) {
+      return;
+    }
+    for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+      this.afterstates[depth] = new Afterstates();
+      this.spawnBoards[depth] = new Board(board);
+    }
+    // An empty Tile is worth a few merges of two spawned Tiles
+    this.emptyValue = EMPTY_WEIGHT * board.getMultiplier() * board.getMultiplier();
+    this.table.clear();
+  }
+
+  /**
+   * To count a node and check the time budget every few nodes. The first level never runs out
+   * of time, so there is always a Direction to return.
+   *
+   * @return if the search ran out of time
+   */
+  private boolean checkTime() {
+    if (this.timedOut) {
+      return true;
+    }
+    if ((++this.nodes & CHECK_EVERY) == 0 && this.completedDepth > 0
+            && System.nanoTime() >= this.deadline) {
+      this.timedOut = true;
+    }
+    return this.timedOut;
+  }
+}
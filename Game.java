@@ -1,6 +1,7 @@
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
@@ -10,12 +11,22 @@ import javax.swing.JPanel;
  * Tiles, and score. Also, it offers several methods:
  *
  * setUp() - set up the game
+ * setUpActive() - set up the game in active rendering mode
  *
  * keyPressed(KeyEvent) - reacts when a key is pressed
+ * play(Direction) - play a move if it changes the Board
+ * undo() - go back to the Board before the last move
+ * redo() - go forward to the Board after a move that was undone
+ * show(Board) - show a copy of the Board from the logic thread
  * keyTyped(KeyEvent) - reacts when a key is typed
  * keyReleased(KeyEvent) - reacts when a key is released
  *
- * paint(Graphics) - paint the game
+ * paint(Graphics) - paint the game from the canvas
+ * refresh(boolean) - redraw the parts of the canvas that changed
+ * redraw(int, boolean) - redraw the whole canvas
+ * drawHeader(Graphics, long, Color) - draw the title, the score and the Board's background
+ * drawOver(Graphics) - draw the game over screen
+ * drawScore(Graphics, long, Color) - draw the score
  * drawTile(Graphics, Tile, int, int) - draw the Tile at given location
  *
  * main() - the main method
@@ -24,10 +35,46 @@ import javax.swing.JPanel;
  * @version Feb 7, 2023
  */
 public class Game extends JPanel implements KeyListener {
+  // TITLE_FONT: the font of the title
+  // SCORE_FONT: the font of the score
+  // OVER_FONT: the font of the game over screen
+  // TITLE_COLOR: the color of the title
+  // TEXT_COLOR: the color of the score
+  // BACKGROUND_COLOR: the color of the Board's and the score's background
+  // OVER_COLOR: the color over the Board when the game is over
+  // SCORE_AREA: the area the score is drawn in
+  static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 75);
+  static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 20);
+  static final Font OVER_FONT = new Font("Arial", Font.BOLD, 50);
+  static final Color TITLE_COLOR = new Color(118,110,101);
+  static final Color TEXT_COLOR = new Color(250,246,242);
+  static final Color BACKGROUND_COLOR = new Color(188,172,159);
+  static final Color OVER_COLOR = new Color(188,172,159, 127);
+
   Board board = new Board();
   static Game game = new Game();
-  static JFrame frame = new JFrame("2048");
+  static JFrame frame;
+  static ActiveRenderer renderer;
+  static GameLogic logic;
   static final int margin = 25;
+  static final Rectangle SCORE_AREA = new Rectangle(235, margin, 165 + 2 * margin, 51);
+
+  // canvas: the whole game as it was last drawn
+  // canvasGraphics: the Graphics that draws on the canvas
+  // sprites: the pre-rendered Tiles of the current multiplier and Tile size
+  // shown: the exponent of every Tile drawn on the canvas
+  // shownScore: the score drawn on the canvas
+  // shownOver: if the game over screen is drawn on the canvas
+  // history: the Boards after the last moves, when there is no logic thread
+  // dirty: the union of the areas redrawn by the last refresh, with a negative size if none
+  private BufferedImage canvas;
+  private Graphics2D canvasGraphics;
+  private SpriteCache sprites;
+  private byte[] shown;
+  private long shownScore;
+  private boolean shownOver;
+  private History history;
+  private final Rectangle dirty = new Rectangle();
 
 
 
@@ -35,11 +82,50 @@ public class Game extends JPanel implements KeyListener {
    * To set up the game.
    */
   public static void setUp() {
+    // To create the window here, so a Game can also be painted without a display
+    frame = new JFrame("2048");
     frame.addKeyListener(game);
     frame.getContentPane().add(game);
     frame.setSize(400 + 2 * margin, 400 + 100 + 2 * margin);
     frame.setVisible(true);
     frame.setResizable(false);
+
+    // To play the moves on the logic thread
+    logic = new GameLogic(game, game.board, null);
+    game.board = logic.getSnapshot();
+    logic.start();
+  }
+
+  /**
+   * To set up the game in active rendering mode, where a Canvas is painted by an ActiveRenderer on
+   * its own thread, and the frame time and latency statistics are printed when the game exits.
+   */
+  public static void setUpActive() {
+    frame = new JFrame("2048");
+    Canvas canvas = new Canvas();
+    // To paint the Canvas only from the render thread
+    canvas.setIgnoreRepaint(true);
+    canvas.setBackground(game.getBackground());
+    canvas.setPreferredSize(new Dimension(400 + 2 * margin, 400 + 100 + 2 * margin));
+    canvas.addKeyListener(game);
+    frame.addKeyListener(game);
+    frame.setIgnoreRepaint(true);
+    frame.getContentPane().add(canvas);
+    frame.setResizable(false);
+    frame.pack();
+    frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    frame.setVisible(true);
+    canvas.requestFocus();
+
+    renderer = new ActiveRenderer(canvas, game.board);
+    logic = new GameLogic(game, game.board, renderer);
+    game.board = logic.getSnapshot();
+    renderer.start();
+    logic.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      System.out.println(renderer);
+      System.out.println(logic);
+    }));
   }
 
 
@@ -50,37 +136,124 @@ public class Game extends JPanel implements KeyListener {
    * - a or left-arrow means move left
    * - s or down-arrow means move down
    * - d or right-arrow means move right
+   * - enter means a new game
+   * - backspace or ctrl-z means undo
+   * - ctrl-y or ctrl-shift-z means redo
    */
   @Override
   public void keyPressed(KeyEvent e) {
     // If w or up-arrow is pressed
     if (e.getKeyChar() == 'w' || e.getKeyCode() == KeyEvent.VK_UP) {
-      board.up();
-      board.spawn();
-      frame.repaint();
+      play(Direction.UP);
     }
     // If a or left-arrow is pressed
     else if (e.getKeyChar() == 'a' || e.getKeyCode() == KeyEvent.VK_LEFT) {
-      board.left();
-      board.spawn();
-      frame.repaint();
+      play(Direction.LEFT);
     }
     // If s or right-arrow is pressed
     else if (e.getKeyChar() == 's' || e.getKeyCode() == KeyEvent.VK_DOWN) {
-      board.down();
-      board.spawn();
-      frame.repaint();
+      play(Direction.DOWN);
     }
     // If d or right-arrow is pressed
     else if (e.getKeyChar() == 'd' || e.getKeyCode() == KeyEvent.VK_RIGHT) {
-      board.right();
-      board.spawn();
-      frame.repaint();
+      play(Direction.RIGHT);
     }
     else if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+      // To leave the new game to the logic thread if there is one
+      if (logic != null) {
+        logic.reset();
+        return;
+      }
       board = new Board();
+      if (history != null) {
+        history.reset(board);
+      }
       frame.repaint();
     }
+    // If ctrl-y or ctrl-shift-z is pressed
+    else if (e.isControlDown() && (e.getKeyCode() == KeyEvent.VK_Y
+            || (e.getKeyCode() == KeyEvent.VK_Z && e.isShiftDown()))) {
+      redo();
+    }
+    // If backspace or ctrl-z is pressed
+    else if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE
+            || (e.isControlDown() && e.getKeyCode() == KeyEvent.VK_Z)) {
+      undo();
+    }
+  }
+
+  /**
+   * To play a move.
+   * - hand the move to the logic thread if there is one
+   * - otherwise skip the move if it would not change the Board
+   * - move and spawn a new Tile, and keep the Board in the history
+   * - repaint the parts of the game that changed
+   *
+   * @param direction is the Direction to move in
+   */
+  public void play(Direction direction) {
+    // To only queue the move on the event thread
+    if (logic != null) {
+      logic.offer(direction);
+      return;
+    }
+    // To skip the moves that would not change anything
+    if (!board.canMove(direction)) {
+      return;
+    }
+    // To keep the Board before the first move
+    if (history == null) {
+      history = new History(board, History.CAPACITY);
+    }
+    board.move(direction);
+    board.spawn();
+    history.commit(board);
+    // To repaint only the Tiles and the score that changed
+    refresh(true);
+  }
+
+  /**
+   * To go back to the Board before the last move.
+   * - hand it to the logic thread if there is one
+   * - otherwise unpack it from the history and repaint the parts of the game that changed
+   */
+  public void undo() {
+    if (logic != null) {
+      logic.undo();
+      return;
+    }
+    if (history != null && history.undo(board)) {
+      refresh(true);
+    }
+  }
+
+  /**
+   * To go forward to the Board after a move that was undone.
+   * - hand it to the logic thread if there is one
+   * - otherwise unpack it from the history and repaint the parts of the game that changed
+   */
+  public void redo() {
+    if (logic != null) {
+      logic.redo();
+      return;
+    }
+    if (history != null && history.redo(board)) {
+      refresh(true);
+    }
+  }
+
+  /**
+   * To show a copy of the Board published by the logic thread, on the event thread.
+   * - keep it as the Board to be painted
+   * - repaint the parts of the game that changed, unless the render thread paints the game
+   *
+   * @param snapshot is the copy of the Board, which must not be changed
+   */
+  void show(Board snapshot) {
+    board = snapshot;
+    if (renderer == null) {
+      refresh(true);
+    }
   }
 
   /**
@@ -103,38 +276,174 @@ public class Game extends JPanel implements KeyListener {
 
 
   /**
-   * To paint the game.
+   * To paint the game by copying the canvas, after bringing it up to date with the Board. Only the
+   * part inside the clip of the Graphics is copied.
    *
    * @param g  the <code>Graphics</code> context in which to paint
    */
   public void paint(Graphics g) {
-    super.paint(g);
+    long start = Metrics.ENABLED ? System.nanoTime() : 0;
+    refresh(false);
+    g.drawImage(canvas, 0, 0, null);
+    if (Metrics.ENABLED) {
+      Metrics.paint(start);
+    }
+  }
+
+  /**
+   * To bring the canvas up to date with the Board.
+   * - redraw everything if the grid size, the multiplier or the end of the game changed
+   * - otherwise redraw the score area if the score changed
+   * - and redraw only the Tiles whose exponent changed
+   * - if asked, repaint the union of the redrawn areas on the screen, in one paint
+   *
+   * @param show is if the redrawn areas should be painted on the screen
+   */
+  void refresh(boolean show) {
+    int grid = board.getGrid();
+    int tileSize = (400 - (grid + 1) * 10) / grid;
+    boolean over = board.isGameOver();
+    // To check if the canvas has to be redrawn from scratch
+    if (canvas == null || shown.length != grid * grid
+            || shownOver != over || !sprites.matches(board.getMultiplier(), tileSize)) {
+      redraw(tileSize, over);
+      if (show) {
+        repaint();
+      }
+      return;
+    }
+    dirty.setBounds(0, 0, -1, -1);
+
+    // To redraw the score if it changed
+    if (shownScore != board.getScore()) {
+      drawScore(canvasGraphics, board.getScore(), getBackground());
+      shownScore = board.getScore();
+      dirty.add(SCORE_AREA);
+    }
+
+    // To redraw the Tiles that changed
+    for (int i = 0; i < grid; i++) {
+      for (int j = 0; j < grid; j++) {
+        int exponent = board.getExponent(i, j);
+        if (shown[i * grid + j] != exponent) {
+          drawTile(canvasGraphics, board.getTile(i, j), i, j);
+          shown[i * grid + j] = (byte) exponent;
+          // To add the corners of the Tile to the redrawn areas
+          int x = margin + 10 + (j * (tileSize + 10));
+          int y = 110 + (i * (tileSize + 10));
+          dirty.add(x, y);
+          dirty.add(x + tileSize, y + tileSize);
+        }
+      }
+    }
+
+    // To paint the redrawn areas at once
+    if (show && dirty.width >= 0 && isShowing()) {
+      repaint(dirty);
+    }
+  }
+
+  /**
+   * To redraw the whole canvas.
+   * - draw the title, the score and the Board's background
+   * - draw every Tile
+   * - draw the game over screen if the game is over
+   *
+   * @param tileSize is the size of a Tile
+   * @param gameOver is if the game is over
+   */
+  private void redraw(int tileSize, boolean gameOver) {
+    int width = 400 + 2 * margin;
+    int height = 400 + 100 + 2 * margin;
+    if (canvas == null) {
+      canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      canvasGraphics = canvas.createGraphics();
+    }
+    if (sprites == null || !sprites.matches(board.getMultiplier(), tileSize)) {
+      sprites = new SpriteCache(board.getMultiplier(), tileSize);
+    }
+    shownOver = gameOver;
+    shown = new byte[board.getGrid() * board.getGrid()];
+    Graphics g = canvasGraphics;
+    g.setColor(getBackground());
+    g.fillRect(0, 0, width, height);
+
+    // Draw the title, the score and the Board's background
+    drawHeader(g, board.getScore(), getBackground());
+    shownScore = board.getScore();
+
+    // Draw Tiles
+    for(int i = 0; i < board.getGrid(); i++) {
+      for(int j = 0; j < board.getGrid(); j++) {
+        drawTile(g, board.getTile(i, j), i, j);
+        shown[i * board.getGrid() + j] = (byte) board.getExponent(i, j);
+      }
+    }
 
-    Font font;
-    Color titleColor = new Color(118,110,101);
-    Color textColor = new Color(250,246,242);
-    Color backgroundColor = new Color(188,172,159);
+    if(gameOver) {
+      drawOver(g);
+    }
+  }
 
+  /**
+   * To draw the title, the score and the Board's background.
+   *
+   * @param g is the Graphics
+   * @param score is the score to be drawn
+   * @param background is the background color of the window
+   */
+  static void drawHeader(Graphics g, long score, Color background) {
     // Draw the title 2048
     String gameTitle = "2048";
-    font = new Font ("Arial",Font.BOLD, 75);
-    g.setFont(font);
-    g.setColor(titleColor);
+    g.setFont(TITLE_FONT);
+    g.setColor(TITLE_COLOR);
     g.drawString(gameTitle, margin, margin + 50);
 
     // Draw the score and background
+    drawScore(g, score, background);
+
+    // Draw Board's background
+    g.setColor(BACKGROUND_COLOR);
+    g.fillRoundRect(margin, 100, 400, 400, 10, 10);
+  }
+
+  /**
+   * To draw the game over screen over the Board.
+   *
+   * @param g is the Graphics
+   */
+  static void drawOver(Graphics g) {
+    g.setColor(OVER_COLOR);
+    g.fillRoundRect(margin, 100, 400, 400, 10, 10);
+
+    String over = "Game Over!";
+    g.setFont(OVER_FONT);
+    g.setColor(TITLE_COLOR);
+    FontMetrics fm = g.getFontMetrics();
+    g.drawString(over, (400 + 2 * margin) / 2 - fm.stringWidth(over) / 2, 300 - fm.getHeight() / 2 + fm.getAscent());
+  }
+
+  /**
+   * To draw the score and its background over the score area.
+   *
+   * @param g is the Graphics
+   * @param value is the score to be drawn
+   * @param background is the background color of the window
+   */
+  static void drawScore(Graphics g, long value, Color background) {
     String scoreTitle = "score:";
-    String score = board.getScore() + "";
-    font = new Font("Arial", Font.BOLD, 20);
-    g.setFont(font);
+    String score = value + "";
+    g.setColor(background);
+    g.fillRect(SCORE_AREA.x, SCORE_AREA.y, SCORE_AREA.width, SCORE_AREA.height);
+    g.setFont(SCORE_FONT);
     FontMetrics fm = g.getFontMetrics();
 
-    g.setColor(backgroundColor);
+    g.setColor(BACKGROUND_COLOR);
     // Score is longer
     if(scoreTitle.length() < score.length()) {
       g.fillRoundRect((400 + margin) - 20 - fm.stringWidth(score), margin,
               20 + fm.stringWidth(score), 50, 10, 10);
-      g.setColor(textColor);
+      g.setColor(TEXT_COLOR);
       g.drawString(scoreTitle, (400 + margin) - 10 - fm.stringWidth(score) / 2 - fm.stringWidth(scoreTitle) / 2, margin + 12 - (fm.getHeight() / 2) + fm.getAscent());
       g.drawString(score, (400 + margin) - 10 - fm.stringWidth(score), margin + 50 - 8);
     }
@@ -142,41 +451,18 @@ public class Game extends JPanel implements KeyListener {
     else {
       g.fillRoundRect((400 + margin) - 20 - fm.stringWidth(scoreTitle), margin,
               20 + fm.stringWidth(scoreTitle), 50, 10, 10);
-      g.setColor(textColor);
+      g.setColor(TEXT_COLOR);
       g.drawString(scoreTitle, (400 + margin) - 10 - fm.stringWidth(scoreTitle), margin + 12 - (fm.getHeight() / 2) + fm.getAscent());
       g.drawString(score, (400 + margin) - 10 - fm.stringWidth(scoreTitle) / 2 - fm.stringWidth(score) / 2, margin + 50 - 8);
     }
-
-    // Draw Board's background
-    g.setColor(backgroundColor);
-    g.fillRoundRect(margin, 100, 400, 400, 10, 10);
-
-    // Draw Tiles
-    for(int i = 0; i < board.getGrid(); i++) {
-      for(int j = 0; j < board.getGrid(); j++) {
-        drawTile(g, board.getTile(i, j), i, j);
-      }
-    }
-
-    if(board.isGameOver()) {
-      g.setColor(new Color(188,172,159, 127));
-      g.fillRoundRect(margin, 100, 400, 400, 10, 10);
-
-      String over = "Game Over!";
-      font = new Font("Arial", Font.BOLD, 50);
-      g.setFont(font);
-      g.setColor(titleColor);
-      fm = g.getFontMetrics();
-      g.drawString(over, (400 + 2 * margin) / 2 - fm.stringWidth(over) / 2, 300 - fm.getHeight() / 2 + fm.getAscent());
-    }
   }
 
   /**
    * To draw a Tile.
    * - find the proper Tile size based on the grid size with margin of 10 in bewteen
    * - find the proper x and y location
-   * - draw the background
-   * - draw the value
+   * - clear the cell with the Board's background
+   * - copy the sprite of the Tile
    * @param g is the Graphics
    * @param tile is the Tile to be drawn
    * @param i is the row number
@@ -186,23 +472,30 @@ public class Game extends JPanel implements KeyListener {
     int titleSize = (400 - (board.getGrid() + 1) * 10) / board.getGrid();
     int x = margin + 10 + (j * (titleSize + 10));
     int y = 110 + (i * (titleSize + 10));
+    // To skip the grids too big for a Tile to fit
+    if (titleSize <= 0) {
+      return;
+    }
 
-    // Draw Tile's background
-    g.setColor(tile.getBackgroundColor(board.getMultiplier()));
-    g.fillRoundRect(x, y, titleSize, titleSize, 10, 10);
-    // Draw value
-    String value = tile.toString();
-    Font font = new Font("Arial",Font.BOLD, 25);
-    g.setFont(font);
-    FontMetrics fm = g.getFontMetrics();
-    g.setColor(tile.getTextColor(board.getMultiplier()));
-    g.drawString(value,
-            x + (titleSize / 2) - (fm.stringWidth(value) / 2),
-            y + (titleSize / 2) - (fm.getHeight() / 2) + fm.getAscent());
+    // Clear the cell
+    g.setColor(BACKGROUND_COLOR);
+    g.fillRect(x, y, titleSize, titleSize);
+    // Draw the Tile
+    g.drawImage(sprites.get(tile), x, y, null);
   }
 
 
+  /**
+   * To start the game, in active rendering mode with --active.
+   *
+   * @param args is the command line arguments
+   */
   public static void main(String[] args) {
-    setUp();
+    if (args.length > 0 && args[0].equals("--active")) {
+      setUpActive();
+    }
+    else {
+      setUp();
+    }
   }
 }
\ No newline at end of file
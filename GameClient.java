@@ -0,0 +1,268 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameClient is a load generator for a GameServer, standing in for a tournament of bots. Every
+ * connection runs on its own thread and plays its own sessions with random moves: it sends one
+ * MOVE for every session in a single write, reads all the replies, and starts a new session for
+ * every game that is over. The time of every round trip goes into a log-linear Histogram, where
+ * every connection counts into its own buckets. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the report of the load
+ * getRoundTrip(double) - GETTER METHOD: a percentile of the round trip time
+ *
+ * run(int, int, double) - play on many connections for a while
+ * play(long) - play on one connection until a deadline
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class GameClient {
+  // LETTERS: the letter of every Direction in the protocol
+  static final byte[] LETTERS = {'L', 'R', 'U', 'D'};
+
+  // port: the port of the server on localhost
+  // sessions: the number of sessions of every connection
+  // moves: the number of moves played
+  // games: the number of games finished
+  // trips: the time of every round trip, in nanoseconds
+  // nanos: how long the load ran
+  private final int port;
+  private final int sessions;
+  private final AtomicLong moves = new AtomicLong();
+  private final AtomicLong games = new AtomicLong();
+  private final Histogram trips = new Histogram();
+  private long nanos;
+
+
+
+  /**
+   * Constructor for a GameClient with:
+   * port: input
+   * sessions: input
+   *
+   * @param port is the port of the server on localhost
+   * @param sessions is the number of sessions of every connection
+   */
+  public GameClient(int port, int sessions) {
+    this.port = port;
+    this.sessions = sessions;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the report of the load, with the throughput and the round trip times.
+   *
+   * @return the report of the load
+   */
+  @Override
+  public String toString() {
+    double seconds = this.nanos / 1e9;
+    return String.format("moves: %d in %.3f s (%.0f moves/s), games: %d, round trip p50 %.2f ms,"
+            + " p99 %.2f ms", this.moves.get(), seconds, this.moves.get() / seconds,
+            this.games.get(), this.getRoundTrip(50), this.getRoundTrip(99));
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of the time from sending the moves of every session of a connection to
+   * reading all their replies, to the width of a bucket
+   *
+   * @param percent is the percentile, between 0 and 100
+   * @return the round trip time, in milliseconds
+   */
+  public double getRoundTrip(double percent) {
+    return this.trips.getPercentile(percent) / 1e6;
+  }
+
+
+
+  /**
+   * To play on many connections at once for a while.
+   *
+   * @param connections is the number of connections, each on its own thread
+   * @param seconds is how long to play
+   * @return this GameClient, to read the report from
+   * @throws InterruptedException if the wait for the connections is interrupted
+   */
+  public GameClient run(int connections, double seconds) throws InterruptedException {
+    long start = System.nanoTime();
+    long deadline = start + (long) (seconds * 1e9);
+    Thread[] threads = new Thread[connections];
+    for (int connection = 0; connection < connections; connection++) {
+      threads[connection] = new Thread(() -> {
+        // To report a connection that fails, which play() has closed, and let the others go on
+        try {
+          this.play(deadline);
+        }
+        catch (IOException e) {
+          System.err.println(Thread.currentThread().getName() + " failed: " + e);
+        }
+      }, "2048-client-" + connection);
+      threads[connection].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    this.nanos = System.nanoTime() - start;
+    return this;
+  }
+
+  /**
+   * To play on one connection until a deadline.
+   * - start every session
+   * - send a random move for every session at once, and read every reply
+   * - start a new session for every game that is over, closing the old one
+   *
+   * @param deadline is when to stop, from System.nanoTime()
+   * @throws IOException if the connection fails
+   */
+  void play(long deadline) throws IOException {
+    try (SocketChannel channel = SocketChannel.open(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port))) {
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      ByteBuffer out = ByteBuffer.allocate(64 * this.sessions);
+      ByteBuffer in = ByteBuffer.allocate(64 * this.sessions);
+      long[] ids = new long[this.sessions];
+      String[] replies = new String[this.sessions];
+
+      // To start every session
+      for (int session = 0; session < this.sessions; session++) {
+        out.put("NEW\n".getBytes(StandardCharsets.US_ASCII));
+      }
+      this.exchange(channel, out, in, replies);
+      for (int session = 0; session < this.sessions; session++) {
+        ids[session] = Long.parseLong(replies[session].substring(3));
+      }
+
+      while (System.nanoTime() < deadline) {
+        // To send a random move for every session
+        long start = System.nanoTime();
+        for (int session = 0; session < this.sessions; session++) {
+          out.put(("MOVE " + ids[session] + " ").getBytes(StandardCharsets.US_ASCII));
+          out.put(LETTERS[ThreadLocalRandom.current().nextInt(LETTERS.length)]);
+          out.put((byte) '\n');
+        }
+        this.exchange(channel, out, in, replies);
+        this.trips.record(System.nanoTime() - start);
+        this.moves.addAndGet(this.sessions);
+
+        // To replace every game that is over
+        int over = 0;
+        for (int session = 0; session < this.sessions; session++) {
+          if (replies[session].endsWith(" 1")) {
+            out.put(("CLOSE " + ids[session] + "\nNEW\n").getBytes(StandardCharsets.US_ASCII));
+            replies[session] = null;
+            over++;
+          }
+        }
+        if (over > 0) {
+          String[] restarted = new String[2 * over];
+          this.exchange(channel, out, in, restarted);
+          int next = 1;
+          for (int session = 0; session < this.sessions; session++) {
+            if (replies[session] == null) {
+              ids[session] = Long.parseLong(restarted[next].substring(3));
+              next += 2;
+            }
+          }
+          this.games.addAndGet(over);
+        }
+      }
+    }
+  }
+
+  /**
+   * To send the commands in the output buffer, and read a reply line for every reply slot.
+   *
+   * @param channel is the connection
+   * @param out is the commands, which is cleared
+   * @param in is the buffer to read into
+   * @param replies is where to put every reply line
+   * @throws IOException if the connection fails, or a reply starts with ERR
+   */
+  private void exchange(SocketChannel channel, ByteBuffer out, ByteBuffer in, String[] replies)
+          throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+
+    int read = 0;
+    in.clear();
+    int start = 0;
+    while (read < replies.length) {
+      int from = in.position();
+      if (channel.read(in) < 0) {
+        throw new IOException("The server closed the connection");
+      }
+      // To cut every whole line read
+      byte[] data = in.array();
+      for (int i = from; i < in.position() && read < replies.length; i++) {
+        if (data[i] == '\n') {
+          replies[read] = new String(data, start, i - start, StandardCharsets.US_ASCII);
+          if (replies[read].startsWith("ERR")) {
+            throw new IOException(replies[read]);
+          }
+          read++;
+          start = i + 1;
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * To load a GameServer from the command line:
+   * java GameClient [connections] [sessions] [seconds] [port]
+   * - connections: the number of connections, 4 by default
+   * - sessions: the number of sessions of every connection, 256 by default
+   * - seconds: how long to play, 10 by default
+   * - port: the port of the server on localhost, 2048 by default, or 0 for a server started on
+   * any free port
+   * With no server listening on the port, it starts one in the same JVM.
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the server cannot be started
+   * @throws InterruptedException if the wait for the connections is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+    int port = args.length > 3 ? Integer.parseInt(args[3]) : GameServer.PORT;
+
+    // To start a server if there is none
+    GameServer server = null;
+    try (SocketChannel probe = SocketChannel.open(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+      probe.finishConnect();
+    }
+    catch (IOException e) {
+      server = new GameServer(port, Runtime.getRuntime().availableProcessors());
+      server.start();
+      // To connect to the port the server bound, which is a free one if the port was 0
+      port = server.getPort();
+    }
+
+    System.out.println(connections + " connections, " + sessions + " sessions each");
+    System.out.println(new GameClient(port, sessions).run(connections, seconds));
+    if (server != null) {
+      System.out.println(server);
+      server.close();
+    }
+  }
+}
@@ -0,0 +1,263 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * GameLogic plays the moves of a Game on its own thread, so a slow move on a big Board never holds
+ * up the Swing event thread. It is the only thread that changes the Board: the event thread only
+ * offers commands to its InputQueue, and only reads the copies of the Board that GameLogic
+ * publishes after every move, which are never changed again. At most one repaint of the newest copy
+ * is waiting on the event thread at a time, however many moves are played in between. The time from
+ * offering a command to publishing its result goes into a log-linear Histogram. The Board after
+ * every move is kept in a History, so moves can be undone and redone as commands too. Additionally,
+ * it offers several methods:
+ *
+ * toString() - GETTER METHOD: the statistics of the moves
+ * getSnapshot() - GETTER METHOD: the newest copy of the Board
+ * getInput() - GETTER METHOD: the InputQueue
+ * getLatency(double) - GETTER METHOD: a percentile of the latency
+ *
+ * offer(Direction) - offer a move, from the event thread
+ * reset() - offer a new game, from the event thread
+ * undo() - offer to undo the last move, from the event thread
+ * redo() - offer to redo a move that was undone, from the event thread
+ * start() - start the logic thread
+ * run() - the logic loop
+ * apply(int) - play one command
+ * show() - repaint the newest copy of the Board, on the event thread
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class GameLogic implements Runnable {
+  // RESET: the command of a new game, after the commands of the Directions
+  // UNDO: the command to undo the last move
+  // REDO: the command to redo a move that was undone
+  // CAPACITY: the number of commands that can wait in the InputQueue
+  // DIRECTIONS: every Direction by its ordinal, the command of its move, without copying values()
+  static final int RESET = 4;
+  static final int UNDO = 5;
+  static final int REDO = 6;
+  static final int CAPACITY = 16;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // game: the Game the copies are shown in
+  // renderer: the ActiveRenderer the moves are animated by, null in Swing painting mode
+  // input: the commands from the event thread
+  // board: the Board being played, only used by the logic thread
+  // history: the Boards after the last moves, only used by the logic thread
+  // snapshot: the newest copy of the Board
+  // showing: if a repaint of the newest copy is waiting on the event thread
+  // latency: the time from offering every command played to publishing its result, in
+  // nanoseconds
+  private final Game game;
+  private final ActiveRenderer renderer;
+  private final InputQueue input = new InputQueue(CAPACITY, RESET);
+  private Board board;
+  private final History history;
+  private volatile Board snapshot;
+  private final AtomicBoolean showing = new AtomicBoolean();
+  private final Histogram latency = new Histogram();
+
+
+
+  /**
+   * Constructor for a GameLogic with:
+   * game: input
+   * renderer: input
+   * board: input, which belongs to the logic thread from now on
+   *
+   * @param game is the Game the copies are shown in
+   * @param board is the Board to be played
+   * @param renderer is the ActiveRenderer to animate the moves, or null
+   */
+  public GameLogic(Game game, Board board, ActiveRenderer renderer) {
+    this.game = game;
+    this.board = board;
+    this.renderer = renderer;
+    this.history = new History(board, History.CAPACITY);
+    this.snapshot = new Board(board);
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the statistics of the moves.
+   *
+   * @return the number of commands played, coalesced and dropped, and the latency percentiles
+   */
+  @Override
+  public String toString() {
+    return String.format("commands: %d played, %d coalesced, %d dropped, latency p50 %.2f ms,"
+            + " p99 %.2f ms, max %.2f ms", this.latency.getCount(), this.input.getCoalesced(),
+            this.input.getDropped(), this.getLatency(50), this.getLatency(99),
+            this.latency.getMax() / 1e6);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the newest copy of the Board, which must not be changed
+   *
+   * @return the snapshot
+   */
+  public Board getSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the InputQueue
+   *
+   * @return the input
+   */
+  public InputQueue getInput() {
+    return this.input;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of the time from offering a command to publishing its result, to the
+   * width of a bucket
+   *
+   * @param percent is the percentile, between 0 and 100
+   * @return the latency, in milliseconds
+   */
+  public double getLatency(double percent) {
+    return this.latency.getPercentile(percent) / 1e6;
+  }
+
+
+
+  /**
+   * To offer a move, from the event thread. It never waits.
+   *
+   * @param direction is the Direction to move in
+   */
+  public void offer(Direction direction) {
+    this.input.offer(direction.ordinal());
+  }
+
+  /**
+   * To offer a new game, from the event thread. It never waits.
+   */
+  public void reset() {
+    this.input.offer(RESET);
+  }
+
+  /**
+   * To offer to undo the last move, from the event thread. It never waits.
+   */
+  public void undo() {
+    this.input.offer(UNDO);
+  }
+
+  /**
+   * To offer to redo a move that was undone, from the event thread. It never waits.
+   */
+  public void redo() {
+    this.input.offer(REDO);
+  }
+
+  /**
+   * To start the logic thread.
+   */
+  public void start() {
+    Thread thread = new Thread(this, "2048-logic");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * To run the logic loop.
+   * - wait for the next command
+   * - play it, and publish a copy of the Board if it changed anything
+   * - record the latency
+   */
+  @Override
+  public void run() {
+    try {
+      while (true) {
+        int command = this.input.take();
+        if (this.apply(command)) {
+          this.publish();
+        }
+        this.latency.record(System.nanoTime() - this.input.getOfferTime());
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * To play one command.
+   * - start a new game for RESET
+   * - go back or forward in the History for UNDO and REDO
+   * - skip a move that would not change the Board
+   * - otherwise move, spawn, keep the Board in the History, and hand the MoveAnimation to the
+   * renderer if there is one
+   *
+   * @param command is a Direction ordinal, RESET, UNDO or REDO
+   * @return if the Board changed
+   */
+  boolean apply(int command) {
+    // To start a new game
+    if (command == RESET) {
+      this.board = new Board();
+      this.history.reset(this.board);
+      if (this.renderer != null) {
+        this.renderer.publish(MoveAnimation.still(this.board));
+      }
+      return true;
+    }
+    // To go back or forward in the History
+    if (command == UNDO || command == REDO) {
+      boolean changed = command == UNDO ? this.history.undo(this.board)
+              : this.history.redo(this.board);
+      if (changed && this.renderer != null) {
+        this.renderer.publish(MoveAnimation.still(this.board));
+      }
+      return changed;
+    }
+
+    Direction direction = DIRECTIONS[command];
+    // To skip the moves that would not change anything
+    if (!this.board.canMove(direction)) {
+      return false;
+    }
+    // To record the slide for the renderer
+    if (this.renderer != null) {
+      byte[] before = MoveAnimation.exponents(this.board);
+      this.board.move(direction);
+      byte[] slid = MoveAnimation.exponents(this.board);
+      this.board.spawn();
+      this.history.commit(this.board);
+      this.renderer.publish(MoveAnimation.trace(this.board, before, slid, direction));
+      return true;
+    }
+    this.board.move(direction);
+    this.board.spawn();
+    this.history.commit(this.board);
+    return true;
+  }
+
+  /**
+   * To publish a copy of the Board, and ask the event thread to show it unless it is already
+   * asked to.
+   */
+  private void publish() {
+    this.snapshot = new Board(this.board);
+    if (this.showing.compareAndSet(false, true)) {
+      SwingUtilities.invokeLater(this::show);
+    }
+  }
+
+  /**
+   * To repaint the newest copy of the Board, on the event thread.
+   */
+  void show() {
+    this.showing.set(false);
+    this.game.show(this.snapshot);
+  }
+}
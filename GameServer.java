@@ -0,0 +1,842 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameServer hosts many games of Board at once for bots, over a line protocol on localhost. Every
+ * game is a session with its own Board and History, kept in a concurrent map by its id. The
+ * connections are spread across a few reactor threads, each with its own non-blocking Selector,
+ * and a reactor runs the commands of its connections itself, since a command only takes a few
+ * microseconds. A command on a session holds the lock of the stripe of its id, so two reactors
+ * only wait for each other when they play sessions of the same stripe at the same time. The
+ * latency of every command goes into a log-linear Histogram, where every reactor thread counts into
+ * its own buckets, and the report adds them up. The protocol
+ * has one command per line, and one reply line per command, in order:
+ *
+ * NEW [grid] [multiplier] - start a session, replying OK id
+ * MOVE id L|R|U|D - move and spawn, replying OK score moved over
+ * STATE id - replying OK grid multiplier score over and every exponent, row by row
+ * UNDO id - go back one move, replying OK score
+ * REDO id - go forward one move, replying OK score
+ * CLOSE id - end a session, replying OK
+ * STATS - replying OK and the report of the server
+ *
+ * A command that fails is replied to with ERR and the reason. Additionally, it offers several
+ * methods:
+ *
+ * toString() - GETTER METHOD: the report of the server
+ * getPort() - GETTER METHOD: the port the server listens on
+ * getSessions() - GETTER METHOD: the number of open sessions
+ * getCommands() - GETTER METHOD: the number of commands run
+ * getLatency(int, double) - GETTER METHOD: a percentile of the latency of a command
+ *
+ * start() - start the reactor threads and accept connections
+ * close() - stop the server
+ * execute(Reactor, byte[], int, int, ByteBuffer) - run one command line
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class GameServer implements Closeable {
+  // PORT: the default port
+  // BUFFER: the size of the input and output buffers of a connection
+  // RESERVE: the room a reply may need in the output buffer, enough for the largest STATE
+  // MAX_GRID: the largest grid size of a session
+  // STRIPES: the number of locks the sessions are striped across, a power of two
+  // HISTORY: the number of states every session keeps for undo and redo
+  // COMMANDS: the name of every command, in the order of their numbers
+  static final int PORT = 2048;
+  static final int BUFFER = 1 << 14;
+  static final int RESERVE = 2048;
+  static final int MAX_GRID = 16;
+  static final int STRIPES = 256;
+  static final int HISTORY = 64;
+  static final String[] COMMANDS = {"NEW", "MOVE", "STATE", "UNDO", "REDO", "CLOSE", "STATS"};
+  static final int NEW = 0;
+  static final int MOVE = 1;
+  static final int STATE = 2;
+  static final int UNDO = 3;
+  static final int REDO = 4;
+  static final int CLOSE = 5;
+  static final int STATS = 6;
+
+  // OK: the start of a reply that worked
+  // ERR: the start of a reply that failed
+  // NAMES: the name of every command, in bytes
+  private static final byte[] OK = "OK".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ERR = "ERR ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[][] NAMES = new byte[COMMANDS.length][];
+
+  static {
+    for (int command = 0; command < COMMANDS.length; command++) {
+      NAMES[command] = COMMANDS[command].getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
+  // server: the channel the connections are accepted from
+  // port: the port the server listens on
+  // reactors: the reactor threads the connections are spread across
+  // sessions: every open session by its id
+  // nextId: the id of the next session
+  // stripes: the locks the sessions are striped across
+  // latencies: the time every command took to run, in nanoseconds, by the number of the command
+  // started: when the server started, from System.nanoTime()
+  // running: if the server should keep going
+  // acceptor: the thread that accepts the connections
+  private final ServerSocketChannel server;
+  private final int port;
+  private final Reactor[] reactors;
+  private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong();
+  private final Object[] stripes = new Object[STRIPES];
+  private final Histogram[] latencies = new Histogram[COMMANDS.length];
+  private final long started = System.nanoTime();
+  private volatile boolean running = true;
+  private Thread acceptor;
+
+
+
+  /**
+   * Constructor for a GameServer with:
+   * server: bound to the port on the loopback address
+   * reactors: input
+   *
+   * @param port is the port to listen on, 0 for any free port
+   * @param threads is the number of reactor threads
+   * @throws IOException if the port cannot be bound
+   */
+  public GameServer(int port, int threads) throws IOException {
+    this.server = ServerSocketChannel.open();
+    this.server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    this.port = ((InetSocketAddress) this.server.getLocalAddress()).getPort();
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      this.stripes[stripe] = new Object();
+    }
+    for (int command = 0; command < COMMANDS.length; command++) {
+      this.latencies[command] = new Histogram();
+    }
+    this.reactors = new Reactor[threads];
+    for (int reactor = 0; reactor < threads; reactor++) {
+      this.reactors[reactor] = new Reactor();
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the report of the server, with the throughput and the latency of every command run.
+   *
+   * @return the report of the server, on one line
+   */
+  @Override
+  public String toString() {
+    double seconds = (System.nanoTime() - this.started) / 1e9;
+    long commands = this.getCommands();
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("sessions %d, commands %d (%.0f/s)", this.getSessions(),
+            commands, commands / seconds));
+    for (int command = 0; command < COMMANDS.length; command++) {
+      long count = this.latencies[command].getCount();
+      if (count != 0) {
+        report.append(String.format(", %s %d (%.0f/s) p50 %.1f us p99 %.1f us max %.1f us",
+                COMMANDS[command], count, count / seconds, this.getLatency(command, 50),
+                this.getLatency(command, 99), this.latencies[command].getMax() / 1e3));
+      }
+    }
+    return report.toString();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the port the server listens on
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return this.port;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of open sessions
+   *
+   * @return the number of sessions
+   */
+  public int getSessions() {
+    return this.sessions.size();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of commands run by every reactor
+   *
+   * @return the number of commands
+   */
+  public long getCommands() {
+    long commands = 0;
+    for (Histogram latency : this.latencies) {
+      commands += latency.getCount();
+    }
+    return commands;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of the time a command took to run, to the width of a bucket, over every
+   * reactor
+   *
+   * @param command is the number of the command
+   * @param percent is the percentile, between 0 and 100
+   * @return the latency, in microseconds
+   */
+  public double getLatency(int command, double percent) {
+    return this.latencies[command].getPercentile(percent) / 1e3;
+  }
+
+
+
+  /**
+   * To start the reactor threads, and a thread that accepts the connections and hands them to the
+   * reactors in turn.
+   */
+  public void start() {
+    for (int reactor = 0; reactor < this.reactors.length; reactor++) {
+      Thread thread = new Thread(this.reactors[reactor], "2048-reactor-" + reactor);
+      thread.setDaemon(true);
+      this.reactors[reactor].thread = thread;
+      thread.start();
+    }
+    this.acceptor = new Thread(this::accept, "2048-acceptor");
+    this.acceptor.setDaemon(true);
+    this.acceptor.start();
+  }
+
+  /**
+   * To stop accepting connections, and stop the reactors after closing their connections.
+   *
+   * @throws IOException if the server channel cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.running = false;
+    this.server.close();
+    for (Reactor reactor : this.reactors) {
+      reactor.selector.wakeup();
+    }
+    try {
+      for (Reactor reactor : this.reactors) {
+        if (reactor.thread != null) {
+          reactor.thread.join();
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * To accept the connections until the server is closed, handing them to the reactors in turn.
+   * A connection that cannot be set up is reported and closed, and the next one is accepted.
+   */
+  private void accept() {
+    int next = 0;
+    try {
+      while (this.running) {
+        SocketChannel channel = this.server.accept();
+        try {
+          channel.configureBlocking(false);
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        catch (IOException e) {
+          System.err.println("Cannot set up a connection: " + e);
+          channel.close();
+          continue;
+        }
+        this.reactors[next].add(channel);
+        next = (next + 1) % this.reactors.length;
+      }
+    }
+    catch (ClosedChannelException e) {
+      // The server was closed
+    }
+    catch (IOException e) {
+      System.err.println("Cannot accept connections: " + e);
+    }
+  }
+
+  /**
+   * To run one command line and write its reply.
+   * - find the command from its name
+   * - run it, on the session of its id under the lock of its stripe
+   * - reply ERR and the reason if it fails
+   * - record how long it took in the Histogram of the command
+   *
+   * @param reactor is the reactor running the command
+   * @param line is the bytes holding the line
+   * @param start is where the line starts
+   * @param end is where the line ends, without the line break
+   * @param out is the buffer the reply is written to, with at least RESERVE bytes remaining
+   */
+  void execute(Reactor reactor, byte[] line, int start, int end, ByteBuffer out) {
+    long begin = System.nanoTime();
+    reactor.line = line;
+    reactor.position = start;
+    reactor.end = end;
+    int command = reactor.command();
+    // To skip the empty lines
+    if (command == -2) {
+      return;
+    }
+
+    int mark = out.position();
+    try {
+      switch (command) {
+        case NEW:
+          this.newGame(reactor.number(4), reactor.number(2), out);
+          break;
+        case MOVE:
+          this.move(reactor.number(-1), reactor.direction(), out);
+          break;
+        case STATE:
+          this.state(reactor.number(-1), out);
+          break;
+        case UNDO:
+        case REDO:
+          this.step(reactor.number(-1), command == UNDO, out);
+          break;
+        case CLOSE:
+          if (this.sessions.remove(reactor.number(-1)) == null) {
+            throw new IllegalArgumentException("No such session");
+          }
+          out.put(OK);
+          break;
+        case STATS:
+          out.put(OK);
+          out.put((byte) ' ');
+          out.put(this.toString().getBytes(StandardCharsets.US_ASCII));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown command");
+      }
+    }
+    catch (IllegalArgumentException e) {
+      // To replace a partial reply with the reason it failed
+      out.position(mark);
+      out.put(ERR);
+      out.put(String.valueOf(e.getMessage()).getBytes(StandardCharsets.US_ASCII));
+    }
+    out.put((byte) '\n');
+
+    // To record the latency of the known commands
+    if (command >= 0) {
+      this.latencies[command].record(System.nanoTime() - begin);
+    }
+  }
+
+  /**
+   * To start a session, backed by a BitBoard on a grid size of 4.
+   *
+   * @param grid is the grid size, as parsed
+   * @param multiplier is the multiplier, as parsed
+   * @param out is the buffer the reply is written to
+   */
+  private void newGame(long grid, long multiplier, ByteBuffer out) {
+    // To check the size of the game before narrowing it, so a huge number cannot wrap into range
+    if (grid < 2 || grid > MAX_GRID || multiplier < 2 || multiplier > 10) {
+      throw new IllegalArgumentException("The grid must be 2 to " + MAX_GRID
+              + " and the multiplier 2 to 10");
+    }
+    Board board = grid == 4 ? new Board((int) multiplier)
+            : new Board((int) multiplier, (int) grid);
+    long id = this.nextId.incrementAndGet();
+    this.sessions.put(id, new Session(board));
+    out.put(OK);
+    putNumber(out, id);
+  }
+
+  /**
+   * To move a session and spawn a Tile, if the move changes the Board.
+   *
+   * @param id is the id of the session
+   * @param direction is the Direction to move in
+   * @param out is the buffer the reply is written to
+   */
+  private void move(long id, Direction direction, ByteBuffer out) {
+    synchronized (this.stripes[(int) id & (STRIPES - 1)]) {
+      Session session = this.session(id);
+      Board board = session.board;
+      boolean moved = board.canMove(direction);
+      if (moved) {
+        board.move(direction);
+        board.spawn();
+        session.history.commit(board);
+      }
+      out.put(OK);
+      putNumber(out, board.getScore());
+      putNumber(out, moved ? 1 : 0);
+      putNumber(out, board.hasLegalMove() ? 0 : 1);
+    }
+  }
+
+  /**
+   * To write the state of a session.
+   *
+   * @param id is the id of the session
+   * @param out is the buffer the reply is written to
+   */
+  private void state(long id, ByteBuffer out) {
+    synchronized (this.stripes[(int) id & (STRIPES - 1)]) {
+      Board board = this.session(id).board;
+      int grid = board.getGrid();
+      out.put(OK);
+      putNumber(out, grid);
+      putNumber(out, board.getMultiplier());
+      putNumber(out, board.getScore());
+      putNumber(out, board.hasLegalMove() ? 0 : 1);
+      for (int i = 0; i < grid; i++) {
+        for (int j = 0; j < grid; j++) {
+          putNumber(out, board.getExponent(i, j));
+        }
+      }
+    }
+  }
+
+  /**
+   * To undo or redo one move of a session.
+   *
+   * @param id is the id of the session
+   * @param back is if the move is undone, or else redone
+   * @param out is the buffer the reply is written to
+   */
+  private void step(long id, boolean back, ByteBuffer out) {
+    synchronized (this.stripes[(int) id & (STRIPES - 1)]) {
+      Session session = this.session(id);
+      boolean changed = back ? session.history.undo(session.board)
+              : session.history.redo(session.board);
+      if (!changed) {
+        throw new IllegalArgumentException(back ? "Nothing to undo" : "Nothing to redo");
+      }
+      out.put(OK);
+      putNumber(out, session.board.getScore());
+    }
+  }
+
+  /**
+   * To find an open session.
+   *
+   * @param id is the id of the session
+   * @return the session
+   */
+  private Session session(long id) {
+    Session session = this.sessions.get(id);
+    if (session == null) {
+      throw new IllegalArgumentException("No such session");
+    }
+    return session;
+  }
+
+  /**
+   * To write a space and a number that is not negative in decimal, without allocating.
+   *
+   * @param out is the buffer to write to
+   * @param value is the number
+   */
+  static void putNumber(ByteBuffer out, long value) {
+    out.put((byte) ' ');
+    // To count the digits, then write them from the last one
+    int digits = 1;
+    for (long rest = value / 10; rest != 0; rest /= 10) {
+      digits++;
+    }
+    int position = out.position();
+    for (int digit = digits - 1; digit >= 0; digit--) {
+      out.put(position + digit, (byte) ('0' + value % 10));
+      value /= 10;
+    }
+    out.position(position + digits);
+  }
+
+
+
+  /**
+   * Session is one game of a GameServer: its Board and the History of its last moves. It is only
+   * touched under the lock of the stripe of its id.
+   */
+  private static class Session {
+    // board: the Board of the game
+    // history: the last states of the Board
+    private final Board board;
+    private final History history;
+
+    Session(Board board) {
+      this.board = board;
+      this.history = new History(board, HISTORY);
+    }
+  }
+
+
+
+  /**
+   * Reactor is a thread with its own Selector that reads the command lines of its connections,
+   * runs them and writes the replies, without ever blocking on a connection. It also keeps the
+   * parser of the line being run.
+   */
+  class Reactor implements Runnable {
+    // selector: the Selector of the connections
+    // pending: the connections accepted but not registered yet
+    // thread: the reactor thread
+    // line, position, end: the line being parsed, the next byte to parse and where it ends
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+    private Thread thread;
+    private byte[] line;
+    private int position;
+    private int end;
+
+    Reactor() throws IOException {
+      this.selector = Selector.open();
+    }
+
+    /**
+     * To hand an accepted connection to the reactor, from the acceptor thread.
+     *
+     * @param channel is the connection
+     */
+    void add(SocketChannel channel) {
+      this.pending.add(channel);
+      this.selector.wakeup();
+    }
+
+    /**
+     * To run the reactor loop.
+     * - register the connections handed over since the last round
+     * - read, run and reply for every connection that is ready
+     * - close every connection once the server stops, or once the reactor fails, reporting why
+     */
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          this.selector.select(this::ready);
+          SocketChannel channel;
+          while ((channel = this.pending.poll()) != null) {
+            Connection connection = new Connection(this, channel);
+            // To close only the connection if it is gone before it could be registered
+            try {
+              connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+            }
+            catch (ClosedChannelException e) {
+              connection.close();
+            }
+          }
+        }
+      }
+      catch (IOException e) {
+        System.err.println(Thread.currentThread().getName() + " failed: " + e);
+      }
+      finally {
+        for (SelectionKey key : this.selector.keys()) {
+          ((Connection) key.attachment()).close();
+        }
+        try {
+          this.selector.close();
+        }
+        catch (IOException e) {
+          System.err.println("Cannot close the selector of " + Thread.currentThread().getName()
+                  + ": " + e);
+        }
+      }
+    }
+
+    /**
+     * To serve a connection that is ready, closing it if it fails.
+     *
+     * @param key is the key of the connection
+     */
+    private void ready(SelectionKey key) {
+      Connection connection = (Connection) key.attachment();
+      try {
+        if (key.isReadable()) {
+          connection.read();
+        }
+        if (key.isValid() && key.isWritable()) {
+          connection.write();
+        }
+      }
+      catch (IOException e) {
+        connection.close();
+      }
+    }
+
+    /**
+     * To parse the name of the command of the line.
+     *
+     * @return the number of the command, -1 if it is unknown, or -2 if the line is empty
+     */
+    int command() {
+      int start = this.token();
+      if (start == this.position) {
+        return -2;
+      }
+      for (int command = 0; command < NAMES.length; command++) {
+        byte[] name = NAMES[command];
+        if (name.length != this.position - start) {
+          continue;
+        }
+        int i = 0;
+        while (i < name.length && (this.line[start + i] & ~0x20) == name[i]) {
+          i++;
+        }
+        if (i == name.length) {
+          return command;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * To parse the next number of the line.
+     *
+     * @param missing is the number if there is none, or -1 if there must be one
+     * @return the number
+     */
+    long number(long missing) {
+      int start = this.token();
+      if (start == this.position) {
+        if (missing < 0) {
+          throw new IllegalArgumentException("Missing a number");
+        }
+        return missing;
+      }
+      long value = 0;
+      for (int i = start; i < this.position; i++) {
+        int digit = this.line[i] - '0';
+        if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+          throw new IllegalArgumentException("Not a number");
+        }
+        value = value * 10 + digit;
+      }
+      return value;
+    }
+
+    /**
+     * To parse the next Direction of the line, from its first letter.
+     *
+     * @return the Direction
+     */
+    Direction direction() {
+      int start = this.token();
+      if (this.position - start == 1) {
+        switch (this.line[start] & ~0x20) {
+          case 'L':
+            return Direction.LEFT;
+          case 'R':
+            return Direction.RIGHT;
+          case 'U':
+            return Direction.UP;
+          case 'D':
+            return Direction.DOWN;
+          default:
+            break;
+        }
+      }
+      throw new IllegalArgumentException("The direction must be L, R, U or D");
+    }
+
+    /**
+     * To skip the spaces and find the next token of the line.
+     *
+     * @return where the token starts, the position being where it ends
+     */
+    private int token() {
+      while (this.position < this.end && this.line[this.position] == ' ') {
+        this.position++;
+      }
+      int start = this.position;
+      while (this.position < this.end && this.line[this.position] != ' ') {
+        this.position++;
+      }
+      return start;
+    }
+  }
+
+
+
+  /**
+   * Connection is one client of a Reactor, with the bytes read but not run yet and the replies
+   * not written yet. While the replies cannot be written fast enough, it stops reading and
+   * running, so a client that does not read its replies only slows down itself.
+   */
+  private class Connection {
+    // reactor: the Reactor of the connection
+    // channel: the socket
+    // key: the key of the socket in the Selector
+    // in: the bytes read and not run yet
+    // out: the replies not written yet
+    // skipping: if the rest of a line too long is being thrown away
+    private final Reactor reactor;
+    private final SocketChannel channel;
+    private SelectionKey key;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER);
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER);
+    private boolean skipping;
+
+    Connection(Reactor reactor, SocketChannel channel) {
+      this.reactor = reactor;
+      this.channel = channel;
+    }
+
+    /**
+     * To read what the client sent, run every whole line and write the replies.
+     *
+     * @throws IOException if the socket fails
+     */
+    void read() throws IOException {
+      if (this.channel.read(this.in) < 0) {
+        this.close();
+        return;
+      }
+      this.run();
+      this.flush();
+    }
+
+    /**
+     * To write the replies left, then run the lines that were waiting for room.
+     *
+     * @throws IOException if the socket fails
+     */
+    void write() throws IOException {
+      this.flush();
+      this.run();
+      this.flush();
+    }
+
+    /**
+     * To run every whole line read, while there is room for its reply.
+     * - keep a partial line for the next read
+     * - reply ERR to a line too long for the input buffer, and throw the rest of it away
+     */
+    private void run() {
+      byte[] data = this.in.array();
+      int limit = this.in.position();
+      int start = 0;
+      for (int i = 0; i < limit; i++) {
+        if (data[i] != '\n') {
+          continue;
+        }
+        // To throw away the end of a line too long
+        if (this.skipping) {
+          this.skipping = false;
+          start = i + 1;
+          continue;
+        }
+        // To stop running lines while there is no room for the replies
+        if (this.out.remaining() < RESERVE) {
+          break;
+        }
+        int end = i > start && data[i - 1] == '\r' ? i - 1 : i;
+        execute(this.reactor, data, start, end, this.out);
+        start = i + 1;
+      }
+
+      // To keep the lines not run yet at the start of the buffer
+      System.arraycopy(data, start, data, 0, limit - start);
+      this.in.position(limit - start);
+      if (this.skipping) {
+        this.in.clear();
+      }
+      else if (!this.in.hasRemaining() && start == 0 && this.out.remaining() >= RESERVE) {
+        this.in.clear();
+        this.skipping = true;
+        this.out.put(ERR);
+        this.out.put("Line too long\n".getBytes(StandardCharsets.US_ASCII));
+      }
+    }
+
+    /**
+     * To write as much of the replies as the socket takes, and only wait to read again once they
+     * leave room for more.
+     *
+     * @throws IOException if the socket fails
+     */
+    private void flush() throws IOException {
+      if (!this.key.isValid()) {
+        return;
+      }
+      this.out.flip();
+      this.channel.write(this.out);
+      this.out.compact();
+      int interest = this.out.remaining() < RESERVE ? 0 : SelectionKey.OP_READ;
+      if (this.out.position() > 0) {
+        interest |= SelectionKey.OP_WRITE;
+      }
+      this.key.interestOps(interest);
+    }
+
+    /**
+     * To close the socket, ignoring a failure.
+     */
+    void close() {
+      if (this.key != null) {
+        this.key.cancel();
+      }
+      try {
+        this.channel.close();
+      }
+      catch (IOException e) {
+        // The socket is gone either way
+      }
+    }
+  }
+
+
+
+  /**
+   * To run a server from the command line until it is stopped:
+   * java GameServer [port] [threads] [report]
+   * - port: the port on localhost, 2048 by default
+   * - threads: the number of reactor threads, all the cores by default
+   * - report: the seconds between two reports, 10 by default
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the port cannot be bound
+   * @throws InterruptedException if the main thread is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+    long report = args.length > 2 ? Long.parseLong(args[2]) : 10;
+
+    GameServer server = new GameServer(port, threads);
+    server.start();
+    System.out.println("listening on localhost:" + server.getPort() + " with " + threads
+            + " reactors");
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(server)));
+    long last = 0;
+    while (true) {
+      Thread.sleep(report * 1000);
+      // To report only when something happened
+      if (server.getCommands() != last) {
+        last = server.getCommands();
+        System.out.println(server);
+      }
+    }
+  }
+}
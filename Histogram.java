@@ -0,0 +1,230 @@
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Histogram counts values, such as latencies in nanoseconds, in a fixed set of buckets that are
+ * exact below 8 and 1/8 of a power of two wide above it, so any long fits with at most 12.5%
+ * error and the buckets never grow. Every thread records into its own array of buckets, found
+ * through a ThreadLocal, so the workers of a simulation never write the same memory; reading adds
+ * up the arrays of every thread that ever recorded, while they may still be recording. Whenever a
+ * new thread starts recording, the arrays of the threads that have died are folded into one shared
+ * array, so short-lived threads do not make the Histogram grow without bound.
+ * Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the count, mean, percentiles and max
+ * getCount() - GETTER METHOD: the number of values recorded
+ * getMean() - GETTER METHOD: the mean of the values
+ * getMax() - GETTER METHOD: the largest value
+ * getPercentile(double) - GETTER METHOD: a percentile of the values
+ *
+ * record(long) - count a value
+ * reset() - forget every value
+ * retire() - fold the buckets of the dead threads into the shared buckets
+ * bucket(long) - find the bucket of a value
+ * lowest(int) - find the smallest value of a bucket
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class Histogram {
+  // SUB_BITS: the number of bits of a value kept below its highest bit, 8 buckets a power of two
+  // BUCKETS: the number of buckets, enough for every long
+  // COUNT: the slot of the number of values, after the buckets
+  // SUM: the slot of the sum of the values
+  // MAX: the slot of the largest value
+  static final int SUB_BITS = 3;
+  static final int BUCKETS = (64 - SUB_BITS + 1) << SUB_BITS;
+  static final int COUNT = BUCKETS;
+  static final int SUM = BUCKETS + 1;
+  static final int MAX = BUCKETS + 2;
+
+  // threads: the buckets of every live thread that recorded, and of the ones not yet retired
+  // owners: the thread of every buckets in threads, cleared once the thread is collected
+  // retired: the buckets of every thread that died, added up
+  // local: the buckets of the current thread
+  private final CopyOnWriteArrayList<long[]> threads = new CopyOnWriteArrayList<>();
+  private final CopyOnWriteArrayList<WeakReference<Thread>> owners =
+          new CopyOnWriteArrayList<>();
+  private final long[] retired = new long[MAX + 1];
+  private final ThreadLocal<long[]> local = ThreadLocal.withInitial(() -> {
+    long[] buckets = new long[MAX + 1];
+    synchronized (this.retired) {
+      this.retire();
+      this.threads.add(buckets);
+      this.owners.add(new WeakReference<>(Thread.currentThread()));
+    }
+    return buckets;
+  });
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the count, the mean, the percentiles and the largest value.
+   *
+   * @return the summary of the values
+   */
+  @Override
+  public String toString() {
+    return String.format("count %d, mean %.1f, p50 %d, p99 %d, p99.9 %d, max %d",
+            this.getCount(), this.getMean(), this.getPercentile(50), this.getPercentile(99),
+            this.getPercentile(99.9), this.getMax());
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of values recorded
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return this.sum(COUNT);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the mean of the values
+   *
+   * @return the mean, 0 if there is none
+   */
+  public double getMean() {
+    long count = this.getCount();
+    return count == 0 ? 0 : (double) this.sum(SUM) / count;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the largest value
+   *
+   * @return the max, 0 if there is none
+   */
+  public long getMax() {
+    long max = this.retired[MAX];
+    for (long[] buckets : this.threads) {
+      max = Math.max(max, buckets[MAX]);
+    }
+    return max;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of the values, to the width of a bucket: the largest value of the bucket
+   * the percentile falls in
+   *
+   * @param percent is the percentile, between 0 and 100
+   * @return the percentile, 0 if there is none
+   */
+  public long getPercentile(double percent) {
+    long rank = (long) Math.ceil(percent / 100 * this.getCount());
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += this.sum(bucket);
+      if (seen >= rank && seen > 0) {
+        return Math.min(this.getMax(), lowest(bucket + 1) - 1);
+      }
+    }
+    return 0;
+  }
+
+
+
+  /**
+   * To count a value in the buckets of the current thread.
+   *
+   * @param value is the value, 0 or more
+   */
+  public void record(long value) {
+    long[] buckets = this.local.get();
+    buckets[bucket(value)]++;
+    buckets[COUNT]++;
+    buckets[SUM] += value;
+    if (value > buckets[MAX]) {
+      buckets[MAX] = value;
+    }
+  }
+
+  /**
+   * To forget every value. Values recorded at the same time may be lost or half kept.
+   */
+  public void reset() {
+    synchronized (this.retired) {
+      for (int slot = 0; slot < this.retired.length; slot++) {
+        this.retired[slot] = 0;
+      }
+    }
+    for (long[] buckets : this.threads) {
+      for (int slot = 0; slot < buckets.length; slot++) {
+        buckets[slot] = 0;
+      }
+    }
+  }
+
+  /**
+   * To fold the buckets of every thread that has died into the shared buckets and forget them.
+   * The buckets are added before they are forgotten, so a read at the same time may count them
+   * twice but never loses them. The caller holds the lock of the shared buckets.
+   */
+  private void retire() {
+    for (int i = this.threads.size() - 1; i >= 0; i--) {
+      Thread owner = this.owners.get(i).get();
+      if (owner != null && owner.isAlive()) {
+        continue;
+      }
+      long[] buckets = this.threads.get(i);
+      for (int slot = 0; slot < MAX; slot++) {
+        this.retired[slot] += buckets[slot];
+      }
+      this.retired[MAX] = Math.max(this.retired[MAX], buckets[MAX]);
+      this.threads.remove(i);
+      this.owners.remove(i);
+    }
+  }
+
+  /**
+   * To find the bucket of a value: the value itself below 8, or else the position of its highest
+   * bit and the 3 bits below it.
+   *
+   * @param value is the value, 0 or more
+   * @return the bucket
+   */
+  static int bucket(long value) {
+    if (value < (1 << SUB_BITS)) {
+      return (int) Math.max(0, value);
+    }
+    int high = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (high - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+    return ((high - SUB_BITS + 1) << SUB_BITS) + sub;
+  }
+
+  /**
+   * To find the smallest value of a bucket.
+   *
+   * @param bucket is the bucket
+   * @return the smallest value that falls in it
+   */
+  static long lowest(int bucket) {
+    if (bucket < (1 << SUB_BITS)) {
+      return bucket;
+    }
+    int high = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+    long sub = bucket & ((1 << SUB_BITS) - 1);
+    if (high >= 63) {
+      return Long.MAX_VALUE;
+    }
+    return ((1L << SUB_BITS) + sub) << (high - SUB_BITS);
+  }
+
+  /**
+   * To add up a slot over the buckets of every thread and the shared buckets.
+   *
+   * @param slot is the slot
+   * @return the sum
+   */
+  private long sum(int slot) {
+    long sum = this.retired[slot];
+    for (long[] buckets : this.threads) {
+      sum += buckets[slot];
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * History keeps the last states of a game of Board for undo and redo, in a bounded ring of packed
+ * states: the cells packed by Board.pack(long[], int) and the score, in two flat arrays allocated
+ * once. The ring holds a timeline of states after every move, with a cursor at the current one.
+ * Undo and redo move the cursor and unpack the state under it, a new move drops every state after
+ * the cursor, and once the ring is full the oldest state is overwritten. Every operation takes
+ * constant time in the length of the history and allocates nothing. Additionally, it offers
+ * several methods:
+ *
+ * getCapacity() - GETTER METHOD: the most states kept
+ * canUndo() - GETTER METHOD: if there is a state before the current one
+ * canRedo() - GETTER METHOD: if there is a state after the current one
+ *
+ * reset(Board) - forget every state and keep the Board as the first one
+ * commit(Board) - keep the Board after a move as the current state
+ * undo(Board) - go back to the state before the current one
+ * redo(Board) - go forward to the state after the current one
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class History {
+  // CAPACITY: the default number of states kept
+  static final int CAPACITY = 1024;
+
+  // capacity: the most states kept
+  // words: the number of longs of a packed state
+  // states: the packed cells of every state, words longs each
+  // scores: the score of every state
+  // oldest: the number of the oldest state kept
+  // current: the number of the current state
+  // newest: the number of the newest state kept, after the current one if some were undone
+  private final int capacity;
+  private int words;
+  private long[] states;
+  private final long[] scores;
+  private long oldest;
+  private long current;
+  private long newest;
+
+
+
+  /**
+   * Constructor for a History with:
+   * capacity: input
+   * first state: the Board
+   *
+   * @param board is the Board of the first state
+   * @param capacity is the most states kept, at least 2
+   */
+  public History(Board board, int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("A History must keep at least 2 states: " + capacity);
+    }
+    this.capacity = capacity;
+    this.scores = new long[capacity];
+    this.reset(board);
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the most states kept
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if there is a state before the current one
+   *
+   * @return if undo() would change the Board
+   */
+  public boolean canUndo() {
+    return this.current > this.oldest;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if there is a state after the current one
+   *
+   * @return if redo() would change the Board
+   */
+  public boolean canRedo() {
+    return this.current < this.newest;
+  }
+
+
+
+  /**
+   * To forget every state and keep the Board as the first one, such as for a new game. The
+   * states are only allocated again if the Board packs into a different number of longs.
+   *
+   * @param board is the Board of the first state
+   */
+  public void reset(Board board) {
+    if (this.states == null || board.getPackedWords() != this.words) {
+      this.words = board.getPackedWords();
+      this.states = new long[this.capacity * this.words];
+    }
+    this.oldest = 0;
+    this.current = 0;
+    this.newest = 0;
+    this.save(board);
+  }
+
+  /**
+   * To keep the Board after a move as the current state.
+   * - drop every state after the current one
+   * - overwrite the oldest state if the ring is full
+   *
+   * @param board is the Board after the move and its spawn
+   */
+  public void commit(Board board) {
+    this.current++;
+    this.newest = this.current;
+    if (this.newest - this.oldest >= this.capacity) {
+      this.oldest++;
+    }
+    this.save(board);
+  }
+
+  /**
+   * To go back to the state before the current one.
+   *
+   * @param board is the Board to unpack the state into
+   * @return if there was a state to go back to
+   */
+  public boolean undo(Board board) {
+    if (!this.canUndo()) {
+      return false;
+    }
+    this.current--;
+    this.load(board);
+    return true;
+  }
+
+  /**
+   * To go forward to the state after the current one.
+   *
+   * @param board is the Board to unpack the state into
+   * @return if there was a state to go forward to
+   */
+  public boolean redo(Board board) {
+    if (!this.canRedo()) {
+      return false;
+    }
+    this.current++;
+    this.load(board);
+    return true;
+  }
+
+  /**
+   * To pack the Board into the slot of the current state.
+   *
+   * @param board is the Board
+   */
+  private void save(Board board) {
+    int slot = (int) (this.current % this.capacity);
+    board.pack(this.states, slot * this.words);
+    this.scores[slot] = board.getScore();
+  }
+
+  /**
+   * To unpack the current state into the Board.
+   *
+   * @param board is the Board
+   */
+  private void load(Board board) {
+    int slot = (int) (this.current % this.capacity);
+    board.unpack(this.states, slot * this.words, this.scores[slot]);
+  }
+}
@@ -0,0 +1,196 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * InputQueue is a bounded lock-free queue of commands from one producer (the event thread) to one
+ * consumer (the game logic thread). It is a ring of primitive slots with one counter written by
+ * each side, so neither side ever blocks the other: a full queue drops the command, and an empty
+ * queue parks the consumer until the producer offers again. When the queue is behind, a repeatable
+ * command equal to the one still waiting at its end is a redundant key repeat and is coalesced
+ * into it, while every other command counts each time it is offered.
+ * Every command carries the time it was offered, so the consumer can measure the latency.
+ * Additionally, it offers several methods:
+ *
+ * getCapacity() - GETTER METHOD: the number of slots
+ * getCoalesced() - GETTER METHOD: the number of commands coalesced into a waiting one
+ * getDropped() - GETTER METHOD: the number of commands dropped because the queue was full
+ * getOfferTime() - GETTER METHOD: when the last command taken was offered
+ *
+ * offer(int) - add a command, from the producer
+ * poll() - take the next command if there is one, from the consumer
+ * take() - take the next command, waiting for one, from the consumer
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class InputQueue {
+  // EMPTY: the command returned by poll() when the queue is empty
+  static final int EMPTY = -1;
+
+  // commands: the command of every slot
+  // times: when the command of every slot was offered
+  // mask: the capacity minus one, to find the slot of a position
+  // repeatable: the commands below it are key repeats that can be coalesced
+  // head: the position of the next command to take, only written by the consumer
+  // tail: the position of the next command to offer, only written by the producer
+  // last: the last command offered, only used by the producer
+  // consumer: the consumer when it is parked on an empty queue
+  // coalesced: the number of commands coalesced into a waiting one
+  // dropped: the number of commands dropped because the queue was full
+  // offerTime: when the last command taken was offered, only used by the consumer
+  private final byte[] commands;
+  private final long[] times;
+  private final int mask;
+  private final int repeatable;
+  private final AtomicLong head = new AtomicLong();
+  private final AtomicLong tail = new AtomicLong();
+  private int last = EMPTY;
+  private volatile Thread consumer;
+  private volatile long coalesced;
+  private volatile long dropped;
+  private long offerTime;
+
+
+
+  /**
+   * Constructor for an empty InputQueue with:
+   * capacity: the smallest power of two that is at least the input
+   * repeatable: input
+   *
+   * @param capacity is the minimum number of slots
+   * @param repeatable is the first command that is never coalesced, 0 to coalesce none
+   */
+  public InputQueue(int capacity, int repeatable) {
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.commands = new byte[size];
+    this.times = new long[size];
+    this.mask = size - 1;
+    this.repeatable = repeatable;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the number of slots
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return this.commands.length;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of commands coalesced into a waiting one
+   *
+   * @return the number of coalesced commands
+   */
+  public long getCoalesced() {
+    return this.coalesced;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of commands dropped because the queue was full
+   *
+   * @return the number of dropped commands
+   */
+  public long getDropped() {
+    return this.dropped;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return when the last command taken was offered, for the consumer
+   *
+   * @return the time from System.nanoTime()
+   */
+  public long getOfferTime() {
+    return this.offerTime;
+  }
+
+
+
+  /**
+   * To add a command at the end of the queue. Only one thread may offer.
+   * - coalesce it if it is repeatable, the queue is behind and the command at its end is the same
+   * - drop it if the queue is full
+   * - otherwise write the slot, publish it, and wake up the consumer
+   *
+   * @param command is the command, from 0 to 127
+   * @return if the command was added
+   */
+  public boolean offer(int command) {
+    long position = this.tail.get();
+    long waiting = position - this.head.get();
+    // To coalesce a key repeat of the command still waiting at the end
+    if (waiting > 0 && command == this.last && command < this.repeatable) {
+      this.coalesced++;
+      return false;
+    }
+    // To drop the command if the queue is full
+    if (waiting == this.commands.length) {
+      this.dropped++;
+      return false;
+    }
+
+    int slot = (int) position & this.mask;
+    this.commands[slot] = (byte) command;
+    this.times[slot] = System.nanoTime();
+    // To publish the slot after it is written, before looking for a parked consumer
+    this.tail.set(position + 1);
+    this.last = command;
+
+    Thread parked = this.consumer;
+    if (parked != null) {
+      LockSupport.unpark(parked);
+    }
+    return true;
+  }
+
+  /**
+   * To take the next command if there is one. Only one thread may take.
+   *
+   * @return the command, or EMPTY if the queue is empty
+   */
+  public int poll() {
+    long position = this.head.get();
+    if (position == this.tail.get()) {
+      return EMPTY;
+    }
+    int slot = (int) position & this.mask;
+    int command = this.commands[slot];
+    this.offerTime = this.times[slot];
+    // To free the slot after it is read
+    this.head.lazySet(position + 1);
+    return command;
+  }
+
+  /**
+   * To take the next command, parking until there is one. Only one thread may take.
+   *
+   * @return the command
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public int take() throws InterruptedException {
+    while (true) {
+      int command = this.poll();
+      if (command != EMPTY) {
+        return command;
+      }
+      // To announce the wait before checking again, so an offer in between is not missed
+      this.consumer = Thread.currentThread();
+      command = this.poll();
+      if (command != EMPTY) {
+        this.consumer = null;
+        return command;
+      }
+      LockSupport.park(this);
+      this.consumer = null;
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+}
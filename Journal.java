@@ -0,0 +1,286 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Journal records one game of Board in a compact binary form, so the game can be stored, audited
+ * and replayed without storing the Board after every move. It keeps the seed of the spawns, every
+ * move as 2 bits and every spawn as its location and its value, packed into a stream of bits
+ * where every step has the same width. Every INTERVAL moves, and before the first move, it also
+ * keeps a keyframe of every exponent and the score, so a replay can start from the nearest
+ * keyframe instead of the first move. One Journal is reused for every game of a worker.
+ * Additionally, it offers several methods:
+ *
+ * getSeed() - GETTER METHOD: the seed of the spawns
+ * getMoves() - GETTER METHOD: the number of moves recorded
+ * getSize() - GETTER METHOD: the number of bytes of the record
+ * stepBits(int) - GETTER METHOD: the width of a step on a grid size
+ * keyframes(int, int) - GETTER METHOD: the number of keyframes of a number of moves
+ *
+ * start(Board, long) - start recording a new game
+ * record(Board, Direction, int) - record a move and its spawn
+ * writeTo(ByteBuffer) - write the record
+ * readBits(ByteBuffer, int, long, int) - read a field of the packed steps
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class Journal {
+  // INTERVAL: the default number of moves between two keyframes
+  // HEADER: the number of bytes of a record before its keyframes, after its length
+  // MOVE_BITS: the width of the move of a step
+  // VALUE_BITS: the width of the value of a spawn, 0 for the multiplier and 1 for its square
+  static final int INTERVAL = 256;
+  static final int HEADER = 8 + 4 + 4 + 4 + 4 + 8;
+  static final int MOVE_BITS = 2;
+  static final int VALUE_BITS = 1;
+
+  // interval: the number of moves between two keyframes
+  // seed: the seed of the spawns
+  // multiplier: the multiplier of the game
+  // grid: the grid size of the game
+  // cellBits: the width of the location of a spawn
+  // moves: the number of moves recorded
+  // score: the score after the last move
+  // steps: the packed steps
+  // stepCount: the number of bits used in steps
+  // keyframes: the exponents of every keyframe, one after another
+  // keyScores: the score of every keyframe
+  private final int interval;
+  private long seed;
+  private int multiplier;
+  private int grid;
+  private int cellBits;
+  private int moves;
+  private long score;
+  private long[] steps = new long[16];
+  private long stepCount;
+  private byte[] keyframes = new byte[64];
+  private long[] keyScores = new long[4];
+
+
+
+  /**
+   * Constructor for an empty Journal with:
+   * interval: input
+   *
+   * @param interval is the number of moves between two keyframes
+   */
+  public Journal(int interval) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("The keyframe interval must be positive: " + interval);
+    }
+    this.interval = interval;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the seed of the spawns
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of moves recorded
+   *
+   * @return the number of moves
+   */
+  public int getMoves() {
+    return this.moves;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of bytes writeTo() writes, including the length in front
+   *
+   * @return the size of the record
+   */
+  public int getSize() {
+    int cells = this.grid * this.grid;
+    return 4 + HEADER + keyframes(this.moves, this.interval) * (8 + cells)
+            + 8 * (int) ((this.stepCount + 63) >>> 6);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the width of a step on a grid size: the move, the value and the location of the spawn
+   *
+   * @param grid is the grid size
+   * @return the number of bits of a step
+   */
+  static int stepBits(int grid) {
+    return MOVE_BITS + VALUE_BITS + cellBits(grid);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of keyframes of a game, counting the one before the first move
+   *
+   * @param moves is the number of moves
+   * @param interval is the number of moves between two keyframes
+   * @return the number of keyframes
+   */
+  static int keyframes(int moves, int interval) {
+    return moves / interval + 1;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the width of the location of a spawn on a grid size
+   *
+   * @param grid is the grid size
+   * @return the number of bits to tell every cell apart
+   */
+  static int cellBits(int grid) {
+    return 32 - Integer.numberOfLeadingZeros(grid * grid - 1);
+  }
+
+
+
+  /**
+   * To start recording a new game, forgetting the last one.
+   * - remember the seed, the multiplier and the grid size
+   * - keep the Board with its first spawns as the first keyframe
+   *
+   * @param board is the new Board, before its first move
+   * @param seed is the seed its spawns are drawn from
+   */
+  public void start(Board board, long seed) {
+    // To clear the steps of the last game
+    Arrays.fill(this.steps, 0, (int) ((this.stepCount + 63) >>> 6), 0);
+    this.stepCount = 0;
+    this.moves = 0;
+    this.seed = seed;
+    this.multiplier = board.getMultiplier();
+    this.grid = board.getGrid();
+    this.cellBits = cellBits(this.grid);
+    this.keyframe(board);
+  }
+
+  /**
+   * To record a move and the Tile spawned after it.
+   * - pack the Direction, the value and the location of the spawn into the next step
+   * - keep a keyframe every interval moves
+   *
+   * @param board is the Board after the move and the spawn
+   * @param direction is the Direction of the move
+   * @param cell is the location of the spawn from Board.spawn()
+   */
+  public void record(Board board, Direction direction, int cell) {
+    // To check that the move spawned a Tile, which every move that changes the Board does
+    if (cell < 0) {
+      throw new IllegalArgumentException("Only a move that spawned a Tile can be recorded");
+    }
+    int value = board.getExponent(cell / this.grid, cell % this.grid) - 1;
+    this.writeBits(direction.ordinal(), MOVE_BITS);
+    this.writeBits(value, VALUE_BITS);
+    this.writeBits(cell, this.cellBits);
+    this.moves++;
+    this.score = board.getScore();
+
+    // To keep a keyframe every interval moves
+    if (this.moves % this.interval == 0) {
+      this.keyframe(board);
+    }
+  }
+
+  /**
+   * To write the record of the game:
+   * - the length of the rest of the record
+   * - the seed, the multiplier, the grid size, the interval, the number of moves and the score
+   * - the score and the exponents of every keyframe
+   * - the packed steps, 64 bits at a time
+   *
+   * @param buffer is the buffer to write to, with at least getSize() bytes remaining
+   */
+  public void writeTo(ByteBuffer buffer) {
+    buffer.putInt(this.getSize() - 4);
+    buffer.putLong(this.seed);
+    buffer.putInt(this.multiplier);
+    buffer.putInt(this.grid);
+    buffer.putInt(this.interval);
+    buffer.putInt(this.moves);
+    buffer.putLong(this.score);
+
+    int cells = this.grid * this.grid;
+    int count = keyframes(this.moves, this.interval);
+    for (int key = 0; key < count; key++) {
+      buffer.putLong(this.keyScores[key]);
+      buffer.put(this.keyframes, key * cells, cells);
+    }
+    int words = (int) ((this.stepCount + 63) >>> 6);
+    for (int word = 0; word < words; word++) {
+      buffer.putLong(this.steps[word]);
+    }
+  }
+
+  /**
+   * To read a field of packed steps written by writeTo().
+   *
+   * @param buffer is the buffer holding the record
+   * @param offset is where the packed steps start in the buffer
+   * @param position is the number of the first bit of the field
+   * @param count is the width of the field, at most 32 bits
+   * @return the field
+   */
+  static int readBits(ByteBuffer buffer, int offset, long position, int count) {
+    int word = offset + 8 * (int) (position >>> 6);
+    int shift = (int) position & 63;
+    long bits = buffer.getLong(word) >>> shift;
+    // To take the rest of a field that crosses into the next word
+    if (shift + count > 64) {
+      bits |= buffer.getLong(word + 8) << (64 - shift);
+    }
+    return (int) (bits & ((1L << count) - 1));
+  }
+
+  /**
+   * To append a field to the packed steps, growing them if needed.
+   *
+   * @param value is the field
+   * @param count is the width of the field, at most 32 bits
+   */
+  private void writeBits(long value, int count) {
+    int word = (int) (this.stepCount >>> 6);
+    int shift = (int) this.stepCount & 63;
+    if (word + 1 >= this.steps.length) {
+      this.steps = Arrays.copyOf(this.steps, this.steps.length * 2);
+    }
+    this.steps[word] |= value << shift;
+    // To put the rest of a field that crosses into the next word
+    if (shift + count > 64) {
+      this.steps[word + 1] |= value >>> (64 - shift);
+    }
+    this.stepCount += count;
+  }
+
+  /**
+   * To keep the exponents and the score of the Board as the next keyframe.
+   *
+   * @param board is the Board
+   */
+  private void keyframe(Board board) {
+    int cells = this.grid * this.grid;
+    int key = this.moves / this.interval;
+    // To grow the keyframes if needed
+    if ((key + 1) * cells > this.keyframes.length) {
+      this.keyframes = Arrays.copyOf(this.keyframes, Math.max((key + 1) * cells,
+              this.keyframes.length * 2));
+    }
+    if (key >= this.keyScores.length) {
+      this.keyScores = Arrays.copyOf(this.keyScores, this.keyScores.length * 2);
+    }
+
+    for (int cell = 0; cell < cells; cell++) {
+      this.keyframes[key * cells + cell] = (byte) board.getExponent(cell / this.grid,
+              cell % this.grid);
+    }
+    this.keyScores[key] = board.getScore();
+    this.score = board.getScore();
+  }
+}
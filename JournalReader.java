@@ -0,0 +1,301 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * JournalReader maps a journal file written by JournalWriter into memory and replays its games.
+ * Opening the file only walks the lengths of the records to find where every game starts; a game
+ * is read from the mapped file when it is replayed. To rebuild the Board after any move, it
+ * restores the nearest keyframe before that move and replays at most one interval of moves from
+ * it, placing every spawn from the journal instead of drawing it again, so a replay gives the
+ * same Board as the game whatever random numbers the Board uses. Additionally, it offers several
+ * methods:
+ *
+ * getGames() - GETTER METHOD: the number of games in the file
+ * getSeed(int) - GETTER METHOD: the seed of the spawns of a game
+ * getMultiplier(int) - GETTER METHOD: the multiplier of a game
+ * getGrid(int) - GETTER METHOD: the grid size of a game
+ * getMoves(int) - GETTER METHOD: the number of moves of a game
+ * getScore(int) - GETTER METHOD: the final score of a game
+ * getMove(int, int) - GETTER METHOD: the Direction of a move of a game
+ *
+ * replay(int, int) - rebuild the Board of a game after a move
+ * verify(int) - check that the replay of a game ends with its final score
+ * close() - close the file
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class JournalReader implements Closeable {
+  // SEED, MULTIPLIER, GRID, INTERVAL, MOVES, SCORE: where the fields of a record are, after its
+  // length
+  static final int SEED = 4;
+  static final int MULTIPLIER = 12;
+  static final int GRID = 16;
+  static final int INTERVAL = 20;
+  static final int MOVES = 24;
+  static final int SCORE = 28;
+  // DIRECTIONS: every Direction by its ordinal, the bits of a move, without copying values()
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // channel: the journal file
+  // file: the whole file, mapped into memory
+  // offsets: where every record starts in the file
+  // games: the number of records
+  private final FileChannel channel;
+  private final MappedByteBuffer file;
+  private int[] offsets = new int[1024];
+  private int games;
+
+
+
+  /**
+   * Constructor for a JournalReader with:
+   * file: the file of the path, mapped into memory
+   * offsets: found from the length of every record
+   *
+   * @param path is the path of the journal file
+   * @throws IOException if the file cannot be read, is bigger than 2 GB or is not a journal
+   */
+  public JournalReader(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    long size = this.channel.size();
+    if (size > Integer.MAX_VALUE) {
+      this.channel.close();
+      throw new IOException("Journal files over 2 GB must be split: " + path);
+    }
+    this.file = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+    // To check the header
+    if (size < 8 || this.file.getInt(0) != JournalWriter.MAGIC
+            || this.file.getInt(4) != JournalWriter.VERSION) {
+      this.channel.close();
+      throw new IOException("Not a journal of this version: " + path);
+    }
+
+    // To find where every record starts
+    int offset = 8;
+    while (offset + 4 <= size) {
+      if (this.games == this.offsets.length) {
+        this.offsets = Arrays.copyOf(this.offsets, this.games * 2);
+      }
+      this.offsets[this.games++] = offset;
+      offset += 4 + this.file.getInt(offset);
+    }
+    if (offset != size) {
+      this.channel.close();
+      throw new IOException("The last record is cut short: " + path);
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the number of games in the file
+   *
+   * @return the number of games
+   */
+  public int getGames() {
+    return this.games;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the seed of the spawns of a game
+   *
+   * @param game is the number of the game
+   * @return the seed
+   */
+  public long getSeed(int game) {
+    return this.file.getLong(this.offsets[game] + SEED);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the multiplier of a game
+   *
+   * @param game is the number of the game
+   * @return the multiplier
+   */
+  public int getMultiplier(int game) {
+    return this.file.getInt(this.offsets[game] + MULTIPLIER);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the grid size of a game
+   *
+   * @param game is the number of the game
+   * @return the grid size
+   */
+  public int getGrid(int game) {
+    return this.file.getInt(this.offsets[game] + GRID);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of moves of a game
+   *
+   * @param game is the number of the game
+   * @return the number of moves
+   */
+  public int getMoves(int game) {
+    return this.file.getInt(this.offsets[game] + MOVES);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the final score of a game
+   *
+   * @param game is the number of the game
+   * @return the score after the last move
+   */
+  public long getScore(int game) {
+    return this.file.getLong(this.offsets[game] + SCORE);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the Direction of a move of a game
+   *
+   * @param game is the number of the game
+   * @param move is the number of the move, from 0
+   * @return the Direction
+   */
+  public Direction getMove(int game, int move) {
+    int grid = this.getGrid(game);
+    return DIRECTIONS[Journal.readBits(this.file, this.steps(game),
+            (long) move * Journal.stepBits(grid), Journal.MOVE_BITS)];
+  }
+
+
+
+  /**
+   * To rebuild the Board of a game after a number of moves.
+   * - restore the exponents and the score of the nearest keyframe before the move
+   * - replay every move after the keyframe, placing its spawn from the journal
+   *
+   * @param game is the number of the game
+   * @param moves is the number of moves to replay, from 0 to getMoves(game)
+   * @return the Board after the moves, backed by a BitBoard for a grid size of 4
+   */
+  public Board replay(int game, int moves) {
+    if (moves < 0 || moves > this.getMoves(game)) {
+      throw new IllegalArgumentException("Game " + game + " has " + this.getMoves(game)
+              + " moves, not " + moves);
+    }
+    int record = this.offsets[game];
+    int multiplier = this.getMultiplier(game);
+    int grid = this.getGrid(game);
+    int interval = this.file.getInt(record + INTERVAL);
+    int cells = grid * grid;
+
+    // To restore the nearest keyframe
+    int key = moves / interval;
+    int keyframe = record + 4 + Journal.HEADER + key * (8 + cells);
+    byte[] exponents = new byte[cells];
+    this.file.get(keyframe + 8, exponents);
+    Board board = grid == 4 ? new Board(multiplier) : new Board(multiplier, grid);
+    board.restore(exponents, this.file.getLong(keyframe));
+
+    // To replay the moves after the keyframe
+    int steps = this.steps(game);
+    int stepBits = Journal.stepBits(grid);
+    int cellBits = Journal.cellBits(grid);
+    for (int move = key * interval; move < moves; move++) {
+      long position = (long) move * stepBits;
+      int direction = Journal.readBits(this.file, steps, position, Journal.MOVE_BITS);
+      int value = Journal.readBits(this.file, steps, position + Journal.MOVE_BITS,
+              Journal.VALUE_BITS);
+      int cell = Journal.readBits(this.file, steps,
+              position + Journal.MOVE_BITS + Journal.VALUE_BITS, cellBits);
+      board.move(DIRECTIONS[direction]);
+      board.setExponent(cell / grid, cell % grid, value + 1);
+    }
+    return board;
+  }
+
+  /**
+   * To check that the replay of a game ends with the final score it was recorded with.
+   *
+   * @param game is the number of the game
+   * @return if the replay matches the record
+   */
+  public boolean verify(int game) {
+    Board board = this.replay(game, this.getMoves(game));
+    return board.getScore() == this.getScore(game);
+  }
+
+  /**
+   * To close the file.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * To find where the packed steps of a game start in the file.
+   *
+   * @param game is the number of the game
+   * @return the offset of the steps
+   */
+  private int steps(int game) {
+    int record = this.offsets[game];
+    int cells = this.getGrid(game) * this.getGrid(game);
+    int keyframes = Journal.keyframes(this.getMoves(game), this.file.getInt(record + INTERVAL));
+    return record + 4 + Journal.HEADER + keyframes * (8 + cells);
+  }
+
+
+
+  /**
+   * To read a journal from the command line:
+   * java JournalReader [journal] [game] [move]
+   * - journal: the path of the journal file, games.journal by default
+   * - game: the game to print, 0 by default
+   * - move: the move to print the Board after, the last move by default
+   * It replays every game to check it, then prints the Board of the game after the move.
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the journal cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    String path = args.length > 0 ? args[0] : "games.journal";
+    try (JournalReader reader = new JournalReader(Paths.get(path))) {
+      // To replay every game
+      long start = System.nanoTime();
+      long moves = 0;
+      int failed = 0;
+      for (int game = 0; game < reader.getGames(); game++) {
+        moves += reader.getMoves(game);
+        if (!reader.verify(game)) {
+          failed++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("%d games, %d moves replayed in %.3f s (%.0f moves/s), %d failed%n",
+              reader.getGames(), moves, seconds, moves / seconds, failed);
+
+      if (reader.getGames() == 0) {
+        return;
+      }
+      int game = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+      int move = args.length > 2 ? Integer.parseInt(args[2]) : reader.getMoves(game);
+      Board board = reader.replay(game, move);
+      System.out.println("game " + game + " (seed " + reader.getSeed(game) + ") after move "
+              + move + ", score " + board.getScore() + ":");
+      System.out.println(board);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * JournalWriter appends the records of many Journals to one file through a file channel. The
+ * records are gathered in a direct buffer and written when it is full, so millions of games cost a
+ * few large writes instead of one write per game. A new file starts with a header of MAGIC and
+ * VERSION, and an existing file is appended to. The workers of a simulation share one
+ * JournalWriter: appending is synchronized, but only copies a record into the buffer.
+ * Additionally, it offers several methods:
+ *
+ * getGames() - GETTER METHOD: the number of records appended
+ *
+ * append(Journal) - append the record of a game
+ * flush() - write the buffered records to the file
+ * close() - flush and close the file
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class JournalWriter implements Closeable {
+  // MAGIC: the first int of a journal file
+  // VERSION: the version of the record format
+  // BUFFER: the number of bytes buffered before they are written
+  static final int MAGIC = 0x324A524E;
+  static final int VERSION = 1;
+  static final int BUFFER = 1 << 20;
+
+  // channel: the file being appended to
+  // buffer: the records not written yet
+  // games: the number of records appended
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER);
+  private long games;
+
+
+
+  /**
+   * Constructor for a JournalWriter with:
+   * channel: the file of the path, created with a header if it does not exist
+   *
+   * @param path is the path of the journal file
+   * @throws IOException if the file cannot be opened or written
+   */
+  public JournalWriter(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    this.channel.position(this.channel.size());
+    // To start a new file with the header
+    if (this.channel.size() == 0) {
+      this.buffer.putInt(MAGIC);
+      this.buffer.putInt(VERSION);
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the number of records appended
+   *
+   * @return the number of games
+   */
+  public synchronized long getGames() {
+    return this.games;
+  }
+
+
+
+  /**
+   * To append the record of a game.
+   * - write the buffer first if the record does not fit in it
+   * - copy the record into the buffer, or write it alone if it is bigger than the buffer
+   *
+   * @param journal is the Journal of the game
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void append(Journal journal) throws IOException {
+    int size = journal.getSize();
+    if (size > this.buffer.remaining()) {
+      this.flush();
+    }
+    // To write a record that is bigger than the whole buffer on its own
+    if (size > this.buffer.capacity()) {
+      ByteBuffer record = ByteBuffer.allocate(size);
+      journal.writeTo(record);
+      record.flip();
+      while (record.hasRemaining()) {
+        this.channel.write(record);
+      }
+    }
+    else {
+      journal.writeTo(this.buffer);
+    }
+    this.games++;
+  }
+
+  /**
+   * To write the buffered records to the file.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  /**
+   * To write the buffered records and close the file.
+   *
+   * @throws IOException if the file cannot be written or closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      this.flush();
+    }
+    finally {
+      this.channel.close();
+    }
+  }
+}
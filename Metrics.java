@@ -0,0 +1,310 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics records where the time of the hot paths of Board and Game goes: the latency of every
+ * move by Direction, the merges of every move, the time of spawn() and isGameOver(), the time of
+ * every paint(), and counters of the moves that changed nothing, the spawns on a full Board and
+ * the scans for the legal moves. It is switched on with -Dmetrics=true. The switch is a static
+ * final boolean, so when it is off the JIT compiler drops every check of it, and the hot paths
+ * run as if they were not instrumented. When it is on, the metrics are published as a JMX MBean
+ * named NAME, and printed every -Dmetrics.dump=seconds if that is set. The counters are
+ * LongAdders and the histograms are per-thread Histograms, so the workers of a simulation record
+ * without contending. Additionally, it offers several methods:
+ *
+ * MetricsMXBean methods - GETTER METHOD: the counters, the report and the percentiles
+ *
+ * move(Direction, long, MoveResult) - record a move
+ * spawn(long, int) - record a spawn
+ * gameOver(long) - record a call to isGameOver()
+ * legalScan() - record a scan for the legal moves
+ * paint(long) - record a paint
+ * histograms() - every histogram by its name
+ * register() - publish the MBean and start the periodic dump
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class Metrics implements MetricsMXBean {
+  // ENABLED: if the metrics are recorded, from -Dmetrics
+  // DUMP: the seconds between two dumps of the report, 0 for none, from -Dmetrics.dump
+  // NAME: the name of the MBean
+  static final boolean ENABLED = Boolean.getBoolean("metrics");
+  static final long DUMP = Long.getLong("metrics.dump", 0);
+  static final String NAME = "game2048:type=Metrics";
+
+  // MOVES: the latency of the moves of every Direction, in nanoseconds
+  // MERGES: the number of merges of every move
+  // SPAWNS: the latency of spawn(), in nanoseconds
+  // GAME_OVER: the latency of isGameOver(), in nanoseconds
+  // PAINTS: the latency of paint(), in nanoseconds
+  static final Histogram[] MOVES = new Histogram[Direction.values().length];
+  static final Histogram MERGES = new Histogram();
+  static final Histogram SPAWNS = new Histogram();
+  static final Histogram GAME_OVER = new Histogram();
+  static final Histogram PAINTS = new Histogram();
+
+  // UNCHANGED: the number of moves that changed nothing
+  // FULL_SPAWNS: the number of spawns on a Board without an empty Tile
+  // LEGAL_SCANS: the number of times the legal moves were searched again
+  static final LongAdder UNCHANGED = new LongAdder();
+  static final LongAdder FULL_SPAWNS = new LongAdder();
+  static final LongAdder LEGAL_SCANS = new LongAdder();
+
+  static {
+    for (Direction direction : Direction.values()) {
+      MOVES[direction.ordinal()] = new Histogram();
+    }
+    if (ENABLED) {
+      register();
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return if the metrics are being recorded
+   *
+   * @return the switch
+   */
+  @Override
+  public boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of moves
+   *
+   * @return the number of moves
+   */
+  @Override
+  public long getMoves() {
+    return MERGES.getCount();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of moves that changed nothing
+   *
+   * @return the number of moves
+   */
+  @Override
+  public long getUnchangedMoves() {
+    return UNCHANGED.sum();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of spawns
+   *
+   * @return the number of spawns
+   */
+  @Override
+  public long getSpawns() {
+    return SPAWNS.getCount();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of spawns on a Board without an empty Tile. A spawn never retries: it
+   * picks from the free cells directly, so these are the only spawns that do not place a Tile.
+   *
+   * @return the number of spawns
+   */
+  @Override
+  public long getFullSpawns() {
+    return FULL_SPAWNS.sum();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of times the legal moves were searched again, because the Board changed
+   * since the last search
+   *
+   * @return the number of scans
+   */
+  @Override
+  public long getLegalScans() {
+    return LEGAL_SCANS.sum();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of calls to isGameOver()
+   *
+   * @return the number of calls
+   */
+  @Override
+  public long getGameOverChecks() {
+    return GAME_OVER.getCount();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of paints
+   *
+   * @return the number of paints
+   */
+  @Override
+  public long getPaints() {
+    return PAINTS.getCount();
+  }
+
+  /**
+   * GETTER METHOD:
+   * To get the text dump of every metric, one line each.
+   *
+   * @return the report
+   */
+  @Override
+  public String getReport() {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("metrics: %d moves (%d unchanged), %d spawns (%d full),"
+                    + " %d legal scans%n", this.getMoves(), this.getUnchangedMoves(),
+            this.getSpawns(), this.getFullSpawns(), this.getLegalScans()));
+    for (Map.Entry<String, Histogram> entry : histograms().entrySet()) {
+      if (entry.getValue().getCount() != 0) {
+        report.append(String.format("  %-12s %s%n", entry.getKey(), entry.getValue()));
+      }
+    }
+    return report.toString();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of a histogram, by the name it has in the report
+   *
+   * @param histogram is the name of the histogram, such as "move LEFT" or "spawn"
+   * @param percent is the percentile, between 0 and 100
+   * @return the percentile, in nanoseconds for the latencies
+   */
+  @Override
+  public long getPercentile(String histogram, double percent) {
+    Histogram found = histograms().get(histogram);
+    if (found == null) {
+      throw new IllegalArgumentException("No such histogram: " + histogram);
+    }
+    return found.getPercentile(percent);
+  }
+
+  /**
+   * To forget every metric.
+   */
+  @Override
+  public void reset() {
+    for (Histogram histogram : histograms().values()) {
+      histogram.reset();
+    }
+    UNCHANGED.reset();
+    FULL_SPAWNS.reset();
+    LEGAL_SCANS.reset();
+  }
+
+
+
+  /**
+   * To record a move, only called if ENABLED.
+   *
+   * @param direction is the Direction of the move
+   * @param start is when the move started, from System.nanoTime()
+   * @param result is the MoveResult of the move
+   */
+  static void move(Direction direction, long start, MoveResult result) {
+    MOVES[direction.ordinal()].record(System.nanoTime() - start);
+    MERGES.record(result.getMerges());
+    if (!result.isMoved()) {
+      UNCHANGED.increment();
+    }
+  }
+
+  /**
+   * To record a spawn, only called if ENABLED.
+   *
+   * @param start is when the spawn started, from System.nanoTime()
+   * @param cell is the location of the spawn, -1 if the Board was full
+   */
+  static void spawn(long start, int cell) {
+    SPAWNS.record(System.nanoTime() - start);
+    if (cell < 0) {
+      FULL_SPAWNS.increment();
+    }
+  }
+
+  /**
+   * To record a call to isGameOver(), only called if ENABLED.
+   *
+   * @param start is when the call started, from System.nanoTime()
+   */
+  static void gameOver(long start) {
+    GAME_OVER.record(System.nanoTime() - start);
+  }
+
+  /**
+   * To record a scan for the legal moves, only called if ENABLED.
+   */
+  static void legalScan() {
+    LEGAL_SCANS.increment();
+  }
+
+  /**
+   * To record a paint, only called if ENABLED.
+   *
+   * @param start is when the paint started, from System.nanoTime()
+   */
+  static void paint(long start) {
+    PAINTS.record(System.nanoTime() - start);
+  }
+
+  /**
+   * To list every histogram by its name in the report.
+   *
+   * @return the histograms, in the order of the report
+   */
+  static Map<String, Histogram> histograms() {
+    Map<String, Histogram> histograms = new LinkedHashMap<>();
+    for (Direction direction : Direction.values()) {
+      histograms.put("move " + direction, MOVES[direction.ordinal()]);
+    }
+    histograms.put("merges", MERGES);
+    histograms.put("spawn", SPAWNS);
+    histograms.put("isGameOver", GAME_OVER);
+    histograms.put("paint", PAINTS);
+    return histograms;
+  }
+
+  /**
+   * To publish the MBean, and start a daemon thread that prints the report every DUMP seconds.
+   */
+  static void register() {
+    Metrics metrics = new Metrics();
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(NAME));
+    }
+    catch (JMException e) {
+      System.err.println("Cannot publish the metrics: " + e);
+    }
+
+    if (DUMP > 0) {
+      Thread dump = new Thread(() -> {
+        try {
+          while (true) {
+            Thread.sleep(DUMP * 1000);
+            System.err.print(metrics.getReport());
+          }
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, "2048-metrics");
+      dump.setDaemon(true);
+      dump.start();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * MetricsMXBean is the management interface of Metrics, so the counters and the histograms of the
+ * hot paths can be read from JConsole or any other JMX client while a game or a simulation runs.
+ * It offers several methods:
+ *
+ * isEnabled() - GETTER METHOD: if the metrics are being recorded
+ * getMoves() - GETTER METHOD: the number of moves
+ * getUnchangedMoves() - GETTER METHOD: the number of moves that changed nothing
+ * getSpawns() - GETTER METHOD: the number of spawns
+ * getFullSpawns() - GETTER METHOD: the number of spawns on a Board without an empty Tile
+ * getLegalScans() - GETTER METHOD: the number of times the legal moves were searched again
+ * getGameOverChecks() - GETTER METHOD: the number of calls to isGameOver()
+ * getPaints() - GETTER METHOD: the number of paints
+ * getReport() - GETTER METHOD: the text dump of every metric
+ * getPercentile(String, double) - GETTER METHOD: a percentile of a histogram
+ *
+ * reset() - forget every metric
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public interface MetricsMXBean {
+  boolean isEnabled();
+
+  long getMoves();
+
+  long getUnchangedMoves();
+
+  long getSpawns();
+
+  long getFullSpawns();
+
+  long getLegalScans();
+
+  long getGameOverChecks();
+
+  long getPaints();
+
+  String getReport();
+
+  /**
+   * GETTER METHOD:
+   * Return a percentile of a histogram, by the name it has in the report
+   *
+   * @param histogram is the name of the histogram, such as "move LEFT" or "spawn"
+   * @param percent is the percentile, between 0 and 100
+   * @return the percentile, in nanoseconds for the latencies
+   */
+  long getPercentile(String histogram, double percent);
+
+  void reset();
+}
@@ -0,0 +1,299 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * MonteCarlo is a Policy that advises a move by playing random games. For every legal first
+ * Direction, it plays many random games from a copy of the Board, and picks the Direction with the
+ * best average final score. The random games are split across the cores with a fork/join pool,
+ * and every thread plays all of its games on one scratch Board of its own, copied into with
+ * copyFrom(), so a random game allocates nothing. The final score of every random game goes into
+ * its own slot of a flat array, so the threads never share anything while they play. Additionally,
+ * it offers several methods:
+ *
+ * toString() - GETTER METHOD: the report of the last advice
+ * getMean(Direction) - GETTER METHOD: the average final score after a Direction
+ * getInterval(Direction) - GETTER METHOD: the half width of the 95% confidence interval
+ * getRolloutsPerSecond() - GETTER METHOD: how many random games were played per second
+ *
+ * choose(Board) - play the random games and pick the best Direction
+ * rollout(Board, Direction) - play one random game after a first Direction
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class MonteCarlo implements Policy {
+  // BATCH: the number of random games a worker plays without splitting them further
+  // Z_95: the number of standard errors in the half width of a 95% confidence interval
+  // MAX_MOVES: the default most moves of a random game, since random games on Boards bigger than
+  // 4x4 can go on for millions of moves
+  // RANDOM: the Policy of the random games
+  // DIRECTIONS: every Direction by its ordinal, without copying values()
+  static final int BATCH = 64;
+  static final double Z_95 = 1.96;
+  static final int MAX_MOVES = 1000;
+  static final Policy RANDOM = Policy.random();
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // rollouts: the number of random games after every legal first Direction
+  // maxMoves: the most moves of a random game, 0 to play it to the end
+  // pool: the pool the random games are split across
+  // scratch: the scratch Board of every thread
+  // finals: the final score of every random game, the games of a Direction next to each other
+  // means: the average final score after every Direction
+  // intervals: the half width of the 95% confidence interval after every Direction
+  // root: the Board being advised
+  // legal: the legal Directions of the Board being advised
+  // nanos: how long the last advice took
+  private final int rollouts;
+  private final int maxMoves;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<Board> scratch = new ThreadLocal<>();
+  private final long[] finals;
+  private final double[] means = new double[4];
+  private final double[] intervals = new double[4];
+  private Board root;
+  private int legal;
+  private long nanos;
+
+
+
+  /**
+   * Constructor for a MonteCarlo with:
+   * rollouts: input
+   * maxMoves: input
+   * pool: input
+   *
+   * @param rollouts is the number of random games after every legal first Direction
+   * @param maxMoves is the most moves of a random game, 0 to play it to the end
+   * @param pool is the pool the random games are split across
+   */
+  public MonteCarlo(int rollouts, int maxMoves, ForkJoinPool pool) {
+    this.rollouts = rollouts;
+    this.maxMoves = maxMoves;
+    this.pool = pool;
+    this.finals = new long[4 * rollouts];
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the report of the last advice, with the average final score and its 95% confidence
+   * interval after every legal Direction, and the throughput.
+   *
+   * @return the report of the last advice
+   */
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder();
+    for (Direction direction : DIRECTIONS) {
+      if (direction.isIn(this.legal)) {
+        report.append(String.format("%-5s: %.1f +- %.1f%n", direction,
+                this.getMean(direction), this.getInterval(direction)));
+      }
+    }
+    report.append(String.format("%d rollouts in %.3f ms (%.0f rollouts/s)",
+            this.rollouts * Integer.bitCount(this.legal), this.nanos / 1e6,
+            this.getRolloutsPerSecond()));
+    return report.toString();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the average final score of the random games after a Direction
+   *
+   * @param direction is the first Direction
+   * @return the average final score, NaN if the Direction was not legal
+   */
+  public double getMean(Direction direction) {
+    return this.means[direction.ordinal()];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the half width of the 95% confidence interval of the average final score after a
+   * Direction
+   *
+   * @param direction is the first Direction
+   * @return the half width of the interval, NaN if the Direction was not legal
+   */
+  public double getInterval(Direction direction) {
+    return this.intervals[direction.ordinal()];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return how many random games the last advice played per second
+   *
+   * @return the number of random games per second
+   */
+  public double getRolloutsPerSecond() {
+    return this.rollouts * Integer.bitCount(this.legal) / (this.nanos / 1e9);
+  }
+
+
+
+  /**
+   * To play the random games after every legal Direction and pick the best Direction.
+   * - play all the random games on the pool
+   * - find the average final score and its confidence interval after every Direction
+   * - pick the Direction with the best average
+   *
+   * @param board is the Board to be moved, which is not changed
+   * @return the Direction with the best average final score
+   */
+  @Override
+  public Direction choose(Board board) {
+    this.root = board;
+    // To find the legal Directions before the workers read the Board
+    this.legal = board.legalMoves();
+    long start = System.nanoTime();
+    this.pool.invoke(new Rollouts(0, this.finals.length));
+    this.nanos = System.nanoTime() - start;
+    this.root = null;
+
+    Direction best = null;
+    // To find the average and the confidence interval after every Direction
+    for (Direction direction : DIRECTIONS) {
+      int d = direction.ordinal();
+      if (!direction.isIn(this.legal)) {
+        this.means[d] = Double.NaN;
+        this.intervals[d] = Double.NaN;
+        continue;
+      }
+      double sum = 0;
+      double squares = 0;
+      for (int i = d * this.rollouts; i < (d + 1) * this.rollouts; i++) {
+        sum += this.finals[i];
+        squares += (double) this.finals[i] * this.finals[i];
+      }
+      double mean = sum / this.rollouts;
+      double variance = this.rollouts < 2 ? 0
+              : Math.max(0, (squares - sum * mean) / (this.rollouts - 1));
+      this.means[d] = mean;
+      this.intervals[d] = Z_95 * Math.sqrt(variance / this.rollouts);
+      if (best == null || mean > this.means[best.ordinal()]) {
+        best = direction;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * To play one random game after a first Direction, on the scratch Board of the current thread.
+   *
+   * @param board is the scratch Board, which is overwritten
+   * @param first is the first Direction, which must be legal
+   * @return the final score of the random game
+   */
+  long rollout(Board board, Direction first) {
+    board.copyFrom(this.root);
+    board.move(first);
+    board.spawn();
+
+    // To move randomly until the game is over or long enough
+    for (int count = 1; board.hasLegalMove() && count != this.maxMoves; count++) {
+      board.move(RANDOM.choose(board));
+      board.spawn();
+    }
+    return board.getScore();
+  }
+
+  /**
+   * To get the scratch Board of the current thread, creating it for the first Board seen or a
+   * Board stored differently.
+   *
+   * @return the scratch Board of the current thread
+   */
+  private Board scratchBoard() {
+    Board board = this.scratch.get();
+    if (board == null || board.getGrid() != this.root.getGrid()
+            || board.getMultiplier() != this.root.getMultiplier()
+            || board.isBitBoard() != this.root.isBitBoard()) {
+      board = new Board(this.root);
+      this.scratch.set(board);
+    }
+    return board;
+  }
+
+
+
+  /**
+   * Rollouts represents a range of random games, which is split in half until it is small enough
+   * for one worker to play on its scratch Board.
+   */
+  private class Rollouts extends RecursiveAction {
+    // from: the first random game of the range
+    // to: the random game after the last random game of the range
+    private final int from;
+    private final int to;
+
+    Rollouts(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      // To split the range in half if it is too big
+      if (this.to - this.from > BATCH) {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new Rollouts(this.from, middle), new Rollouts(middle, this.to));
+        return;
+      }
+
+      // To play the random games after the legal Directions on the scratch Board of this worker
+      Board board = scratchBoard();
+      for (int i = this.from; i < this.to; i++) {
+        Direction first = DIRECTIONS[i / rollouts];
+        if (first.isIn(legal)) {
+          finals[i] = rollout(board, first);
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * To advise a move from the command line, on a Board after a few random moves:
+   * java MonteCarlo [rollouts] [grid] [multiplier] [maxMoves] [threads]
+   * - rollouts: the number of random games after every legal Direction, 10000 by default
+   * - grid: the grid size, 4 by default
+   * - multiplier: the multiplier, 2 by default
+   * - maxMoves: the most moves of a random game, 0 to play it to the end, 1000 by default
+   * - threads: the number of workers, all the cores by default
+   *
+   * @param args is the command line arguments
+   */
+  public static void main(String[] args) {
+    int rollouts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+    int grid = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int multiplier = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+    int maxMoves = args.length > 3 ? Integer.parseInt(args[3]) : MAX_MOVES;
+    int threads = args.length > 4 ? Integer.parseInt(args[4])
+            : Runtime.getRuntime().availableProcessors();
+
+    Board board = grid == 4 ? new Board(multiplier) : new Board(multiplier, grid);
+    // To play a few random moves for a position worth advising
+    for (int i = 0; i < 20 && board.hasLegalMove(); i++) {
+      board.move(RANDOM.choose(board));
+      board.spawn();
+    }
+    board.printBoard();
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      MonteCarlo advisor = new MonteCarlo(rollouts, maxMoves, pool);
+      // To warm up before the advice that is reported
+      advisor.choose(board);
+      System.out.println("advice: " + advisor.choose(board) + " (" + threads + " threads)");
+      System.out.println(advisor);
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,314 @@
+/**
+ * MoveAnimation is an immutable snapshot of one move of a Board, made for a renderer on another
+ * thread: the exponents before the move, after the slide and after the spawn, the score, and where
+ * every Tile slid to. The slides are traced from the exponents alone, line by line in the
+ * Direction of the move: every Tile after the slide is either one Tile from before that slid
+ * there, or two Tiles of the exponent below it that merged there. Additionally, it offers several
+ * methods:
+ *
+ * getGrid() - GETTER METHOD: the grid size
+ * getMultiplier() - GETTER METHOD: the multiplier
+ * getScore() - GETTER METHOD: the score after the move
+ * isOver() - GETTER METHOD: if the game is over after the move
+ * getExponent(int) - GETTER METHOD: the exponent of a cell after the spawn
+ * getSlideCount() - GETTER METHOD: the number of Tiles that slid
+ * getFrom(int) - GETTER METHOD: the cell a Tile slid from
+ * getTo(int) - GETTER METHOD: the cell a Tile slid to
+ * getSlideExponent(int) - GETTER METHOD: the exponent of a Tile that slid
+ * isMerged(int) - GETTER METHOD: if a cell holds a merged Tile after the slide
+ * getSpawned() - GETTER METHOD: the cell of the spawned Tile
+ *
+ * still(Board) - create a MoveAnimation of a Board that did not move
+ * trace(Board, byte[], byte[], Direction) - create the MoveAnimation of a move
+ * exponents(Board) - copy the exponents of a Board
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class MoveAnimation {
+  // grid: the grid size
+  // multiplier: the multiplier
+  // score: the score after the move
+  // over: if the game is over after the move
+  // exponents: the exponent of every cell after the spawn
+  // from: the cell every Tile slid from
+  // to: the cell every Tile slid to
+  // slideExponents: the exponent of every Tile that slid
+  // slideCount: the number of Tiles that slid, including those that stayed in place
+  // merged: if every cell holds a merged Tile after the slide
+  // spawned: the cell of the spawned Tile, -1 if there is none
+  private final int grid;
+  private final int multiplier;
+  private final long score;
+  private final boolean over;
+  private final byte[] exponents;
+  private final int[] from;
+  private final int[] to;
+  private final byte[] slideExponents;
+  private int slideCount;
+  private final boolean[] merged;
+  private int spawned = -1;
+
+
+
+  /**
+   * Constructor for a MoveAnimation without any slide with:
+   * grid, multiplier, score, over: those of the Board
+   * exponents: input
+   *
+   * @param board is the Board after the move
+   * @param exponents is the exponents of the Board after the move
+   */
+  private MoveAnimation(Board board, byte[] exponents) {
+    this.grid = board.getGrid();
+    this.multiplier = board.getMultiplier();
+    this.score = board.getScore();
+    this.over = board.isGameOver();
+    this.exponents = exponents;
+    this.from = new int[exponents.length];
+    this.to = new int[exponents.length];
+    this.slideExponents = new byte[exponents.length];
+    this.merged = new boolean[exponents.length];
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the grid size
+   *
+   * @return the grid size
+   */
+  public int getGrid() {
+    return this.grid;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the multiplier
+   *
+   * @return the multiplier
+   */
+  public int getMultiplier() {
+    return this.multiplier;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the score after the move
+   *
+   * @return the score
+   */
+  public long getScore() {
+    return this.score;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if the game is over after the move
+   *
+   * @return if the game is over
+   */
+  public boolean isOver() {
+    return this.over;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the exponent of a cell after the spawn
+   *
+   * @param cell is the cell, as row * grid + column
+   * @return the exponent, 0 if the cell is empty
+   */
+  public int getExponent(int cell) {
+    return this.exponents[cell];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of Tiles that slid, including those that stayed in place
+   *
+   * @return the number of Tiles
+   */
+  public int getSlideCount() {
+    return this.slideCount;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the cell a Tile slid from
+   *
+   * @param slide is the number of the Tile
+   * @return the cell, as row * grid + column
+   */
+  public int getFrom(int slide) {
+    return this.from[slide];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the cell a Tile slid to
+   *
+   * @param slide is the number of the Tile
+   * @return the cell, as row * grid + column
+   */
+  public int getTo(int slide) {
+    return this.to[slide];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the exponent of a Tile that slid
+   *
+   * @param slide is the number of the Tile
+   * @return the exponent before the merge
+   */
+  public int getSlideExponent(int slide) {
+    return this.slideExponents[slide];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if a cell holds a merged Tile after the slide
+   *
+   * @param cell is the cell, as row * grid + column
+   * @return if two Tiles merged there
+   */
+  public boolean isMerged(int cell) {
+    return this.merged[cell];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the cell of the spawned Tile
+   *
+   * @return the cell, as row * grid + column, -1 if no Tile spawned
+   */
+  public int getSpawned() {
+    return this.spawned;
+  }
+
+
+
+  /**
+   * To create a MoveAnimation of a Board that did not move, such as a new game, where every Tile
+   * stays in place.
+   *
+   * @param board is the Board
+   * @return the MoveAnimation
+   */
+  public static MoveAnimation still(Board board) {
+    MoveAnimation animation = new MoveAnimation(board, exponents(board));
+    for (int cell = 0; cell < animation.exponents.length; cell++) {
+      animation.addSlide(cell, cell, animation.exponents[cell]);
+    }
+    return animation;
+  }
+
+  /**
+   * To create the MoveAnimation of a move.
+   * - walk every line in the Direction of the move, before and after the slide at the same time
+   * - a Tile after the slide with the exponent of the next Tile before it slid there alone
+   * - otherwise the next two Tiles before it merged there
+   * - the cell that is empty after the slide but not after the spawn is the spawned Tile
+   *
+   * @param board is the Board after the spawn
+   * @param before is the exponents before the move
+   * @param slid is the exponents after the slide, before the spawn
+   * @param direction is the Direction of the move
+   * @return the MoveAnimation
+   */
+  public static MoveAnimation trace(Board board, byte[] before, byte[] slid,
+                                    Direction direction) {
+    MoveAnimation animation = new MoveAnimation(board, exponents(board));
+    int grid = animation.grid;
+    boolean horizontal = direction == Direction.LEFT || direction == Direction.RIGHT;
+    boolean backward = direction == Direction.RIGHT || direction == Direction.DOWN;
+
+    // To walk every line
+    for (int line = 0; line < grid; line++) {
+      // To find the first cell of the line and the step towards the far side
+      int start = horizontal ? line * grid : line;
+      int step = horizontal ? 1 : grid;
+      if (backward) {
+        start += (grid - 1) * step;
+        step = -step;
+      }
+
+      int read = 0;
+      // To match every Tile after the slide with the Tiles before it
+      for (int write = 0; write < grid; write++) {
+        int target = start + write * step;
+        int exponent = slid[target];
+        if (exponent == 0) {
+          break;
+        }
+        // To find the next Tile before the slide
+        while (read < grid && before[start + read * step] == 0) {
+          read++;
+        }
+        if (read == grid) {
+          break;
+        }
+        int source = start + read * step;
+        read++;
+        animation.addSlide(source, target, before[source]);
+
+        // To find the second Tile of a merge
+        if (before[source] != exponent) {
+          while (read < grid && before[start + read * step] == 0) {
+            read++;
+          }
+          if (read < grid) {
+            int second = start + read * step;
+            read++;
+            animation.addSlide(second, target, before[second]);
+            animation.merged[target] = true;
+          }
+        }
+      }
+    }
+
+    // To find the spawned Tile
+    for (int cell = 0; cell < slid.length; cell++) {
+      if (slid[cell] == 0 && animation.exponents[cell] != 0) {
+        animation.spawned = cell;
+      }
+    }
+    return animation;
+  }
+
+  /**
+   * To copy the exponents of a Board, row by row.
+   *
+   * @param board is the Board
+   * @return the exponent of every cell
+   */
+  public static byte[] exponents(Board board) {
+    int grid = board.getGrid();
+    byte[] exponents = new byte[grid * grid];
+    for (int i = 0; i < grid; i++) {
+      for (int j = 0; j < grid; j++) {
+        exponents[i * grid + j] = (byte) board.getExponent(i, j);
+      }
+    }
+    return exponents;
+  }
+
+  /**
+   * To add a Tile that slid, or stayed in place.
+   *
+   * @param source is the cell it slid from
+   * @param target is the cell it slid to
+   * @param exponent is its exponent
+   */
+  private void addSlide(int source, int target, int exponent) {
+    if (exponent == 0) {
+      return;
+    }
+    this.from[this.slideCount] = source;
+    this.to[this.slideCount] = target;
+    this.slideExponents[this.slideCount] = (byte) exponent;
+    this.slideCount++;
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * MoveResult represents what happened during a move of a Board, including if any Tile moved, how
+ * many merges happened and the score gained. Every Board owns a single MoveResult that is
+ * overwritten by each move, so a move does not allocate anything; copy the values out if they are
+ * needed after the next move. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the string representation of the MoveResult
+ * isMoved() - GETTER METHOD: if any Tile moved or merged
+ * getMerges() - GETTER METHOD: the number of merges
+ * getScoreGained() - GETTER METHOD: the score gained
+ *
+ * reset() - clear the MoveResult before a move
+ * add(boolean, int, long) - add the result of one line or one part of the move
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class MoveResult {
+  // moved: if any Tile moved or merged
+  // merges: the number of merges
+  // scoreGained: the score gained
+  private boolean moved;
+  private int merges;
+  private long scoreGained;
+
+
+
+  /**
+   * Constructor for an empty MoveResult with:
+   * moved: false
+   * merges: 0
+   * scoreGained: 0
+   */
+  public MoveResult() {
+    this.reset();
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the string representation of the MoveResult.
+   *
+   * @return the string representation of the MoveResult
+   */
+  @Override
+  public String toString() {
+    return "moved: " + this.moved + ", merges: " + this.merges + ", score: " + this.scoreGained;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if any Tile moved or merged
+   *
+   * @return if the move changed the Board
+   */
+  public boolean isMoved() {
+    return this.moved;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of merges
+   *
+   * @return the number of merges
+   */
+  public int getMerges() {
+    return this.merges;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the score gained
+   *
+   * @return the score gained
+   */
+  public long getScoreGained() {
+    return this.scoreGained;
+  }
+
+
+
+  /**
+   * To clear the MoveResult before a move.
+   */
+  void reset() {
+    this.moved = false;
+    this.merges = 0;
+    this.scoreGained = 0;
+  }
+
+  /**
+   * To add the result of one line or one part of the move.
+   *
+   * @param moved is if anything moved
+   * @param merges is the number of merges
+   * @param scoreGained is the score gained
+   */
+  void add(boolean moved, int merges, long scoreGained) {
+    this.moved |= moved;
+    this.merges += merges;
+    this.scoreGained += scoreGained;
+  }
+}
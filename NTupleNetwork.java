@@ -0,0 +1,250 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * NTupleNetwork estimates the value of a 4x4 Board with an n-tuple network. Every tuple is a group
+ * of 4 cells whose exponents (capped at 15) pack into a 16-bit index, and the value of the Board is
+ * the sum of the weights at the indexes of every tuple. Every base tuple is also read in its 8
+ * rotations and reflections, which share one table of weights, so the network learns the same
+ * thing wherever a pattern is on the Board. All the tables live in one flat float[], and the Board
+ * is packed into a long of nibbles first, so evaluating and updating allocate nothing. The weights
+ * are read and written by many training threads without locks; a lost update only costs a little
+ * learning. Additionally, it offers several methods:
+ *
+ * getWeights() - GETTER METHOD: the flat weights of all the tables
+ * getTupleCount() - GETTER METHOD: the number of tuples, with their rotations and reflections
+ *
+ * pack(Board) - pack the exponents of a 4x4 Board into a long
+ * value(long) - find the value of a packed Board
+ * update(long, float) - add to the weights of a packed Board
+ * policy() - create a Policy that picks the move with the best reward plus value
+ * save(String) - write the weights to a binary checkpoint
+ * load(String) - read the weights from a binary checkpoint
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class NTupleNetwork {
+  // MAGIC: the first int of a checkpoint, "NTUP"
+  // TABLE_SIZE: the number of weights of a table, one for every 4 nibbles
+  // BASE_TUPLES: the cells of every base tuple, as row * 4 + col (an outer line, an inner line,
+  // and a square in the corner, on the edge and in the center)
+  // DIRECTIONS: every Direction, without copying values() for every move
+  static final int MAGIC = 0x4E545550;
+  static final int TABLE_SIZE = 1 << 16;
+  static final int[][] BASE_TUPLES = {
+    {0, 1, 2, 3},
+    {4, 5, 6, 7},
+    {0, 1, 4, 5},
+    {1, 2, 5, 6},
+    {5, 6, 9, 10}
+  };
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // weights: the tables of every base tuple, one after another
+  // shifts: the bit shift of every cell of every tuple in a packed Board, 4 per tuple
+  // offsets: the start of the table of every tuple in the weights
+  private final float[] weights;
+  private final int[] shifts;
+  private final int[] offsets;
+
+
+
+  /**
+   * Constructor for a NTupleNetwork with:
+   * weights: all 0
+   * tuples: every base tuple in its 8 rotations and reflections
+   */
+  public NTupleNetwork() {
+    this.weights = new float[BASE_TUPLES.length * TABLE_SIZE];
+    this.shifts = new int[BASE_TUPLES.length * 8 * 4];
+    this.offsets = new int[BASE_TUPLES.length * 8];
+
+    // To place every base tuple in every rotation and reflection
+    int tuple = 0;
+    for (int base = 0; base < BASE_TUPLES.length; base++) {
+      for (int symmetry = 0; symmetry < 8; symmetry++) {
+        for (int k = 0; k < 4; k++) {
+          int row = BASE_TUPLES[base][k] / 4;
+          int col = BASE_TUPLES[base][k] % 4;
+          // To reflect the cell across the diagonal for the second half of the symmetries
+          if (symmetry >= 4) {
+            int swap = row;
+            row = col;
+            col = swap;
+          }
+          // To rotate the cell a quarter turn clockwise once for every symmetry
+          for (int turn = 0; turn < symmetry % 4; turn++) {
+            int swap = row;
+            row = col;
+            col = 3 - swap;
+          }
+          this.shifts[tuple * 4 + k] = 4 * (row * 4 + col);
+        }
+        this.offsets[tuple] = base * TABLE_SIZE;
+        tuple++;
+      }
+    }
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the flat weights of all the tables
+   *
+   * @return the weights, which are shared and not copied
+   */
+  public float[] getWeights() {
+    return this.weights;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of tuples, with their rotations and reflections
+   *
+   * @return the number of tuples
+   */
+  public int getTupleCount() {
+    return this.offsets.length;
+  }
+
+
+
+  /**
+   * To pack the exponents of a 4x4 Board into a long, one nibble per cell, capping the exponents
+   * at 15.
+   *
+   * @param board is a 4x4 Board
+   * @return the packed Board
+   */
+  public static long pack(Board board) {
+    long packed = 0;
+    for (int i = 0; i < 16; i++) {
+      long exponent = Math.min(board.getExponent(i / 4, i % 4), BitBoard.MAX_EXPONENT);
+      packed |= exponent << (4 * i);
+    }
+    return packed;
+  }
+
+  /**
+   * To find the value of a packed Board, the sum of the weights at the index of every tuple.
+   *
+   * @param packed is the packed Board
+   * @return the value
+   */
+  public float value(long packed) {
+    float value = 0;
+    for (int tuple = 0; tuple < this.offsets.length; tuple++) {
+      value += this.weights[this.offsets[tuple] + this.index(packed, tuple)];
+    }
+    return value;
+  }
+
+  /**
+   * To add to the weights at the index of every tuple of a packed Board. The weights are written
+   * without locks, so updates from other threads may be lost.
+   *
+   * @param packed is the packed Board
+   * @param delta is the number to be added to every weight
+   */
+  public void update(long packed, float delta) {
+    for (int tuple = 0; tuple < this.offsets.length; tuple++) {
+      this.weights[this.offsets[tuple] + this.index(packed, tuple)] += delta;
+    }
+  }
+
+  /**
+   * To create a Policy that tries every legal Direction at once with Afterstates and picks the one
+   * with the best score gained plus the value of the Board after it. Every thread should have its
+   * own.
+   *
+   * @return the Policy
+   */
+  public Policy policy() {
+    return new Policy() {
+      // afterstates: the Boards after every Direction, reused for every Board
+      private final Afterstates afterstates = new Afterstates();
+
+      @Override
+      public Direction choose(Board board) {
+        int legal = board.afterstates(this.afterstates);
+
+        Direction best = null;
+        float bestValue = Float.NEGATIVE_INFINITY;
+        // To try every legal Direction
+        for (Direction direction : DIRECTIONS) {
+          if (direction.isIn(legal)) {
+            float value = this.afterstates.getScoreGained(direction)
+                    + value(pack(this.afterstates.getBoard(direction)));
+            if (value > bestValue) {
+              best = direction;
+              bestValue = value;
+            }
+          }
+        }
+        return best;
+      }
+    };
+  }
+
+  /**
+   * To write the weights to a binary checkpoint: the magic number, the number of weights, and
+   * then every weight.
+   *
+   * @param path is the path of the checkpoint
+   * @throws IOException if the checkpoint cannot be written
+   */
+  public void save(String path) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(this.weights.length);
+      for (float weight : this.weights) {
+        out.writeFloat(weight);
+      }
+    }
+  }
+
+  /**
+   * To read the weights from a binary checkpoint written by save().
+   *
+   * @param path is the path of the checkpoint
+   * @return the NTupleNetwork with the weights of the checkpoint
+   * @throws IOException if the checkpoint cannot be read or was not written by save()
+   */
+  public static NTupleNetwork load(String path) throws IOException {
+    NTupleNetwork network = new NTupleNetwork();
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(path)))) {
+      // To check that the checkpoint fits this network
+      if (in.readInt() != MAGIC || in.readInt() != network.weights.length) {
+        throw new IOException("Not an n-tuple checkpoint of this network: " + path);
+      }
+      for (int i = 0; i < network.weights.length; i++) {
+        network.weights[i] = in.readFloat();
+      }
+    }
+    return network;
+  }
+
+  /**
+   * To find the index of a tuple in its table, from the 4 nibbles of its cells.
+   *
+   * @param packed is the packed Board
+   * @param tuple is the number of the tuple
+   * @return the index in the table of the tuple
+   */
+  private int index(long packed, int tuple) {
+    int shift = tuple * 4;
+    return (int) ((packed >>> this.shifts[shift]) & 0xF)
+            | (int) ((packed >>> this.shifts[shift + 1]) & 0xF) << 4
+            | (int) ((packed >>> this.shifts[shift + 2]) & 0xF) << 8
+            | (int) ((packed >>> this.shifts[shift + 3]) & 0xF) << 12;
+  }
+}
@@ -0,0 +1,440 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * OpeningBook holds the best move of every 4x4 position of the first moves of a game, searched
+ * offline by Expectimax, so the start of a game is a lookup instead of a search. Only the
+ * canonical turn of every position is kept (see Symmetry), with the best move on that turn, and
+ * the move is turned back for the Board it is asked for. The book is a file of an open-addressing
+ * table: a header, the canonical packed cells of every slot (0 for an empty slot) and the move of
+ * every slot. The file is mapped into memory and read in place, so opening it costs nothing and
+ * a lookup reads a slot or two. Additionally, it offers several methods:
+ *
+ * getMultiplier() - GETTER METHOD: the multiplier of the positions
+ * getDepth() - GETTER METHOD: the number of moves of a game the book covers
+ * getPositions() - GETTER METHOD: the number of positions in the book
+ * getCapacity() - GETTER METHOD: the number of slots
+ *
+ * lookup(Board) - find the best move of a Board, or null if the book does not have it
+ * close() - close the file
+ * shared() - the book of -Dbook, opened once
+ * positions(int) - list the canonical positions of the first moves of a game
+ * build(Path, int, int, double, ForkJoinPool) - search the positions and write a book
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class OpeningBook implements Closeable {
+  // MAGIC: the first int of a book file, "BOOK"
+  // VERSION: the version of the file format
+  // HEADER: the number of bytes before the keys: MAGIC, VERSION, multiplier, depth, positions
+  // and capacity
+  // PATH: the path of the shared book, from -Dbook
+  // BATCH: the number of positions a worker searches without splitting them further
+  // DIRECTIONS: every Direction by its ordinal, without copying values()
+  static final int MAGIC = 0x424F4F4B;
+  static final int VERSION = 1;
+  static final int HEADER = 24;
+  static final String PATH = System.getProperty("book", "opening.book");
+  static final int BATCH = 16;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // shared: the book of PATH, null until it is first asked for
+  private static OpeningBook shared;
+
+  // channel: the book file
+  // file: the whole file, mapped into memory
+  // multiplier: the multiplier of the positions
+  // depth: the number of moves of a game the book covers
+  // positions: the number of positions in the book
+  // mask: the capacity minus one, to find the home slot of a key
+  // moves: where the moves start in the file
+  private final FileChannel channel;
+  private final MappedByteBuffer file;
+  private final int multiplier;
+  private final int depth;
+  private final int positions;
+  private final int mask;
+  private final int moves;
+
+
+
+  /**
+   * Constructor for an OpeningBook with:
+   * file: the file of the path, mapped into memory
+   * multiplier, depth, positions and capacity: read from the header
+   *
+   * @param path is the path of the book file
+   * @throws IOException if the file cannot be read or is not a book of this version
+   */
+  public OpeningBook(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    long size = this.channel.size();
+    if (size < HEADER || size > Integer.MAX_VALUE) {
+      this.channel.close();
+      throw new IOException("Not a book of this version: " + path);
+    }
+    this.file = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+    // To check the header and that the table fits the file
+    int capacity = this.file.getInt(20);
+    if (this.file.getInt(0) != MAGIC || this.file.getInt(4) != VERSION
+            || Integer.bitCount(capacity) != 1 || HEADER + 9L * capacity != size) {
+      this.channel.close();
+      throw new IOException("Not a book of this version: " + path);
+    }
+    this.multiplier = this.file.getInt(8);
+    this.depth = this.file.getInt(12);
+    this.positions = this.file.getInt(16);
+    this.mask = capacity - 1;
+    this.moves = HEADER + 8 * capacity;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the multiplier of the positions
+   *
+   * @return the multiplier
+   */
+  public int getMultiplier() {
+    return this.multiplier;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of moves of a game the book covers
+   *
+   * @return the depth
+   */
+  public int getDepth() {
+    return this.depth;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of positions in the book
+   *
+   * @return the number of positions
+   */
+  public int getPositions() {
+    return this.positions;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of slots
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return this.mask + 1;
+  }
+
+
+
+  /**
+   * To find the best move of a Board in the book.
+   * - pack the Board and find the turn of its canonical position
+   * - look for the canonical position from its home slot until an empty slot
+   * - turn the move of the canonical position back for the Board
+   *
+   * @param board is the Board
+   * @return the best Direction, or null if the Board is not a 4x4 Board of the multiplier of the
+   * book or its position is not in the book
+   */
+  public Direction lookup(Board board) {
+    if (board.getGrid() != 4 || board.getMultiplier() != this.multiplier) {
+      return null;
+    }
+    long packed = board.isBitBoard() ? board.getKey() : NTupleNetwork.pack(board);
+    Symmetry symmetry = Symmetry.canonical(packed);
+    long key = symmetry.apply(packed);
+
+    // To probe the slots from the home slot of the key
+    for (int slot = home(key) & this.mask; ; slot = (slot + 1) & this.mask) {
+      long found = this.file.getLong(HEADER + 8 * slot);
+      if (found == 0) {
+        return null;
+      }
+      if (found == key) {
+        Direction move = DIRECTIONS[this.file.get(this.moves + slot)];
+        return symmetry.inverse().apply(move);
+      }
+    }
+  }
+
+  /**
+   * To close the file.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * To get the book of PATH, opened the first time it is asked for and shared by every thread
+   * after that.
+   *
+   * @return the shared book
+   * @throws UncheckedIOException if the book cannot be opened
+   */
+  static synchronized OpeningBook shared() {
+    if (shared == null) {
+      try {
+        shared = new OpeningBook(Paths.get(PATH));
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException("Cannot open the opening book " + PATH
+                + ", build it with java OpeningBook", e);
+      }
+    }
+    return shared;
+  }
+
+  /**
+   * To list the canonical positions of the first moves of a game.
+   * - start from every pair of spawned Tiles
+   * - for every position, try every legal Direction and every spawn after it
+   * - keep the canonical turn of every new position once, level by level
+   * - keep only the positions that still have a legal move
+   *
+   * @param depth is the number of moves, 1 for only the first positions
+   * @return the sorted canonical packed cells of every position
+   */
+  static long[] positions(int depth) {
+    // To place the two first Tiles in every pair of cells
+    long[] level = new long[120];
+    int count = 0;
+    for (int i = 0; i < 16; i++) {
+      for (int j = i + 1; j < 16; j++) {
+        level[count++] = Symmetry.canonicalKey((1L << (4 * i)) | (1L << (4 * j)));
+      }
+    }
+    level = unique(level, count);
+
+    long[] found = new long[0];
+    BitBoard bits = new BitBoard(2);
+    long[] afterstates = new long[Direction.values().length];
+    MoveResult[] results = new MoveResult[Direction.values().length];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = new MoveResult();
+    }
+    // To go one move deeper at a time
+    for (int move = 0; move < depth; move++) {
+      long[] next = new long[level.length * 4 * 16];
+      int nextCount = 0;
+      int kept = 0;
+      for (long position : level) {
+        bits.setBits(position);
+        int legal = bits.afterstates(afterstates, results);
+        if (legal == 0) {
+          continue;
+        }
+        level[kept++] = position;
+        // To spawn in every empty cell after every legal Direction
+        for (Direction direction : Direction.values()) {
+          if (move + 1 < depth && direction.isIn(legal)) {
+            long after = afterstates[direction.ordinal()];
+            for (int cell = 0; cell < 16; cell++) {
+              if (((after >>> (4 * cell)) & 0xF) == 0) {
+                next[nextCount++] = Symmetry.canonicalKey(after | (1L << (4 * cell)));
+              }
+            }
+          }
+        }
+      }
+
+      // To keep the positions of this level, and find the new ones of the next
+      long[] merged = Arrays.copyOf(found, found.length + kept);
+      System.arraycopy(level, 0, merged, found.length, kept);
+      found = unique(merged, merged.length);
+      level = unique(next, nextCount);
+    }
+    return found;
+  }
+
+  /**
+   * To search every position with Expectimax on a pool, and write the book.
+   *
+   * @param path is the path of the book file
+   * @param multiplier is the multiplier of the positions
+   * @param depth is the number of moves of a game to cover
+   * @param budgetMillis is the time budget of the search of every position, in milliseconds
+   * @param pool is the pool the positions are split across
+   * @return the number of positions
+   * @throws IOException if the book cannot be written
+   */
+  static int build(Path path, int multiplier, int depth, double budgetMillis, ForkJoinPool pool)
+          throws IOException {
+    long[] positions = positions(depth);
+    byte[] best = new byte[positions.length];
+    pool.invoke(new Searches(positions, best, multiplier, budgetMillis, 0, positions.length));
+
+    // To place every position from its home slot, in a table at most half full
+    int capacity = Integer.highestOneBit(Math.max(1, 2 * positions.length - 1)) << 1;
+    long[] keys = new long[capacity];
+    byte[] moves = new byte[capacity];
+    for (int i = 0; i < positions.length; i++) {
+      int slot = home(positions[i]) & (capacity - 1);
+      while (keys[slot] != 0) {
+        slot = (slot + 1) & (capacity - 1);
+      }
+      keys[slot] = positions[i];
+      moves[slot] = best[i];
+    }
+
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(path.toFile())))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(multiplier);
+      out.writeInt(depth);
+      out.writeInt(positions.length);
+      out.writeInt(capacity);
+      for (long key : keys) {
+        out.writeLong(key);
+      }
+      out.write(moves);
+    }
+    return positions.length;
+  }
+
+  /**
+   * To sort some packed cells and remove the repeated ones.
+   *
+   * @param keys is the packed cells
+   * @param count is the number of packed cells to keep from the start
+   * @return the sorted packed cells, each once
+   */
+  private static long[] unique(long[] keys, int count) {
+    Arrays.sort(keys, 0, count);
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if (kept == 0 || keys[i] != keys[kept - 1]) {
+        keys[kept++] = keys[i];
+      }
+    }
+    return Arrays.copyOf(keys, kept);
+  }
+
+  /**
+   * To mix the bits of a key, so keys that differ in a few bits land far apart.
+   *
+   * @param key is the canonical packed cells
+   * @return the mixed key
+   */
+  private static int home(long key) {
+    key ^= key >>> 33;
+    key *= 0xFF51AFD7ED558CCDL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+
+
+  /**
+   * Searches represents a range of positions, which is split in half until it is small enough
+   * for one worker to search with its own Expectimax.
+   */
+  private static class Searches extends RecursiveAction {
+    // positions: the canonical packed cells of every position
+    // best: the ordinal of the best Direction of every position, filled by the search
+    // multiplier: the multiplier of the positions
+    // budgetMillis: the time budget of every search
+    // from: the first position of the range
+    // to: the position after the last position of the range
+    private final long[] positions;
+    private final byte[] best;
+    private final int multiplier;
+    private final double budgetMillis;
+    private final int from;
+    private final int to;
+
+    Searches(long[] positions, byte[] best, int multiplier, double budgetMillis, int from,
+             int to) {
+      this.positions = positions;
+      this.best = best;
+      this.multiplier = multiplier;
+      this.budgetMillis = budgetMillis;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      // To split the range in half if it is too big
+      if (this.to - this.from > BATCH) {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new Searches(this.positions, this.best, this.multiplier, this.budgetMillis,
+                        this.from, middle),
+                new Searches(this.positions, this.best, this.multiplier, this.budgetMillis,
+                        middle, this.to));
+        return;
+      }
+
+      // To search the positions with an Expectimax and a Board of this worker
+      Expectimax expectimax = new Expectimax(this.budgetMillis);
+      Board board = new Board(this.multiplier);
+      for (int i = this.from; i < this.to; i++) {
+        board.unpackBits(this.positions[i], 0);
+        this.best[i] = (byte) expectimax.choose(board).ordinal();
+      }
+    }
+  }
+
+
+
+  /**
+   * To build a book from the command line:
+   * java OpeningBook [book] [depth] [budget] [multiplier] [threads]
+   * - book: the path of the book file, opening.book by default
+   * - depth: the number of moves of a game to cover, 8 by default
+   * - budget: the milliseconds of the search of every position, 10 by default
+   * - multiplier: the multiplier, 2 by default
+   * - threads: the number of workers, all the cores by default
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the book cannot be written or read back
+   */
+  public static void main(String[] args) throws IOException {
+    Path path = Paths.get(args.length > 0 ? args[0] : "opening.book");
+    int depth = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    double budget = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+    int multiplier = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+    int threads = args.length > 4 ? Integer.parseInt(args[4])
+            : Runtime.getRuntime().availableProcessors();
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      long start = System.nanoTime();
+      int positions = build(path, multiplier, depth, budget, pool);
+      System.out.printf("%d positions of the first %d moves in %.1f s%n", positions, depth,
+              (System.nanoTime() - start) / 1e9);
+    }
+    finally {
+      pool.shutdown();
+    }
+    try (OpeningBook book = new OpeningBook(path)) {
+      System.out.println(book.getPositions() + " positions in " + book.getCapacity()
+              + " slots, " + (HEADER + 9L * book.getCapacity()) + " bytes: " + path);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Policy represents a way of picking the next move of a Board without a player, which is what the
+ * Simulator plays games with. A Policy may keep scratch space between moves, so every thread
+ * should have its own Policy. Additionally, it offers several methods:
+ *
+ * choose(Board) - pick the next Direction for a Board that still has a legal move
+ *
+ * random() - create a Policy that picks any legal Direction
+ * greedy() - create a Policy that picks the Direction with the best score gained
+ * corner() - create a Policy that keeps the Tiles in the bottom-left corner
+ * expectimax(double) - create a Policy that searches within a time budget per move
+ * monteCarlo(int) - create a Policy that plays random games after every Direction
+ * book(OpeningBook, Policy) - create a Policy that plays from an OpeningBook, then another Policy
+ * named(String) - create a Policy from its name
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public interface Policy {
+  // CORNER_ORDER: the Directions that keep the Tiles in the bottom-left corner, best first
+  Direction[] CORNER_ORDER = {Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.UP};
+
+
+
+  /**
+   * To pick the next Direction for a Board that still has a legal move.
+   *
+   * @param board is the Board to be moved, which must not be changed
+   * @return a legal Direction
+   */
+  Direction choose(Board board);
+
+
+
+  /**
+   * To create a Policy that picks any legal Direction, with the same chance for each.
+   *
+   * @return the random Policy
+   */
+  static Policy random() {
+    // To copy values() once for the Policy, not once for every move
+    Direction[] directions = Direction.values();
+    return board -> {
+      int legal = board.legalMoves();
+      // To pick the k-th set bit of the legal mask
+      for (int k = ThreadLocalRandom.current().nextInt(Integer.bitCount(legal)); k > 0; k--) {
+        legal &= legal - 1;
+      }
+      return directions[Integer.numberOfTrailingZeros(legal)];
+    };
+  }
+
+  /**
+   * To create a Policy that tries every legal Direction at once with Afterstates and picks the one
+   * with the best score gained, breaking ties with the bottom-left corner order.
+   *
+   * @return the greedy Policy
+   */
+  static Policy greedy() {
+    return new Policy() {
+      // afterstates: the Boards after every Direction, reused for every Board
+      private final Afterstates afterstates = new Afterstates();
+
+      @Override
+      public Direction choose(Board board) {
+        int legal = board.afterstates(this.afterstates);
+
+        Direction best = null;
+        long bestScore = -1;
+        // To try every legal Direction
+        for (Direction direction : CORNER_ORDER) {
+          if (direction.isIn(legal)) {
+            long score = this.afterstates.getScoreGained(direction);
+            if (score > bestScore) {
+              best = direction;
+              bestScore = score;
+            }
+          }
+        }
+        return best;
+      }
+    };
+  }
+
+  /**
+   * To create a Policy that keeps the Tiles in the bottom-left corner, by picking the first legal
+   * Direction in the order down, left, right, up.
+   *
+   * @return the corner Policy
+   */
+  static Policy corner() {
+    return board -> {
+      for (Direction direction : CORNER_ORDER) {
+        if (board.canMove(direction)) {
+          return direction;
+        }
+      }
+      return null;
+    };
+  }
+
+  /**
+   * To create a Policy that searches the moves and spawns with Expectimax, within a time budget
+   * per move.
+   *
+   * @param budgetMillis is the time budget of a move, in milliseconds
+   * @return the Expectimax Policy
+   */
+  static Policy expectimax(double budgetMillis) {
+    return new Expectimax(budgetMillis);
+  }
+
+  /**
+   * To create a Policy that plays random games of at most 1000 moves after every legal Direction,
+   * on the common fork/join pool, and picks the Direction with the best average final score.
+   *
+   * @param rollouts is the number of random games after every legal Direction
+   * @return the MonteCarlo Policy
+   */
+  static Policy monteCarlo(int rollouts) {
+    return new MonteCarlo(rollouts, MonteCarlo.MAX_MOVES, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * To create a Policy that plays the move of an OpeningBook while the Board is in it, and asks
+   * another Policy once it is not.
+   *
+   * @param book is the OpeningBook
+   * @param fallback is the Policy of the Boards that are not in the book
+   * @return the book Policy
+   */
+  static Policy book(OpeningBook book, Policy fallback) {
+    return board -> {
+      Direction direction = book.lookup(board);
+      return direction != null ? direction : fallback.choose(board);
+    };
+  }
+
+  /**
+   * To create a Policy from its name.
+   *
+   * @param name is random, greedy, corner, expectimax (10 ms per move), montecarlo (100 random
+   * games per Direction) or book (the OpeningBook of -Dbook, then expectimax)
+   * @return the new Policy
+   */
+  static Policy named(String name) {
+    switch (name) {
+      case "random":
+        return random();
+      case "greedy":
+        return greedy();
+      case "corner":
+        return corner();
+      case "expectimax":
+        return expectimax(10);
+      case "montecarlo":
+        return monteCarlo(100);
+      case "book":
+        return book(OpeningBook.shared(), expectimax(10));
+      default:
+        throw new IllegalArgumentException("Unknown policy: " + name);
+    }
+  }
+}
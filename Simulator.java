@@ -0,0 +1,359 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Simulator plays many games of Board to completion without a window, picking every move with a
+ * Policy. The games are split across all the cores with a fork/join pool, every worker plays its
+ * games with its own Policy, and the results of every game go into their own slot of flat arrays,
+ * so the workers never share anything while they play. The games can also be recorded into a
+ * JournalWriter, with the spawns of every game drawn from its own seed, so every game can be
+ * replayed and audited later. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the report of the simulation
+ * getGames() - GETTER METHOD: the number of games played
+ * getScore(int) - GETTER METHOD: the final score of a game
+ * getMaxExponent(int) - GETTER METHOD: the exponent of the biggest Tile of a game
+ * getMoves(int) - GETTER METHOD: the number of moves of a game
+ *
+ * record(JournalWriter, long) - record every game into a journal
+ * run(ForkJoinPool) - play all the games
+ * play(int, Policy, Journal) - play one game to completion
+ * percentile(long[], double) - find a percentile of sorted numbers
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class Simulator {
+  // BATCH: the number of games a worker plays without splitting them further
+  static final int BATCH = 16;
+
+  // multiplier: the multiplier of every game
+  // grid: the grid size of every game
+  // workers: the Policy of every worker thread, kept across all its batches of games
+  // recorders: the Journal of every worker thread, kept across all its batches of games
+  // scores: the final score of every game
+  // maxExponents: the exponent of the biggest Tile of every game
+  // moves: the number of moves of every game
+  // nanos: how long all the games took
+  // journal: the journal every game is recorded into, null to record nothing
+  // seed: the seed of the spawns of the first game, the next games counting up from it
+  private final int multiplier;
+  private final int grid;
+  private final ThreadLocal<Policy> workers;
+  private final ThreadLocal<Journal> recorders;
+  private final long[] scores;
+  private final byte[] maxExponents;
+  private final long[] moves;
+  private long nanos;
+  private JournalWriter journal;
+  private long seed;
+
+
+
+  /**
+   * Constructor for a simulation with:
+   * games: input
+   * multiplier: input
+   * grid: input (4 is played on a BitBoard)
+   * policy: input
+   *
+   * @param games is the number of games to be played
+   * @param multiplier is the multiplier of every game
+   * @param grid is the grid size of every game
+   * @param policy creates the Policy of every worker
+   */
+  public Simulator(int games, int multiplier, int grid, Supplier<Policy> policy) {
+    this.multiplier = multiplier;
+    this.grid = grid;
+    this.workers = ThreadLocal.withInitial(policy);
+    this.recorders = ThreadLocal.withInitial(() -> new Journal(Journal.INTERVAL));
+    this.scores = new long[games];
+    this.maxExponents = new byte[games];
+    this.moves = new long[games];
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the report of the simulation, with the throughput and the distributions of the scores,
+   * the moves and the biggest Tiles.
+   *
+   * @return the report of the simulation
+   */
+  @Override
+  public String toString() {
+    int games = this.getGames();
+    long[] sortedScores = this.scores.clone();
+    long[] sortedMoves = this.moves.clone();
+    Arrays.sort(sortedScores);
+    Arrays.sort(sortedMoves);
+    long totalMoves = 0;
+    for (long count : this.moves) {
+      totalMoves += count;
+    }
+    double seconds = this.nanos / 1e9;
+
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("games: %d in %.3f s (%.1f games/s, %.0f moves/s)%n",
+            games, seconds, games / seconds, totalMoves / seconds));
+    report.append(String.format("score: mean %.1f, p50 %d, p90 %d, p99 %d, max %d%n",
+            Arrays.stream(sortedScores).average().orElse(0), percentile(sortedScores, 50),
+            percentile(sortedScores, 90), percentile(sortedScores, 99),
+            percentile(sortedScores, 100)));
+    report.append(String.format("moves: mean %.1f, p50 %d, p90 %d, p99 %d, max %d%n",
+            (double) totalMoves / games, percentile(sortedMoves, 50), percentile(sortedMoves, 90),
+            percentile(sortedMoves, 99), percentile(sortedMoves, 100)));
+
+    // To count the games reaching every biggest Tile
+    int[] counts = new int[Byte.MAX_VALUE + 1];
+    for (byte exponent : this.maxExponents) {
+      counts[exponent]++;
+    }
+    report.append("max tile:");
+    long value = 1;
+    for (int exponent = 1; exponent < counts.length && value > 0; exponent++) {
+      value *= this.multiplier;
+      if (counts[exponent] != 0) {
+        report.append(String.format(" %d: %.2f%%", value, 100.0 * counts[exponent] / games));
+      }
+    }
+    return report.toString();
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of games
+   *
+   * @return the number of games
+   */
+  public int getGames() {
+    return this.scores.length;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the final score of a game
+   *
+   * @param game is the number of the game
+   * @return the final score
+   */
+  public long getScore(int game) {
+    return this.scores[game];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the exponent of the biggest Tile of a game
+   *
+   * @param game is the number of the game
+   * @return the exponent of the biggest Tile
+   */
+  public int getMaxExponent(int game) {
+    return this.maxExponents[game];
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of moves of a game
+   *
+   * @param game is the number of the game
+   * @return the number of moves
+   */
+  public long getMoves(int game) {
+    return this.moves[game];
+  }
+
+
+
+  /**
+   * To record every game into a journal, with the spawns of game i drawn from the seed + i.
+   *
+   * @param journal is the JournalWriter shared by all the workers
+   * @param seed is the seed of the first game
+   * @return this Simulator, to run
+   */
+  public Simulator record(JournalWriter journal, long seed) {
+    this.journal = journal;
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * To play all the games on a fork/join pool.
+   *
+   * @param pool is the pool the games are split across
+   * @return this Simulator, to read the results from
+   */
+  public Simulator run(ForkJoinPool pool) {
+    long start = System.nanoTime();
+    pool.invoke(new Games(0, this.getGames()));
+    this.nanos = System.nanoTime() - start;
+    return this;
+  }
+
+  /**
+   * To play one game to completion.
+   * - create a new Board, with seeded spawns if the game is recorded
+   * - let the Policy pick a move until no move is legal
+   * - record the score, the biggest Tile and the number of moves
+   * - append the game to the journal if there is one
+   *
+   * @param game is the number of the game
+   * @param policy is the Policy of the worker
+   * @param recorder is the Journal of the worker, or null if the games are not recorded
+   */
+  void play(int game, Policy policy, Journal recorder) {
+    Board board;
+    if (recorder != null) {
+      board = new Board(this.multiplier, this.grid, this.seed + game);
+      recorder.start(board, this.seed + game);
+    }
+    else {
+      board = this.grid == 4 ? new Board(this.multiplier)
+              : new Board(this.multiplier, this.grid);
+    }
+    long count = 0;
+
+    // To move until the game is over
+    while (board.hasLegalMove()) {
+      Direction direction = policy.choose(board);
+      board.move(direction);
+      int cell = board.spawn();
+      if (recorder != null) {
+        recorder.record(board, direction, cell);
+      }
+      count++;
+    }
+
+    // To find the biggest Tile
+    int max = 0;
+    for (int i = 0; i < this.grid; i++) {
+      for (int j = 0; j < this.grid; j++) {
+        max = Math.max(max, board.getExponent(i, j));
+      }
+    }
+
+    this.scores[game] = board.getScore();
+    this.maxExponents[game] = (byte) max;
+    this.moves[game] = count;
+
+    // To append the game to the journal
+    if (recorder != null) {
+      try {
+        this.journal.append(recorder);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * To find a percentile of sorted numbers, with the nearest-rank method.
+   *
+   * @param sorted is the sorted numbers
+   * @param percent is the percentile, between 0 and 100
+   * @return the number at the percentile
+   */
+  static long percentile(long[] sorted, double percent) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percent / 100 * sorted.length);
+    return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+  }
+
+
+
+  /**
+   * Games represents a range of games, which is split in half until it is small enough for one
+   * worker to play with its own Policy.
+   */
+  private class Games extends RecursiveAction {
+    // from: the first game of the range
+    // to: the game after the last game of the range
+    private final int from;
+    private final int to;
+
+    Games(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      // To split the range in half if it is too big
+      if (this.to - this.from > BATCH) {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new Games(this.from, middle), new Games(middle, this.to));
+        return;
+      }
+
+      // To play the games with the Policy and the Journal of this worker thread, so a Policy with
+      // a big table such as an Expectimax is built once per thread instead of once per batch
+      Policy worker = workers.get();
+      Journal recorder = journal == null ? null : recorders.get();
+      for (int game = this.from; game < this.to; game++) {
+        play(game, worker, recorder);
+      }
+    }
+  }
+
+
+
+  /**
+   * To run a simulation from the command line:
+   * java Simulator [games] [policy] [grid] [multiplier] [threads] [journal] [seed]
+   * - games: the number of games, 10000 by default
+   * - policy: random, greedy, corner, expectimax, montecarlo or book, random by default
+   * - grid: the grid size, 4 by default
+   * - multiplier: the multiplier, 2 by default
+   * - threads: the number of workers, all the cores by default
+   * - journal: the path of a journal file to append every game to, none by default
+   * - seed: the seed of the first recorded game, a random one by default
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the journal cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+    String policy = args.length > 1 ? args[1] : "random";
+    int grid = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+    int multiplier = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+    int threads = args.length > 4 ? Integer.parseInt(args[4])
+            : Runtime.getRuntime().availableProcessors();
+    String path = args.length > 5 ? args[5] : null;
+    long seed = args.length > 6 ? Long.parseLong(args[6]) : ThreadLocalRandom.current().nextLong();
+
+    // To check the policy name before starting
+    Policy.named(policy);
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    JournalWriter journal = path == null ? null : new JournalWriter(Paths.get(path));
+    try {
+      Simulator simulator = new Simulator(games, multiplier, grid, () -> Policy.named(policy));
+      System.out.println(policy + " policy, " + grid + "x" + grid + " grid, multiplier "
+              + multiplier + ", " + threads + " threads");
+      if (journal != null) {
+        simulator.record(journal, seed);
+        System.out.println("recording to " + path + " from seed " + seed);
+      }
+      System.out.print(simulator.run(pool));
+      System.out.println();
+    }
+    finally {
+      pool.shutdown();
+      if (journal != null) {
+        journal.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * SpriteCache keeps a pre-rendered image of every Tile of one multiplier at one Tile size, so
+ * painting a Tile is a single image copy instead of a rounded rectangle, a font lookup and a
+ * string layout. A sprite is rendered the first time its Tile is painted, and a Game creates a new
+ * SpriteCache whenever its multiplier or Tile size changes. Additionally, it offers several
+ * methods:
+ *
+ * getMultiplier() - GETTER METHOD: the multiplier of the sprites
+ * getSize() - GETTER METHOD: the Tile size of the sprites
+ * matches(int, int) - GETTER METHOD: if the sprites fit a multiplier and a Tile size
+ *
+ * get(Tile) - get the sprite of a Tile, rendering it the first time
+ * render(Tile) - render the sprite of a Tile
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class SpriteCache {
+  // FONT: the font of the value of every Tile
+  static final Font FONT = new Font("Arial", Font.BOLD, 25);
+
+  // multiplier: the multiplier of the sprites
+  // size: the width and height of every sprite
+  // sprites: the sprite of every exponent, null until it is painted
+  private final int multiplier;
+  private final int size;
+  private final BufferedImage[] sprites;
+
+
+
+  /**
+   * Constructor for an empty SpriteCache with:
+   * multiplier: input
+   * size: input
+   *
+   * @param multiplier is the multiplier of the Tiles
+   * @param size is the width and height of a Tile, in pixels
+   */
+  public SpriteCache(int multiplier, int size) {
+    this.multiplier = multiplier;
+    this.size = size;
+    this.sprites = new BufferedImage[Tile.forMultiplier(multiplier).length];
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the multiplier of the sprites
+   *
+   * @return the multiplier
+   */
+  public int getMultiplier() {
+    return this.multiplier;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the width and height of every sprite
+   *
+   * @return the Tile size, in pixels
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return if the sprites fit a multiplier and a Tile size
+   *
+   * @param multiplier is the multiplier
+   * @param size is the Tile size
+   * @return if the sprites can be reused
+   */
+  public boolean matches(int multiplier, int size) {
+    return this.multiplier == multiplier && this.size == size;
+  }
+
+
+
+  /**
+   * To get the sprite of a Tile of the multiplier, rendering it the first time.
+   *
+   * @param tile is the Tile
+   * @return the sprite of the Tile
+   */
+  public BufferedImage get(Tile tile) {
+    BufferedImage sprite = this.sprites[tile.getExponent()];
+    if (sprite == null) {
+      sprite = this.render(tile);
+      this.sprites[tile.getExponent()] = sprite;
+    }
+    return sprite;
+  }
+
+  /**
+   * To render the sprite of a Tile.
+   * - draw the background as a rounded rectangle, leaving the corners transparent
+   * - draw the value in the center
+   *
+   * @param tile is the Tile
+   * @return the new sprite
+   */
+  BufferedImage render(Tile tile) {
+    BufferedImage sprite = new BufferedImage(this.size, this.size, BufferedImage.TYPE_INT_ARGB);
+    Graphics g = sprite.getGraphics();
+
+    // Draw Tile's background
+    g.setColor(tile.getBackgroundColor());
+    g.fillRoundRect(0, 0, this.size, this.size, 10, 10);
+    // Draw value
+    String value = tile.toString();
+    g.setFont(FONT);
+    FontMetrics fm = g.getFontMetrics();
+    g.setColor(tile.getTextColor());
+    g.drawString(value,
+            (this.size / 2) - (fm.stringWidth(value) / 2),
+            (this.size / 2) - (fm.getHeight() / 2) + fm.getAscent());
+    g.dispose();
+    return sprite;
+  }
+}
@@ -0,0 +1,327 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * SwarSlide slides and merges one contiguous line of exponents 8 cells at a time, as SIMD within a
+ * register: 8 cells are read as one long, and a few additions and masks find which of them are
+ * empty, which can grow and which are equal to the next one, without a branch for every cell.
+ * The masks are turned into 8 bits, one for every cell, and the Tiles are picked out of them with
+ * Long.numberOfTrailingZeros, so the work is in proportion to the number of Tiles rather than
+ * cells. A line is slid in three passes:
+ * - copy the Tiles to a scratch array in the order they move, 8 at once where there is no gap
+ * - find which Tiles merge from the Tiles equal to the next one: in every run of them, the 1st,
+ * the 3rd and so on, which one addition finds for the whole run
+ * - raise the Tiles that merge, drop the ones merged into them, and write the line back
+ * Every exponent fits in 7 bits, so adding up to 127 to every byte of a long never carries into
+ * the next byte. It also counts the empty cells and the pairs of a row, and lists its empty cells,
+ * after a move split across the pool. Additionally, it offers several methods:
+ *
+ * slide(byte[], int, int, int, long[], byte[], MoveResult) - slide and merge one line
+ * count(byte[], int, int, boolean, int) - count the empty cells and the pairs of a row
+ * fill(byte[], int, int, int[], int[], int) - list the empty cells of a row
+ * scratch(int) - create the scratch array of a line
+ * merges(long, long) - find the Tiles that merge from the Tiles equal to the next one
+ * word(byte[], int) - read 8 cells as a long
+ * empty(long) - find the empty cells of 8 cells
+ * grows(long, int) - find the cells of 8 cells that can still grow
+ * gather(long) - turn the high bit of every byte into one bit
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class SwarSlide {
+  // WORDS: reads and writes 8 cells of a byte array as one long, at any index
+  // LOW: the low 7 bits of every byte
+  // HIGH: the high bit of every byte
+  // ONES: 1 in every byte
+  // EVEN: the even bits of a byte
+  // GATHER: moves the high bit of every byte to the top byte, byte k to bit 56 + k
+  // SPREAD: the long with 1 in every byte whose bit is set, for every 8 bits
+  static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class,
+          ByteOrder.LITTLE_ENDIAN);
+  static final long LOW = 0x7F7F7F7F7F7F7F7FL;
+  static final long HIGH = 0x8080808080808080L;
+  static final long ONES = 0x0101010101010101L;
+  static final long EVEN = 0x55;
+  static final long GATHER = 0x0102040810204080L;
+  static final long[] SPREAD = new long[256];
+
+  static {
+    for (int bits = 0; bits < SPREAD.length; bits++) {
+      for (int k = 0; k < 8; k++) {
+        SPREAD[bits] |= (long) (bits >>> k & 1) << (8 * k);
+      }
+    }
+  }
+
+
+
+  /**
+   * To slide and merge one contiguous line, the same way as Board does.
+   *
+   * @param line is the array that holds the line, the cells or the transposed cells
+   * @param start is the index of the first cell of the line, the one the Tiles move towards
+   * @param step is 1 if the line goes up the array from start, or -1 if it goes down
+   * @param length is the number of cells of the line
+   * @param powers is the value of every exponent, the last of which cannot grow
+   * @param scratch is an array from scratch(length), not shared with another thread
+   * @param into is the MoveResult to record the line in
+   */
+  static void slide(byte[] line, int start, int step, int length, long[] powers, byte[] scratch,
+                    MoveResult into) {
+    // base: the lowest index of the line
+    // whole: the number of cells of the line in whole words
+    int base = step == 1 ? start : start - length + 1;
+    int whole = length & -8;
+    int count = 0;
+    boolean moved = false;
+
+    // To copy the Tiles to the scratch array in the order they move
+    if (step == 1) {
+      for (int offset = 0; offset < whole; offset += 8) {
+        long word = word(line, base + offset);
+        long tiles = ~empty(word) & HIGH;
+        // To copy 8 cells without an empty one at once
+        if (tiles == HIGH) {
+          WORDS.set(scratch, count, word);
+          moved |= offset != count;
+          count += 8;
+          continue;
+        }
+        for (; tiles != 0; tiles &= tiles - 1) {
+          int cell = offset + (Long.numberOfTrailingZeros(tiles) >>> 3);
+          moved |= cell != count;
+          scratch[count++] = line[base + cell];
+        }
+      }
+      for (int cell = whole; cell < length; cell++) {
+        if (line[base + cell] != 0) {
+          moved |= cell != count;
+          scratch[count++] = line[base + cell];
+        }
+      }
+    }
+    else {
+      for (int cell = length - 1; cell >= whole; cell--) {
+        if (line[base + cell] != 0) {
+          moved |= length - 1 - cell != count;
+          scratch[count++] = line[base + cell];
+        }
+      }
+      for (int offset = whole - 8; offset >= 0; offset -= 8) {
+        long word = word(line, base + offset);
+        long tiles = ~empty(word) & HIGH;
+        // To copy 8 cells without an empty one at once, in the order they move
+        if (tiles == HIGH) {
+          WORDS.set(scratch, count, Long.reverseBytes(word));
+          moved |= length - 8 - offset != count;
+          count += 8;
+          continue;
+        }
+        for (; tiles != 0; tiles &= ~Long.highestOneBit(tiles)) {
+          int cell = offset + ((63 - Long.numberOfLeadingZeros(tiles)) >>> 3);
+          moved |= length - 1 - cell != count;
+          scratch[count++] = line[base + cell];
+        }
+      }
+    }
+
+    // To end the Tiles with empty cells, so the last Tile is never equal to the next one
+    Arrays.fill(scratch, count, count + 9, (byte) 0);
+    // kept: the number of Tiles left after the merges
+    // carry: 1 if the last Tile of the previous word merged with the first of this one
+    int kept = 0;
+    long carry = 0;
+    int merges = 0;
+    long scoreGained = 0;
+    int highest = powers.length - 2;
+    for (int offset = 0; offset < count; offset += 8) {
+      long tiles = word(scratch, offset);
+      long equal = gather(empty(tiles ^ word(scratch, offset + 1)) & grows(tiles, highest));
+      long merged = merges(equal, carry);
+      long dropped = (merged << 1 | carry) & 0xFF;
+      long valid = count - offset >= 8 ? 0xFF : (1L << (count - offset)) - 1;
+      carry = merged >>> 7;
+
+      // To count the merges and their score
+      merges += Long.bitCount(merged);
+      for (long bits = merged; bits != 0; bits &= bits - 1) {
+        scoreGained += powers[scratch[offset + Long.numberOfTrailingZeros(bits)] + 1];
+      }
+      // To keep the Tiles that were not merged into another one, raising the ones that merged,
+      // never ahead of the Tiles still to be read, at once if none was merged into another
+      if ((valid & dropped) == 0) {
+        WORDS.set(scratch, kept, tiles + SPREAD[(int) merged]);
+        kept += Long.bitCount(valid);
+        continue;
+      }
+      for (long bits = valid & ~dropped; bits != 0; bits &= bits - 1) {
+        int tile = Long.numberOfTrailingZeros(bits);
+        scratch[kept++] = (byte) (scratch[offset + tile] + (merged >>> tile & 1));
+      }
+    }
+
+    // To write the line back and empty the rest of it
+    if (step == 1) {
+      System.arraycopy(scratch, 0, line, start, kept);
+      Arrays.fill(line, start + kept, start + length, (byte) 0);
+    }
+    else {
+      for (int k = 0; k < kept; k++) {
+        line[start - k] = scratch[k];
+      }
+      Arrays.fill(line, base, start - kept + 1, (byte) 0);
+    }
+    into.add(moved || merges != 0, merges, scoreGained);
+  }
+
+  /**
+   * To count the empty cells of a row, and the pairs of Tiles that can merge in it and with the
+   * row below, 8 cells at a time.
+   *
+   * @param cells is the cells, row by row
+   * @param row is the index of the first cell of the row
+   * @param length is the number of cells of a row
+   * @param below is if there is a row below
+   * @param highest is the largest exponent that can still grow
+   * @return the pairs in the high 32 bits and the empty cells in the low 32 bits
+   */
+  static long count(byte[] cells, int row, int length, boolean below, int highest) {
+    int empty = 0;
+    int pairs = 0;
+    int cell = 0;
+    // To count whole words, as long as the word one cell further fits in the cells
+    for (; cell + 8 <= length && row + cell + 9 <= cells.length; cell += 8) {
+      long word = word(cells, row + cell);
+      long grow = grows(word, highest);
+      empty += Long.bitCount(empty(word));
+      // To count the pairs with the right neighbour, but not past the end of the row
+      long right = grow & empty(word ^ word(cells, row + cell + 1));
+      pairs += Long.bitCount(cell + 8 == length ? right & HIGH >>> 8 : right);
+      if (below) {
+        pairs += Long.bitCount(grow & empty(word ^ word(cells, row + length + cell)));
+      }
+    }
+    // To count the rest one cell at a time
+    for (; cell < length; cell++) {
+      int index = row + cell;
+      int exponent = cells[index];
+      if (exponent == 0) {
+        empty++;
+      }
+      else if (exponent <= highest) {
+        if (cell + 1 < length && cells[index + 1] == exponent) {
+          pairs++;
+        }
+        if (below && cells[index + length] == exponent) {
+          pairs++;
+        }
+      }
+    }
+    return (long) pairs << 32 | empty;
+  }
+
+  /**
+   * To list the empty cells of a row in free, 8 cells at a time, and mark the other cells as not
+   * free.
+   *
+   * @param cells is the cells, row by row
+   * @param row is the index of the first cell of the row
+   * @param length is the number of cells of a row
+   * @param free is the indices of the empty cells
+   * @param freeSlot is the position of every cell in free
+   * @param slot is where the empty cells of the row start in free
+   */
+  static void fill(byte[] cells, int row, int length, int[] free, int[] freeSlot, int slot) {
+    Arrays.fill(freeSlot, row, row + length, -1);
+    int cell = 0;
+    for (; cell + 8 <= length; cell += 8) {
+      for (long empty = empty(word(cells, row + cell)); empty != 0; empty &= empty - 1) {
+        int index = row + cell + (Long.numberOfTrailingZeros(empty) >>> 3);
+        free[slot] = index;
+        freeSlot[index] = slot++;
+      }
+    }
+    for (; cell < length; cell++) {
+      if (cells[row + cell] == 0) {
+        free[slot] = row + cell;
+        freeSlot[row + cell] = slot++;
+      }
+    }
+  }
+
+  /**
+   * To create the scratch array of a line, with room for the Tiles and two words after them.
+   *
+   * @param length is the number of cells of the line
+   * @return the scratch array
+   */
+  static byte[] scratch(int length) {
+    return new byte[length + 17];
+  }
+
+  /**
+   * To find the Tiles that merge, from the Tiles equal to the next one: in every run of them, the
+   * ones at an even distance from where the run starts. Adding the first bit of a run to the run
+   * carries through the whole run and clears it, which finds the runs that start at an even bit
+   * without a loop.
+   *
+   * @param equal is the bit of every Tile of a word equal to the next one
+   * @param carry is 1 if the first Tile was already merged into the previous one
+   * @return the bit of every Tile that merges with the next one
+   */
+  static long merges(long equal, long carry) {
+    // To start the first run one Tile later if the first Tile was already merged
+    equal &= ~carry;
+    long starts = equal & ~(equal << 1);
+    long evenRuns = equal & ~(equal + (starts & EVEN));
+    long oddRuns = equal & ~evenRuns;
+    return (evenRuns & EVEN) | (oddRuns & ~EVEN);
+  }
+
+  /**
+   * To read 8 cells as a long, the first cell in the low byte.
+   *
+   * @param cells is the array of the cells
+   * @param index is the index of the first cell
+   * @return the 8 cells
+   */
+  static long word(byte[] cells, int index) {
+    return (long) WORDS.get(cells, index);
+  }
+
+  /**
+   * To find the empty cells of 8 cells: adding 127 to a byte sets its high bit unless it is 0.
+   *
+   * @param word is the 8 cells
+   * @return the high bit of every empty cell
+   */
+  static long empty(long word) {
+    return ~(word + LOW) & HIGH;
+  }
+
+  /**
+   * To find the cells of 8 cells that can still grow, the exponents from 1 to the highest: adding
+   * 127 - highest to a byte sets its high bit if it is higher.
+   *
+   * @param word is the 8 cells
+   * @param highest is the largest exponent that can still grow
+   * @return the high bit of every cell that can grow
+   */
+  static long grows(long word, int highest) {
+    return (word + LOW) & ~(word + (127 - highest) * ONES) & HIGH;
+  }
+
+  /**
+   * To turn the high bit of every byte into one bit, byte k into bit k. Every bit of the product
+   * comes from one pair of bits, so nothing carries.
+   *
+   * @param high is the high bit of every byte
+   * @return the 8 bits
+   */
+  static long gather(long high) {
+    return (high >>> 7) * GATHER >>> 56;
+  }
+}
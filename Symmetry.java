@@ -0,0 +1,319 @@
+/**
+ * Symmetry represents the 8 rotations and reflections of a square Board (the dihedral group of
+ * the square). Moving a Board and then turning it gives the same Board as turning it and then
+ * moving it in the turned Direction, so the 8 turns of a position are worth the same and have the
+ * same best move, once the move is turned back. Every Symmetry maps the cell (row, col) by first
+ * swapping the row and the column if it transposes, and then flipping the rows and the columns it
+ * flips. The canonical turn of a Board is the one with the smallest cells, so the 8 turns of a
+ * position share one key in a cache or an OpeningBook. Additionally, it offers several methods:
+ *
+ * inverse() - GETTER METHOD: the Symmetry that turns the Board back
+ * map(int, int) - GETTER METHOD: where a cell goes
+ * apply(Direction) - GETTER METHOD: the Direction a move goes in once turned
+ * apply(long) - GETTER METHOD: the packed cells of a 4x4 Board, turned
+ *
+ * canonical(long) - find the Symmetry of the smallest turn of the packed cells of a 4x4 Board
+ * canonicalKey(long) - find the smallest turn of the packed cells of a 4x4 Board
+ * canonical(Board) - find the Symmetry that turns a Board into its canonical turn
+ * canonicalKey(Board) - find the key of the canonical turn of a Board
+ * key(Board) - find the key of a Board once turned
+ * compare(Board, Symmetry, Symmetry) - compare the cells of two turns of a Board
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public enum Symmetry {
+  IDENTITY(false, false, false),
+  MIRROR(false, false, true),
+  FLIP(false, true, false),
+  ROTATE_180(false, true, true),
+  TRANSPOSE(true, false, false),
+  ROTATE_CW(true, false, true),
+  ROTATE_CCW(true, true, false),
+  ANTI_TRANSPOSE(true, true, true);
+
+  // ALL: every Symmetry, in the order of their swap and flips as bits, without copying values()
+  private static final Symmetry[] ALL = values();
+
+  // swaps: if the rows and the columns are swapped first
+  // flipsRows: if the rows are flipped, the first row becoming the last
+  // flipsCols: if the columns are flipped, the first column becoming the last
+  private final boolean swaps;
+  private final boolean flipsRows;
+  private final boolean flipsCols;
+
+
+
+  /**
+   * Constructor for a Symmetry with:
+   * swaps: input
+   * flipsRows: input
+   * flipsCols: input
+   *
+   * @param swaps is if the rows and the columns are swapped first
+   * @param flipsRows is if the rows are flipped
+   * @param flipsCols is if the columns are flipped
+   */
+  Symmetry(boolean swaps, boolean flipsRows, boolean flipsCols) {
+    this.swaps = swaps;
+    this.flipsRows = flipsRows;
+    this.flipsCols = flipsCols;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the Symmetry that turns the Board back. Undoing a swap and its flips swaps back and
+   * flips the other way round, so only the turns that swap trade their two flips.
+   *
+   * @return the inverse Symmetry
+   */
+  public Symmetry inverse() {
+    if (!this.swaps) {
+      return this;
+    }
+    return of(true, this.flipsCols, this.flipsRows);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return where a cell goes once the Board is turned
+   *
+   * @param index is the location of the cell (row * grid + col)
+   * @param grid is the grid size of the Board
+   * @return the location of the cell in the turned Board
+   */
+  public int map(int index, int grid) {
+    int row = this.swaps ? index % grid : index / grid;
+    int col = this.swaps ? index / grid : index % grid;
+    if (this.flipsRows) {
+      row = grid - 1 - row;
+    }
+    if (this.flipsCols) {
+      col = grid - 1 - col;
+    }
+    return row * grid + col;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the Direction a move goes in once the Board is turned, by turning its step like a cell
+   *
+   * @param direction is the Direction of the move on the Board
+   * @return the Direction of the same move on the turned Board
+   */
+  public Direction apply(Direction direction) {
+    boolean vertical = direction == Direction.UP || direction == Direction.DOWN;
+    boolean forward = direction == Direction.RIGHT || direction == Direction.DOWN;
+    // To swap the rows and the columns, then flip the step if its axis is flipped
+    if (this.swaps) {
+      vertical = !vertical;
+    }
+    if (vertical ? this.flipsRows : this.flipsCols) {
+      forward = !forward;
+    }
+    if (vertical) {
+      return forward ? Direction.DOWN : Direction.UP;
+    }
+    return forward ? Direction.RIGHT : Direction.LEFT;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the packed cells of a 4x4 Board once turned, with the nibbles of a BitBoard
+   *
+   * @param packed is the packed cells
+   * @return the turned cells
+   */
+  public long apply(long packed) {
+    return this.flip(this.swaps ? BitBoard.transpose(packed) : packed);
+  }
+
+  /**
+   * To flip the rows and the columns of the packed cells that the Symmetry flips, after the swap.
+   *
+   * @param packed is the packed cells, already transposed if the Symmetry swaps
+   * @return the flipped cells
+   */
+  private long flip(long packed) {
+    if (this.flipsRows) {
+      packed = flipRows(packed);
+    }
+    if (this.flipsCols) {
+      packed = flipCols(packed);
+    }
+    return packed;
+  }
+
+
+
+  /**
+   * To find the Symmetry that turns the packed cells of a 4x4 Board into the smallest of their 8
+   * turns, as unsigned longs.
+   *
+   * @param packed is the packed cells
+   * @return the Symmetry of the canonical turn
+   */
+  public static Symmetry canonical(long packed) {
+    long transposed = BitBoard.transpose(packed);
+    Symmetry best = IDENTITY;
+    long bestPacked = packed;
+    // To transpose once for the 4 turns that swap
+    for (Symmetry symmetry : ALL) {
+      long turned = symmetry.flip(symmetry.swaps ? transposed : packed);
+      if (Long.compareUnsigned(turned, bestPacked) < 0) {
+        best = symmetry;
+        bestPacked = turned;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * To find the smallest of the 8 turns of the packed cells of a 4x4 Board, as unsigned longs,
+   * without finding which turn it is.
+   *
+   * @param packed is the packed cells
+   * @return the canonical packed cells
+   */
+  public static long canonicalKey(long packed) {
+    long transposed = BitBoard.transpose(packed);
+    long best = min(packed, flipCols(packed));
+    best = min(best, min(flipRows(packed), flipRows(flipCols(packed))));
+    best = min(best, min(transposed, flipCols(transposed)));
+    return min(best, min(flipRows(transposed), flipRows(flipCols(transposed))));
+  }
+
+  /**
+   * To find the Symmetry that turns a Board into its canonical turn: the one whose packed cells
+   * are the smallest on a BitBoard, or whose cells come first from the last cell back otherwise,
+   * which is the same order, so a 4x4 Board picks the same turn on both. Two Boards that are
+   * turns of each other have the same canonical turn.
+   *
+   * @param board is the Board
+   * @return the Symmetry of the canonical turn
+   */
+  public static Symmetry canonical(Board board) {
+    // To compare the packed cells if the Board is backed by a BitBoard
+    if (board.isBitBoard()) {
+      return canonical(board.getKey());
+    }
+
+    Symmetry best = IDENTITY;
+    // To compare the cells of every turn with the best one so far
+    for (Symmetry symmetry : ALL) {
+      if (compare(board, symmetry, best) < 0) {
+        best = symmetry;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * To find the key of the canonical turn of a Board, which is the same for its 8 turns.
+   *
+   * @param board is the Board
+   * @return the key of the canonical turn
+   */
+  public static long canonicalKey(Board board) {
+    if (board.isBitBoard()) {
+      return canonicalKey(board.getKey());
+    }
+    return canonical(board).key(board);
+  }
+
+  /**
+   * To find the key of a Board once turned: its packed cells turned on a BitBoard, or else the
+   * Zobrist hash of the turned cells, computed from every Tile without turning the Board.
+   *
+   * @param board is the Board
+   * @return the key of the turned Board
+   */
+  public long key(Board board) {
+    if (board.isBitBoard()) {
+      return this.apply(board.getKey());
+    }
+
+    int grid = board.getGrid();
+    long key = Board.zobrist(grid);
+    // To loop through the Tiles, XOR-ing the key of every Tile where it goes
+    for (int index = 0; index < grid * grid; index++) {
+      key ^= Board.zobrist(this.map(index, grid), board.getExponent(index / grid, index % grid));
+    }
+    return key;
+  }
+
+  /**
+   * To compare the cells of two turns of a Board from the last cell back, like the nibbles of
+   * packed cells, without turning it: the cell that a turn puts at every location is the one the
+   * inverse turn maps there.
+   *
+   * @param board is the Board
+   * @param first is the first turn
+   * @param second is the second turn
+   * @return less than 0, 0 or more than 0 as the first turn comes before, with or after the second
+   */
+  static int compare(Board board, Symmetry first, Symmetry second) {
+    int grid = board.getGrid();
+    Symmetry firstBack = first.inverse();
+    Symmetry secondBack = second.inverse();
+    // To loop back through the locations of the turned Boards until two cells differ
+    for (int index = grid * grid - 1; index >= 0; index--) {
+      int a = firstBack.map(index, grid);
+      int b = secondBack.map(index, grid);
+      int difference = board.getExponent(a / grid, a % grid)
+              - board.getExponent(b / grid, b % grid);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * To find the Symmetry with the given swap and flips.
+   *
+   * @param swaps is if the rows and the columns are swapped first
+   * @param flipsRows is if the rows are flipped
+   * @param flipsCols is if the columns are flipped
+   * @return the Symmetry
+   */
+  private static Symmetry of(boolean swaps, boolean flipsRows, boolean flipsCols) {
+    return ALL[(swaps ? 4 : 0) + (flipsRows ? 2 : 0) + (flipsCols ? 1 : 0)];
+  }
+
+  /**
+   * To flip the rows of the packed cells, the first row becoming the last.
+   *
+   * @param x is the packed cells
+   * @return the flipped cells
+   */
+  private static long flipRows(long x) {
+    return (x << 48) | ((x << 16) & 0xFFFF00000000L) | ((x >>> 16) & 0xFFFF0000L) | (x >>> 48);
+  }
+
+  /**
+   * To flip the columns of the packed cells, the first column becoming the last.
+   * - swap the two nibbles of every byte
+   * - swap the two bytes of every row
+   *
+   * @param x is the packed cells
+   * @return the flipped cells
+   */
+  private static long flipCols(long x) {
+    x = ((x & 0x0F0F0F0F0F0F0F0FL) << 4) | ((x >>> 4) & 0x0F0F0F0F0F0F0F0FL);
+    return ((x & 0x00FF00FF00FF00FFL) << 8) | ((x >>> 8) & 0x00FF00FF00FF00FFL);
+  }
+
+  /**
+   * To find the smaller of two packed cells, as unsigned longs.
+   *
+   * @param a is the first packed cells
+   * @param b is the second packed cells
+   * @return the smaller one
+   */
+  private static long min(long a, long b) {
+    return Long.compareUnsigned(a, b) <= 0 ? a : b;
+  }
+}
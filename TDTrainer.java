@@ -0,0 +1,255 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * TDTrainer teaches a NTupleNetwork to play 4x4 games by temporal-difference learning over
+ * afterstates. Every move picks the Direction with the best score gained plus the value of the
+ * Board after it (the afterstate), and the value of the previous afterstate is moved towards the
+ * score gained plus the value of the next one, and towards 0 once the game is over. The games are
+ * split across all the cores with a fork/join pool, and every worker updates the shared weights
+ * without locks (Hogwild). Training goes in rounds, and the weights are written to a checkpoint
+ * after every round. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the report of the last round
+ * getNetwork() - GETTER METHOD: the NTupleNetwork being trained
+ *
+ * train(ForkJoinPool) - play and learn from one round of games
+ * learn(int, Afterstates) - play and learn from one game
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class TDTrainer {
+  // BATCH: the number of games a worker plays without splitting them further
+  // ALPHA: the default learning rate of every weight
+  // GOAL: the exponent of the Tile whose reach rate is reported, 2048 with a multiplier of 2
+  // DIRECTIONS: every Direction, without copying values() for every move
+  static final int BATCH = 16;
+  static final float ALPHA = 0.0025f;
+  static final int GOAL = 11;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // network: the NTupleNetwork being trained
+  // alpha: the learning rate of every weight
+  // multiplier: the multiplier of every game
+  // scores: the final score of every game of a round
+  // maxExponents: the exponent of the biggest Tile of every game of a round
+  // nanos: how long the last round took
+  // games: the number of games of all the rounds
+  private final NTupleNetwork network;
+  private final float alpha;
+  private final int multiplier;
+  private final long[] scores;
+  private final byte[] maxExponents;
+  private long nanos;
+  private long games;
+
+
+
+  /**
+   * Constructor for a TDTrainer with:
+   * network: input
+   * alpha: input
+   * multiplier: input
+   * round: input
+   *
+   * @param network is the NTupleNetwork to be trained
+   * @param alpha is the learning rate of every weight
+   * @param multiplier is the multiplier of every game
+   * @param round is the number of games of a round
+   */
+  public TDTrainer(NTupleNetwork network, float alpha, int multiplier, int round) {
+    this.network = network;
+    this.alpha = alpha;
+    this.multiplier = multiplier;
+    this.scores = new long[round];
+    this.maxExponents = new byte[round];
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the report of the last round, with the training speed, the average score and how
+   * often the goal Tile was reached.
+   *
+   * @return the report of the last round
+   */
+  @Override
+  public String toString() {
+    long total = 0;
+    int reached = 0;
+    for (int game = 0; game < this.scores.length; game++) {
+      total += this.scores[game];
+      reached += this.maxExponents[game] >= GOAL ? 1 : 0;
+    }
+    double seconds = this.nanos / 1e9;
+    return String.format("games: %d, %.0f games/hour, mean score %.1f, reached %d: %.2f%%",
+            this.games, this.scores.length / seconds * 3600, (double) total / this.scores.length,
+            (long) Math.pow(this.multiplier, GOAL), 100.0 * reached / this.scores.length);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the NTupleNetwork being trained
+   *
+   * @return the network
+   */
+  public NTupleNetwork getNetwork() {
+    return this.network;
+  }
+
+
+
+  /**
+   * To play and learn from one round of games on a fork/join pool.
+   *
+   * @param pool is the pool the games are split across
+   * @return this TDTrainer, to read the report from
+   */
+  public TDTrainer train(ForkJoinPool pool) {
+    long start = System.nanoTime();
+    pool.invoke(new Games(0, this.scores.length));
+    this.nanos = System.nanoTime() - start;
+    this.games += this.scores.length;
+    return this;
+  }
+
+  /**
+   * To play and learn from one game.
+   * - pick the Direction with the best score gained plus the value of its afterstate
+   * - move the value of the previous afterstate towards that
+   * - take the afterstate as the Board, remember it, and spawn
+   * - once no Direction is legal, move the value of the last afterstate towards 0
+   *
+   * @param game is the number of the game in the round
+   * @param afterstates is the Afterstates every Direction is tried with
+   */
+  void learn(int game, Afterstates afterstates) {
+    Board board = new Board(this.multiplier);
+    long previous = 0;
+    boolean started = false;
+
+    while (true) {
+      Direction best = null;
+      float bestValue = Float.NEGATIVE_INFINITY;
+      long bestAfter = 0;
+      int legal = board.afterstates(afterstates);
+      // To try every legal Direction
+      for (Direction direction : DIRECTIONS) {
+        if (direction.isIn(legal)) {
+          long reward = afterstates.getScoreGained(direction);
+          long after = NTupleNetwork.pack(afterstates.getBoard(direction));
+          float value = reward + this.network.value(after);
+          if (value > bestValue) {
+            best = direction;
+            bestValue = value;
+            bestAfter = after;
+          }
+        }
+      }
+
+      // To learn that the last afterstate led to the end of the game
+      if (best == null) {
+        if (started) {
+          this.network.update(previous, -this.alpha * this.network.value(previous));
+        }
+        break;
+      }
+      // To learn from the score gained and the value of the next afterstate
+      if (started) {
+        this.network.update(previous,
+                this.alpha * (bestValue - this.network.value(previous)));
+      }
+
+      board.copyFrom(afterstates.getBoard(best));
+      previous = bestAfter;
+      started = true;
+      board.spawn();
+    }
+
+    // To find the biggest Tile
+    int max = 0;
+    for (int i = 0; i < 16; i++) {
+      max = Math.max(max, board.getExponent(i / 4, i % 4));
+    }
+    this.scores[game] = board.getScore();
+    this.maxExponents[game] = (byte) max;
+  }
+
+
+
+  /**
+   * Games represents a range of games, which is split in half until it is small enough for one
+   * worker to play with its own Afterstates.
+   */
+  private class Games extends RecursiveAction {
+    // from: the first game of the range
+    // to: the game after the last game of the range
+    private final int from;
+    private final int to;
+
+    Games(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      // To split the range in half if it is too big
+      if (this.to - this.from > BATCH) {
+        int middle = (this.from + this.to) >>> 1;
+        invokeAll(new Games(this.from, middle), new Games(middle, this.to));
+        return;
+      }
+
+      // To play the games with the Afterstates of this worker
+      Afterstates afterstates = new Afterstates();
+      for (int game = this.from; game < this.to; game++) {
+        learn(game, afterstates);
+      }
+    }
+  }
+
+
+
+  /**
+   * To train from the command line, continuing from the checkpoint if it exists:
+   * java TDTrainer [rounds] [round] [checkpoint] [threads] [alpha]
+   * - rounds: the number of rounds, 10 by default
+   * - round: the number of games of a round, 1000 by default
+   * - checkpoint: the path of the checkpoint, ntuple.bin by default
+   * - threads: the number of workers, all the cores by default
+   * - alpha: the learning rate of every weight, 0.0025 by default
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the checkpoint cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    int round = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    String checkpoint = args.length > 2 ? args[2] : "ntuple.bin";
+    int threads = args.length > 3 ? Integer.parseInt(args[3])
+            : Runtime.getRuntime().availableProcessors();
+    float alpha = args.length > 4 ? Float.parseFloat(args[4]) : ALPHA;
+
+    NTupleNetwork network = new File(checkpoint).exists() ? NTupleNetwork.load(checkpoint)
+            : new NTupleNetwork();
+    TDTrainer trainer = new TDTrainer(network, alpha, 2, round);
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      // To train round by round, writing a checkpoint after every round
+      for (int i = 0; i < rounds; i++) {
+        System.out.println(trainer.train(pool));
+        network.save(checkpoint);
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+}
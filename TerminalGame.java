@@ -0,0 +1,289 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * TerminalGame plays a Board on a text terminal, reading the keys from standard input and drawing
+ * with a TerminalRenderer, so a game can be played or watched over SSH on a server without a
+ * display. It runs with java.awt.headless set. When standard input is a terminal, it is switched to
+ * read every key as it is pressed, and a shutdown hook switches it back to its saved settings on
+ * any exit, Ctrl-C included; otherwise the keys are read when a line is entered. Given a Policy, it
+ * plays by itself instead, drawing every move, to watch a simulation. Additionally, it offers
+ * several methods:
+ *
+ * play(InputStream) - play with the keys read from an input
+ * watch(Policy, long) - let a Policy play, drawing every move
+ * key(int) - react to one key
+ * rawMode() - switch the terminal to read every key as it is pressed, saving its settings
+ * restore(String) - switch the terminal back to its saved settings
+ * stty(String, boolean) - run stty on the terminal
+ *
+ * main(String[]) - the main method
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class TerminalGame {
+  // grid: the grid size of every game
+  // multiplier: the multiplier of every game
+  // renderer: the TerminalRenderer that draws the game
+  // board: the Board being played
+  // history: the Boards after the last moves
+  // escape: how far into an arrow key escape sequence the input is, from 0 to 2
+  private final int grid;
+  private final int multiplier;
+  private final TerminalRenderer renderer;
+  private Board board;
+  private final History history;
+  private int escape;
+
+
+
+  /**
+   * Constructor for a TerminalGame with:
+   * grid: input (4 is played on a BitBoard)
+   * multiplier: input
+   * renderer: input
+   *
+   * @param grid is the grid size of every game
+   * @param multiplier is the multiplier of every game
+   * @param renderer is the TerminalRenderer to draw with
+   */
+  public TerminalGame(int grid, int multiplier, TerminalRenderer renderer) {
+    this.grid = grid;
+    this.multiplier = multiplier;
+    this.renderer = renderer;
+    this.board = this.newBoard();
+    this.history = new History(this.board, History.CAPACITY);
+  }
+
+
+
+  /**
+   * To play with the keys read from an input until q is pressed or the input ends.
+   *
+   * @param in is the input of the keys
+   * @throws IOException if the input cannot be read or the frames cannot be written
+   */
+  public void play(InputStream in) throws IOException {
+    this.renderer.redraw(this.board);
+    int key;
+    while ((key = in.read()) != -1) {
+      if (!this.key(key)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * To let a Policy play until the game is over, drawing every move.
+   *
+   * @param policy is the Policy that picks the moves
+   * @param delay is the milliseconds to wait after every move
+   * @throws IOException if the frames cannot be written
+   * @throws InterruptedException if the wait is interrupted
+   */
+  public void watch(Policy policy, long delay) throws IOException, InterruptedException {
+    this.renderer.redraw(this.board);
+    long moves = 0;
+    while (this.board.hasLegalMove()) {
+      this.board.move(policy.choose(this.board));
+      this.board.spawn();
+      this.renderer.render(this.board);
+      moves++;
+      if (delay > 0) {
+        Thread.sleep(delay);
+      }
+    }
+    this.renderer.message(moves + " moves, " + this.renderer);
+  }
+
+  /**
+   * To react to one key.
+   * - w, a, s, d or the arrow keys mean a move
+   * - u means undo and r means redo
+   * - n means a new game
+   * - q means quit
+   *
+   * @param key is the key, a byte of the input
+   * @return if the game should go on
+   * @throws IOException if the frame cannot be written
+   */
+  boolean key(int key) throws IOException {
+    // To follow the escape sequence of an arrow key, ESC [ A to D
+    if (this.escape == 1) {
+      this.escape = key == '[' ? 2 : 0;
+      return true;
+    }
+    if (this.escape == 2) {
+      this.escape = 0;
+      key = key == 'A' ? 'w' : key == 'B' ? 's' : key == 'C' ? 'd' : key == 'D' ? 'a' : 0;
+    }
+
+    Direction direction = null;
+    switch (key) {
+      case 27:
+        this.escape = 1;
+        return true;
+      case 'w':
+        direction = Direction.UP;
+        break;
+      case 'a':
+        direction = Direction.LEFT;
+        break;
+      case 's':
+        direction = Direction.DOWN;
+        break;
+      case 'd':
+        direction = Direction.RIGHT;
+        break;
+      case 'u':
+        if (this.history.undo(this.board)) {
+          this.renderer.render(this.board);
+        }
+        return true;
+      case 'r':
+        if (this.history.redo(this.board)) {
+          this.renderer.render(this.board);
+        }
+        return true;
+      case 'n':
+        this.board = this.newBoard();
+        this.history.reset(this.board);
+        this.renderer.render(this.board);
+        return true;
+      case 'q':
+        return false;
+      default:
+        return true;
+    }
+
+    // To play the move if it changes the Board
+    if (this.board.canMove(direction)) {
+      this.board.move(direction);
+      this.board.spawn();
+      this.history.commit(this.board);
+      this.renderer.render(this.board);
+    }
+    return true;
+  }
+
+  /**
+   * To create a new Board of the grid size and the multiplier.
+   *
+   * @return the new Board
+   */
+  private Board newBoard() {
+    return this.grid == 4 ? new Board(this.multiplier) : new Board(this.multiplier, this.grid);
+  }
+
+  /**
+   * To switch the terminal of standard input to read every key as it is pressed without echoing
+   * it, with stty, after saving its settings. It does nothing if standard input is not a terminal.
+   *
+   * @return the saved settings, or null if the terminal was not switched
+   */
+  static String rawMode() {
+    if (System.console() == null) {
+      return null;
+    }
+    String saved = stty("-g", true);
+    if (saved == null || saved.isEmpty() || stty("-icanon -echo min 1", false) == null) {
+      return null;
+    }
+    return saved;
+  }
+
+  /**
+   * To switch the terminal of standard input back to the settings saved by rawMode().
+   *
+   * @param saved is the saved settings
+   */
+  static void restore(String saved) {
+    stty(saved, false);
+  }
+
+  /**
+   * To run stty on the terminal of standard input.
+   *
+   * @param arguments is the arguments of stty
+   * @param read is if the output of stty should be read instead of shown
+   * @return the output of stty (empty if it was not read), or null if it failed
+   */
+  private static String stty(String arguments, boolean read) {
+    try {
+      ProcessBuilder builder = new ProcessBuilder("sh", "-c", "stty " + arguments + " < /dev/tty");
+      builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+      if (!read) {
+        builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+      }
+      Process stty = builder.start();
+      String output = read
+              ? new String(stty.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim()
+              : "";
+      return stty.waitFor() == 0 ? output : null;
+    }
+    catch (IOException e) {
+      return null;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+
+
+  /**
+   * To play in the terminal from the command line:
+   * java TerminalGame [grid] [multiplier] [policy] [delay] [--plain]
+   * - grid: the grid size, 4 by default
+   * - multiplier: the multiplier, 2 by default
+   * - policy: a Policy to watch play instead of playing, none by default
+   * - delay: the milliseconds between the moves of the Policy, 50 by default
+   * - --plain: draw without colors, for terminals without 24-bit colors
+   *
+   * @param args is the command line arguments
+   * @throws IOException if the input cannot be read or the frames cannot be written
+   * @throws InterruptedException if the wait between moves is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    // To make sure nothing looks for a display
+    System.setProperty("java.awt.headless", "true");
+    boolean plain = args.length > 0 && args[args.length - 1].equals("--plain");
+    int count = plain ? args.length - 1 : args.length;
+    int grid = count > 0 ? Integer.parseInt(args[0]) : 4;
+    int multiplier = count > 1 ? Integer.parseInt(args[1]) : 2;
+    String policy = count > 2 ? args[2] : null;
+    long delay = count > 3 ? Long.parseLong(args[3]) : 50;
+
+    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+            1 << 16);
+    TerminalRenderer renderer = new TerminalRenderer(out, !plain);
+    TerminalGame game = new TerminalGame(grid, multiplier, renderer);
+    if (policy != null) {
+      game.watch(Policy.named(policy), delay);
+      renderer.close();
+      return;
+    }
+
+    // To switch the terminal back and show the cursor on any exit, even if Ctrl-C stops the game
+    String saved = rawMode();
+    if (saved != null) {
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        restore(saved);
+        System.out.print(TerminalRenderer.ESC + "?25h");
+        System.out.flush();
+      }, "stty-restore"));
+    }
+    try {
+      game.play(System.in);
+    }
+    finally {
+      renderer.close();
+    }
+  }
+}
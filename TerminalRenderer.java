@@ -0,0 +1,328 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * TerminalRenderer draws a Board on a text terminal with ANSI escape codes, without anything from
+ * a window system, so it works with java.awt.headless over SSH. The first frame clears the screen
+ * and draws everything; every frame after it only moves the cursor to the Tiles whose exponent
+ * changed and draws them again, and to the score if it changed, so the output of a frame is in
+ * proportion to what changed, not to the size of the Board. Every frame is built in one reused
+ * StringBuilder and written to the Writer at once. Additionally, it offers several methods:
+ *
+ * toString() - GETTER METHOD: the number of frames and characters written
+ * getFrames() - GETTER METHOD: the number of frames written
+ * getWritten() - GETTER METHOD: the number of characters written
+ *
+ * render(Board) - draw the Board, only where it changed
+ * redraw(Board) - draw the whole Board on a cleared screen
+ * message(String) - draw a line of text under the Board
+ * close() - show the cursor again and move it under the Board
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class TerminalRenderer {
+  // ESC: the start of every ANSI escape code
+  // TOP: the line of the first row of the Board, under the title
+  // MIN_WIDTH: the smallest width of the value of a Tile
+  static final String ESC = "\u001b[";
+  static final int TOP = 3;
+  static final int MIN_WIDTH = 4;
+
+  // out: where the frames are written
+  // color: if the Tiles are drawn with their colors
+  // frame: the frame being built, reused for every frame
+  // shown: the exponent of every Tile on the screen, null before the first frame
+  // shownScore: the score on the screen
+  // shownOver: if the game over line is on the screen
+  // grid: the grid size on the screen
+  // multiplier: the multiplier on the screen
+  // width: the width of the value of every Tile on the screen
+  // frames: the number of frames written
+  // written: the number of characters written
+  private final Writer out;
+  private final boolean color;
+  private final StringBuilder frame = new StringBuilder(1 << 12);
+  private byte[] shown;
+  private long shownScore;
+  private boolean shownOver;
+  private int grid;
+  private int multiplier;
+  private int width;
+  private long frames;
+  private long written;
+
+
+
+  /**
+   * Constructor for a TerminalRenderer with:
+   * out: input
+   * color: input
+   *
+   * @param out is where the frames are written, such as a buffered writer of System.out
+   * @param color is if the Tiles are drawn with their 24-bit colors
+   */
+  public TerminalRenderer(Writer out, boolean color) {
+    this.out = out;
+    this.color = color;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * To get the number of frames and characters written.
+   *
+   * @return the frames, the characters and the characters per frame
+   */
+  @Override
+  public String toString() {
+    return String.format("frames: %d, characters: %d (%.1f per frame)", this.frames,
+            this.written, this.frames == 0 ? 0 : (double) this.written / this.frames);
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of frames written
+   *
+   * @return the number of frames
+   */
+  public long getFrames() {
+    return this.frames;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of characters written
+   *
+   * @return the number of characters
+   */
+  public long getWritten() {
+    return this.written;
+  }
+
+
+
+  /**
+   * To draw the Board, only where it changed since the last frame.
+   * - draw everything if the grid size or the multiplier changed
+   * - otherwise draw the score if it changed, and every Tile whose exponent changed
+   * - only a Tile that changed can be wider than the others, so check its width alone, and draw
+   * everything wider instead if it does not fit
+   * - draw or clear the game over line if it changed
+   *
+   * @param board is the Board
+   * @throws IOException if the frame cannot be written
+   */
+  public void render(Board board) throws IOException {
+    if (this.shown == null || this.grid != board.getGrid()
+            || this.multiplier != board.getMultiplier()) {
+      this.redraw(board);
+      return;
+    }
+
+    // To draw the score if it changed
+    if (this.shownScore != board.getScore()) {
+      this.drawScore(board.getScore());
+    }
+    // To draw only the Tiles that changed
+    for (int i = 0; i < this.grid; i++) {
+      for (int j = 0; j < this.grid; j++) {
+        int exponent = board.getExponent(i, j);
+        if (this.shown[i * this.grid + j] != exponent) {
+          // To drop the frame so far and draw everything wider if the value does not fit
+          if (this.widthOf(exponent) > this.width) {
+            this.frame.setLength(0);
+            this.redraw(board);
+            return;
+          }
+          this.drawTile(i, j, exponent);
+        }
+      }
+    }
+    boolean over = !board.hasLegalMove();
+    if (this.shownOver != over) {
+      this.drawOver(over);
+    }
+    this.flush();
+  }
+
+  /**
+   * To draw the whole Board on a cleared screen, with the title, the score and the help line.
+   *
+   * @param board is the Board
+   * @throws IOException if the frame cannot be written
+   */
+  public void redraw(Board board) throws IOException {
+    this.grid = board.getGrid();
+    this.multiplier = board.getMultiplier();
+    this.shown = new byte[this.grid * this.grid];
+    // To fit the widest value of the Board
+    this.width = MIN_WIDTH;
+    for (int i = 0; i < this.grid; i++) {
+      for (int j = 0; j < this.grid; j++) {
+        this.width = Math.max(this.width, this.widthOf(board.getExponent(i, j)));
+      }
+    }
+
+    // To clear the screen, hide the cursor and draw the title
+    this.frame.append(ESC).append("?25l").append(ESC).append("2J");
+    this.moveTo(1, 1);
+    this.frame.append("2048   score ");
+    this.drawScore(board.getScore());
+    // To draw every Tile
+    for (int i = 0; i < this.grid; i++) {
+      for (int j = 0; j < this.grid; j++) {
+        this.drawTile(i, j, board.getExponent(i, j));
+      }
+    }
+    this.moveTo(TOP + this.grid + 2, 1);
+    this.frame.append("wasd/arrows move, u undo, r redo, n new game, q quit");
+    this.drawOver(!board.hasLegalMove());
+    this.flush();
+  }
+
+  /**
+   * To draw a line of text under the Board, instead of the last one.
+   *
+   * @param text is the text
+   * @throws IOException if the frame cannot be written
+   */
+  public void message(String text) throws IOException {
+    this.moveTo(TOP + this.grid + 3, 1);
+    this.frame.append(text).append(ESC).append('K');
+    this.flush();
+  }
+
+  /**
+   * To show the cursor again and move it under the Board, before the program exits.
+   *
+   * @throws IOException if the frame cannot be written
+   */
+  public void close() throws IOException {
+    this.moveTo(TOP + this.grid + 4, 1);
+    this.frame.append(ESC).append("?25h");
+    this.flush();
+  }
+
+  /**
+   * To find the width of the value of a Tile on the screen.
+   *
+   * @param exponent is the exponent of the Tile
+   * @return the number of digits of its value, 0 for the empty Tile
+   */
+  private int widthOf(int exponent) {
+    return exponent == 0 ? 0 : digits(Tile.of(exponent, this.multiplier).getValue());
+  }
+
+  /**
+   * To draw the score after the title.
+   *
+   * @param score is the score
+   */
+  private void drawScore(long score) {
+    this.moveTo(1, 14);
+    this.frame.append(score).append(ESC).append('K');
+    this.shownScore = score;
+  }
+
+  /**
+   * To draw one Tile, with its value in the middle of its cell.
+   *
+   * @param i is the row of the Tile
+   * @param j is the column of the Tile
+   * @param exponent is the exponent of the Tile
+   */
+  private void drawTile(int i, int j, int exponent) {
+    Tile tile = Tile.of(exponent, this.multiplier);
+    this.moveTo(TOP + i, 1 + j * (this.width + 3));
+    if (this.color) {
+      this.color(48, tile.getBackgroundColor());
+      this.color(38, tile.getTextColor());
+    }
+
+    // To pad the value to the middle of the cell
+    int digits = tile.isEmpty() ? (this.color ? 0 : 1) : digits(tile.getValue());
+    int left = (this.width - digits + 1) / 2 + 1;
+    int right = this.width + 2 - digits - left;
+    for (int pad = 0; pad < left; pad++) {
+      this.frame.append(' ');
+    }
+    if (!tile.isEmpty()) {
+      this.frame.append(tile.getValue());
+    }
+    else if (!this.color) {
+      this.frame.append('.');
+    }
+    for (int pad = 0; pad < right; pad++) {
+      this.frame.append(' ');
+    }
+    if (this.color) {
+      this.frame.append(ESC).append('m');
+    }
+    this.shown[i * this.grid + j] = (byte) exponent;
+  }
+
+  /**
+   * To draw or clear the game over line under the Board.
+   *
+   * @param over is if the game is over
+   */
+  private void drawOver(boolean over) {
+    this.moveTo(TOP + this.grid + 1, 1);
+    if (over) {
+      this.frame.append("Game over! Press n for a new game.");
+    }
+    this.frame.append(ESC).append('K');
+    this.shownOver = over;
+  }
+
+  /**
+   * To move the cursor.
+   *
+   * @param line is the line, from 1
+   * @param column is the column, from 1
+   */
+  private void moveTo(int line, int column) {
+    this.frame.append(ESC).append(line).append(';').append(column).append('H');
+  }
+
+  /**
+   * To set a 24-bit color.
+   *
+   * @param layer is 48 for the background or 38 for the text
+   * @param rgb is the color
+   */
+  private void color(int layer, Color rgb) {
+    this.frame.append(ESC).append(layer).append(";2;").append(rgb.getRed()).append(';')
+            .append(rgb.getGreen()).append(';').append(rgb.getBlue()).append('m');
+  }
+
+  /**
+   * To write the frame at once and start the next one.
+   *
+   * @throws IOException if the frame cannot be written
+   */
+  private void flush() throws IOException {
+    this.out.append(this.frame);
+    this.out.flush();
+    this.written += this.frame.length();
+    this.frames++;
+    this.frame.setLength(0);
+  }
+
+  /**
+   * To count the decimal digits of a value.
+   *
+   * @param value is the value, 0 or more
+   * @return the number of digits
+   */
+  static int digits(long value) {
+    int digits = 1;
+    for (long rest = value / 10; rest != 0; rest /= 10) {
+      digits++;
+    }
+    return digits;
+  }
+}
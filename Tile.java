@@ -1,27 +1,34 @@
 import java.awt.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Tile represents a Tile in a Board, and it stores the information of a Tile, including
- * if it is empty or not and its value. Additionally, it offers several methods:
+ * if it is empty or not, its value and its exponent. A Tile never changes, so there is only one
+ * Tile for every exponent of every multiplier: Tile.of() hands out the same instances, built once
+ * per multiplier together with their colors, and the colors come from one shared palette.
+ * Additionally, it offers several methods:
  *
  * toString() - GETTER METHOD: the string representation of the Tile
  * isEmpty() - GETTER METHOD: if the Tile is empty or not
  * getValue() - GETTER METHOD: the value of the Tile
- * getBackgroundColor(int) - GETTER METHOD: the background color
- * getTextColor(int) - GETTER METHOD: the text color
+ * getExponent() - GETTER METHOD: the exponent of the Tile
+ * getBackgroundColor() - GETTER METHOD: the background color
+ * getTextColor() - GETTER METHOD: the text color
  *
- * setValue(int) - set the value of the Tile
+ * of(int, int) - get the Tile of an exponent of a multiplier
+ * forMultiplier(int) - get the Tiles of every exponent of a multiplier
  *
  * @author Jiaying Zheng
  * @version Feb 7, 2023
  */
 public class Tile {
-  // value: the value of the tile
-  // isEmpty: if the tile is empty or not
-  // backgroundColor: the background color
-  private int value;
-  private boolean isEmpty;
-  Color[] backgroundColor = {new Color(205,191,180),
+  // BACKGROUND: the background color of every exponent, the last one for all the bigger ones
+  // DARK_TEXT: the text color of the empty Tile and the small exponents
+  // LIGHT_TEXT: the text color of the big exponents
+  // DARK_EXPONENTS: the biggest exponent with the dark text color
+  // EMPTY: the empty Tile, shared by every multiplier
+  // TILES: the Tiles of every exponent of every multiplier seen so far
+  static final Color[] BACKGROUND = {new Color(205,191,180),
           new Color(210, 225, 230),
           new Color(170, 200,220),
           new Color(120, 174, 211),
@@ -31,6 +38,22 @@ public class Tile {
           new Color(47, 56, 123),
           new Color(29, 37, 112),
           new Color(12, 2, 62)};
+  static final Color DARK_TEXT = new Color(118,110,101);
+  static final Color LIGHT_TEXT = new Color(250,246,242);
+  static final int DARK_EXPONENTS = 3;
+  static final Tile EMPTY = new Tile();
+  private static final ConcurrentHashMap<Integer, Tile[]> TILES = new ConcurrentHashMap<>();
+
+  // value: the value of the tile
+  // exponent: the exponent of the multiplier that makes the value, 0 if the tile is empty
+  // isEmpty: if the tile is empty or not
+  // backgroundColor: the background color
+  // textColor: the text color
+  private final long value;
+  private final int exponent;
+  private final boolean isEmpty;
+  private final Color backgroundColor;
+  private final Color textColor;
 
 
 
@@ -40,25 +63,27 @@ public class Tile {
    * isEmpty: true
    */
   public Tile() {
-    this.value = 0;
-    this.isEmpty = true;
+    this(0, 0);
   }
 
   /**
    * Constructor for a tile with:
    * value: given value
+   * exponent: given exponent
    * isEmpty: true if value = 0 or the opposite
+   * colors: the colors of the exponent in the palette
    *
    * @param value is the given value for the tile
+   * @param exponent is the exponent of the multiplier that makes the value
    */
-  public Tile(int value) {
+  private Tile(long value, int exponent) {
     this.value = value;
-    if(value != 0) {
-      this.isEmpty = false;
-    }
-    else{
-      this.isEmpty = true;
-    }
+    this.exponent = exponent;
+    this.isEmpty = value == 0;
+    // To look up the colors once, instead of on every paint
+    this.backgroundColor = this.isEmpty ? BACKGROUND[0]
+            : BACKGROUND[Math.min(exponent, BACKGROUND.length - 1)];
+    this.textColor = this.isEmpty || exponent <= DARK_EXPONENTS ? DARK_TEXT : LIGHT_TEXT;
   }
 
 
@@ -92,58 +117,83 @@ public class Tile {
    *
    * @return the value of the tile
    */
-  public int getValue() {
+  public long getValue() {
     return this.value;
   }
 
+  /**
+   * GETTER METHOD:
+   * Return the exponent of the Tile
+   *
+   * @return the exponent of the multiplier that makes the value, 0 if the tile is empty
+   */
+  public int getExponent() {
+    return this.exponent;
+  }
+
   /**
    * GETTER METHOD:
    * Return the background color
-   * @param multiplier is the multiplier
+   *
    * @return the background color
    */
-  public Color getBackgroundColor(int multiplier) {
-    if(this.isEmpty) {
-      return this.backgroundColor[0];
-    }
-
-    int index = (int) (Math.log(this.value) / Math.log(multiplier));
-    if(index >= 9) {
-      return backgroundColor[9];
-    }
-    return backgroundColor[index];
+  public Color getBackgroundColor() {
+    return this.backgroundColor;
   }
 
   /**
    * GETTER METHOD:
    * Return the text color
-   * @param multiplier is the multiplier
+   *
    * @return the text color
    */
-  public Color getTextColor(int multiplier) {
-    if(this.isEmpty) {
-      return new Color(118,110,101);
-    }
-    int index = (int) (Math.log(this.value) / Math.log(multiplier));
-    if(index <= 3) {
-      return new Color(118,110,101);
-    }
-    return new Color(250,246,242);
+  public Color getTextColor() {
+    return this.textColor;
   }
 
 
 
   /**
-   * To set the value of a tile.
-   * @param value is the value to be set on the tile
+   * To get the shared Tile of an exponent of a multiplier.
+   *
+   * @param exponent is the exponent, 0 for the empty Tile
+   * @param multiplier is the multiplier
+   * @return the Tile whose value is multiplier ^ exponent
    */
-  public void setValue(int value) {
-    this.value = value;
-    if(value == 0){
-      this.isEmpty = true;
-    }
-    else {
-      this.isEmpty = false;
+  public static Tile of(int exponent, int multiplier) {
+    return forMultiplier(multiplier)[exponent];
+  }
+
+  /**
+   * To get the shared Tiles of every exponent of a multiplier, until the value no longer fits in
+   * a long (or in a byte of exponent). They are built the first time a multiplier is seen.
+   *
+   * @param multiplier is the multiplier
+   * @return the Tile of every exponent, the empty Tile first
+   */
+  public static Tile[] forMultiplier(int multiplier) {
+    Tile[] tiles = TILES.get(multiplier);
+    if (tiles != null) {
+      return tiles;
     }
+    return TILES.computeIfAbsent(multiplier, m -> {
+      // To find the biggest exponent whose value still fits in a long (and in a byte)
+      int maxExponent = 1;
+      long value = m;
+      while (maxExponent < Byte.MAX_VALUE && m > 1 && value <= Long.MAX_VALUE / m) {
+        value *= m;
+        maxExponent++;
+      }
+
+      // To create the Tile of every exponent once
+      Tile[] created = new Tile[maxExponent + 1];
+      created[0] = EMPTY;
+      value = 1;
+      for (int i = 1; i <= maxExponent; i++) {
+        value *= m;
+        created[i] = new Tile(value, i);
+      }
+      return created;
+    });
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,185 @@
+import java.util.Arrays;
+
+/**
+ * TranspositionTable caches the values of searched positions, keyed by the 64-bit key of a Board.
+ * It is an open-addressing table of primitive arrays with a fixed size, so nothing is boxed and
+ * nothing is allocated after it is created. A key is looked for in a small window of slots after
+ * its home slot. When the window is full, the entry to evict is the one from the oldest search,
+ * and then the shallowest one. Additionally, it offers several methods:
+ *
+ * getCapacity() - GETTER METHOD: the number of slots
+ * getHits() - GETTER METHOD: the number of lookups that found a value
+ * getLookups() - GETTER METHOD: the number of lookups
+ *
+ * lookup(long, int) - find the value of a position searched at least as deep
+ * store(long, int, double) - store the value of a position
+ * nextGeneration() - age the entries before a new search
+ * clear() - remove all the entries
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class TranspositionTable {
+  // WINDOW: the number of slots a key can be stored in, starting from its home slot
+  // MISSING: the value returned by lookup() when the position is not in the table
+  static final int WINDOW = 4;
+  static final double MISSING = Double.NaN;
+
+  // keys: the key of every slot
+  // values: the value of every slot
+  // depths: the depth of every slot plus one, 0 if the slot is empty
+  // generations: the search every slot was stored by
+  // mask: the capacity minus one, to find the home slot of a key
+  // generation: the current search
+  private final long[] keys;
+  private final double[] values;
+  private final byte[] depths;
+  private final byte[] generations;
+  private final int mask;
+  private byte generation;
+  private long hits;
+  private long lookups;
+
+
+
+  /**
+   * Constructor for an empty TranspositionTable with:
+   * capacity: the smallest power of two that is at least the input
+   *
+   * @param capacity is the minimum number of slots
+   */
+  public TranspositionTable(int capacity) {
+    int size = Integer.highestOneBit(Math.max(WINDOW, capacity - 1)) << 1;
+    this.keys = new long[size];
+    this.values = new double[size];
+    this.depths = new byte[size];
+    this.generations = new byte[size];
+    this.mask = size - 1;
+  }
+
+
+
+  /**
+   * GETTER METHOD:
+   * Return the number of slots
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return this.keys.length;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of lookups that found a value
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * GETTER METHOD:
+   * Return the number of lookups
+   *
+   * @return the number of lookups
+   */
+  public long getLookups() {
+    return this.lookups;
+  }
+
+
+
+  /**
+   * To find the value of a position that was searched at least as deep as needed.
+   *
+   * @param key is the key of the position
+   * @param depth is the depth needed
+   * @return the value, or MISSING if there is none
+   */
+  public double lookup(long key, int depth) {
+    this.lookups++;
+    int home = home(key) & this.mask;
+    // To look through the window
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (home + i) & this.mask;
+      if (this.depths[slot] != 0 && this.keys[slot] == key) {
+        // To only use the values searched deep enough
+        if (this.depths[slot] - 1 >= depth) {
+          this.hits++;
+          this.generations[slot] = this.generation;
+          return this.values[slot];
+        }
+        return MISSING;
+      }
+    }
+    return MISSING;
+  }
+
+  /**
+   * To store the value of a position.
+   * - replace the entry of the same key if there is one
+   * - otherwise use an empty slot of the window
+   * - otherwise evict the entry from the oldest search, and then the shallowest one
+   *
+   * @param key is the key of the position
+   * @param depth is the depth the position was searched to
+   * @param value is the value of the position
+   */
+  public void store(long key, int depth, double value) {
+    int home = home(key) & this.mask;
+    int victim = -1;
+    int victimPriority = Integer.MAX_VALUE;
+
+    // To look through the window
+    for (int i = 0; i < WINDOW; i++) {
+      int slot = (home + i) & this.mask;
+      // To use the slot of the same key, or an empty slot
+      if (this.depths[slot] == 0 || this.keys[slot] == key) {
+        victim = slot;
+        break;
+      }
+      // The entries of this search are worth more than the older ones, then the deeper ones
+      int priority = this.depths[slot] + (this.generations[slot] == this.generation ? 256 : 0);
+      if (priority < victimPriority) {
+        victim = slot;
+        victimPriority = priority;
+      }
+    }
+
+    this.keys[victim] = key;
+    this.values[victim] = value;
+    this.depths[victim] = (byte) (Math.min(depth, Byte.MAX_VALUE - 1) + 1);
+    this.generations[victim] = this.generation;
+  }
+
+  /**
+   * To age the entries before a new search, so they are evicted first once the table is full.
+   */
+  public void nextGeneration() {
+    this.generation++;
+  }
+
+  /**
+   * To remove all the entries.
+   */
+  public void clear() {
+    Arrays.fill(this.depths, (byte) 0);
+    this.hits = 0;
+    this.lookups = 0;
+  }
+
+  /**
+   * To mix the bits of a key, so keys that differ in a few bits land far apart.
+   *
+   * @param key is the key of a position
+   * @return the mixed key
+   */
+  private static int home(long key) {
+    key ^= key >>> 33;
+    key *= 0xFF51AFD7ED558CCDL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+}
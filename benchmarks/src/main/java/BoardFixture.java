@@ -0,0 +1,131 @@
+import java.util.Random;
+
+import benchmarks.BoardOperations;
+
+/**
+ * BoardFixture implements the Board benchmarks on a pool of mid-game positions. The operations
+ * that change the Board first copy a position into a scratch Board, so copy() is measured on its
+ * own as the baseline to subtract. Additionally, it offers several methods:
+ *
+ * positions(Board[], Random) - play random legal moves on every Board of a pool
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class BoardFixture implements BoardOperations {
+  // POOL: the number of positions, a power of two so the next one is found with a mask
+  static final int POOL = 64;
+
+  // positions: the pool of mid-game positions
+  // scratch: the Board every position is copied into before it is changed
+  // next: the index of the next position
+  private Board[] positions;
+  private Board scratch;
+  private int next;
+
+
+
+  @Override
+  public void setUp(int multiplier, int grid, boolean bitBoard) {
+    this.positions = new Board[POOL];
+    for (int i = 0; i < POOL; i++) {
+      this.positions[i] = bitBoard ? new Board(multiplier) : new Board(multiplier, grid);
+    }
+    positions(this.positions, new Random(2048));
+    this.scratch = new Board(this.positions[0]);
+  }
+
+  @Override
+  public void setSwar(boolean swar) {
+    this.scratch.setPool(null);
+    this.scratch.setSwar(swar);
+  }
+
+  /**
+   * To play random legal moves on every Board of a pool, until a random number of moves (up to
+   * one per cell) is played or the game is over.
+   *
+   * @param pool is the Boards to be played
+   * @param random is the source of the random moves
+   */
+  static void positions(Board[] pool, Random random) {
+    Direction[] directions = Direction.values();
+    for (Board board : pool) {
+      int cells = board.getGrid() * board.getGrid();
+      int moves = random.nextInt(cells) + 1;
+      for (int i = 0; i < moves && board.hasLegalMove(); i++) {
+        int legal = board.legalMoves();
+        // To pick a random legal Direction
+        Direction direction = directions[random.nextInt(4)];
+        while (!direction.isIn(legal)) {
+          direction = directions[random.nextInt(4)];
+        }
+        board.move(direction);
+        board.spawn();
+      }
+    }
+  }
+
+  /**
+   * To find the next position of the pool.
+   *
+   * @return the next position
+   */
+  private Board position() {
+    return this.positions[this.next++ & (POOL - 1)];
+  }
+
+
+
+  @Override
+  public long copy() {
+    this.scratch.copyFrom(this.position());
+    return this.scratch.getScore();
+  }
+
+  @Override
+  public long left() {
+    this.scratch.copyFrom(this.position());
+    return this.scratch.left().getScoreGained();
+  }
+
+  @Override
+  public long right() {
+    this.scratch.copyFrom(this.position());
+    return this.scratch.right().getScoreGained();
+  }
+
+  @Override
+  public long up() {
+    this.scratch.copyFrom(this.position());
+    return this.scratch.up().getScoreGained();
+  }
+
+  @Override
+  public long down() {
+    this.scratch.copyFrom(this.position());
+    return this.scratch.down().getScoreGained();
+  }
+
+  @Override
+  public int spawn() {
+    this.scratch.copyFrom(this.position());
+    this.scratch.spawn();
+    return this.scratch.getEmptyCount();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.position().isGameOver();
+  }
+
+  @Override
+  public boolean containEmptyTile() {
+    return this.position().containEmptyTile();
+  }
+
+  @Override
+  public String string() {
+    return this.position().toString();
+  }
+}
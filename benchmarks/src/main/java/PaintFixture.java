@@ -0,0 +1,45 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import benchmarks.PaintOperations;
+
+/**
+ * PaintFixture implements the paint benchmark by painting a Game with a mid-game position into an
+ * offscreen image the size of the window, so no display is needed.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public class PaintFixture implements PaintOperations {
+  // game: the Game to be painted
+  // graphics: the offscreen Graphics2D
+  private Game game;
+  private Graphics2D graphics;
+
+
+
+  @Override
+  public void setUp(int multiplier, int grid) {
+    Board[] position = {new Board(multiplier, grid)};
+    BoardFixture.positions(position, new Random(2048));
+
+    this.game = new Game();
+    this.game.board = position[0];
+    int width = 400 + 2 * Game.margin;
+    int height = 400 + 100 + 2 * Game.margin;
+    this.game.setSize(width, height);
+    this.graphics = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB).createGraphics();
+  }
+
+  @Override
+  public void tearDown() {
+    this.graphics.dispose();
+  }
+
+  @Override
+  public Graphics2D paint() {
+    this.game.paint(this.graphics);
+    return this.graphics;
+  }
+}
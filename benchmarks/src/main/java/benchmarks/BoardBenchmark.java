@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BoardBenchmark measures the hot paths of a Board that is backed by the cells array, across grid
+ * sizes and multipliers. Subtract copy() from the moves and spawn(), since they copy a position
+ * before changing it.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+  // grid: the grid size of the Boards
+  // multiplier: the multiplier of the Boards
+  // board: the operations to be measured
+  @Param({"4", "8", "16", "64"})
+  int grid;
+  @Param({"2", "3"})
+  int multiplier;
+  BoardOperations board;
+
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.board = BoardOperations.create();
+    this.board.setUp(this.multiplier, this.grid, false);
+  }
+
+  @Benchmark
+  public long copy() {
+    return this.board.copy();
+  }
+
+  @Benchmark
+  public long left() {
+    return this.board.left();
+  }
+
+  @Benchmark
+  public long right() {
+    return this.board.right();
+  }
+
+  @Benchmark
+  public long up() {
+    return this.board.up();
+  }
+
+  @Benchmark
+  public long down() {
+    return this.board.down();
+  }
+
+  @Benchmark
+  public int spawn() {
+    return this.board.spawn();
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return this.board.isGameOver();
+  }
+
+  @Benchmark
+  public boolean containEmptyTile() {
+    return this.board.containEmptyTile();
+  }
+
+  @Benchmark
+  public String string() {
+    return this.board.string();
+  }
+}
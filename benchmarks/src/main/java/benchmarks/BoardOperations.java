@@ -0,0 +1,59 @@
+package benchmarks;
+
+/**
+ * BoardOperations is what the Board benchmarks measure. The game lives in the default package,
+ * which JMH benchmarks cannot use (and cannot import), so the operations are implemented by
+ * BoardFixture in the default package and created by name. Additionally, it offers several
+ * methods:
+ *
+ * create() - create the BoardFixture
+ * setUp(int, int, boolean) - play the pool of mid-game positions
+ * setSwar(boolean) - move the scratch Board on one thread, with SwarSlide or without it
+ *
+ * copy() - copy a position into the scratch Board
+ * left() / right() / up() / down() - copy a position and move it
+ * spawn() - copy a position and spawn a Tile on it
+ * isGameOver() - check if a position is over
+ * containEmptyTile() - check if a position has an empty Tile
+ * string() - convert a position into a string
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public interface BoardOperations {
+  /**
+   * To create the BoardFixture from the default package.
+   *
+   * @return the BoardFixture
+   */
+  static BoardOperations create() {
+    try {
+      return (BoardOperations) Class.forName("BoardFixture").getDeclaredConstructor().newInstance();
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("BoardFixture is missing from the benchmarks", e);
+    }
+  }
+
+  void setUp(int multiplier, int grid, boolean bitBoard);
+
+  void setSwar(boolean swar);
+
+  long copy();
+
+  long left();
+
+  long right();
+
+  long up();
+
+  long down();
+
+  int spawn();
+
+  boolean isGameOver();
+
+  boolean containEmptyTile();
+
+  String string();
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PaintBenchmark measures Game.paint() without a display, by painting a mid-game position into an
+ * offscreen Graphics2D.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+  // grid: the grid size of the Board
+  // multiplier: the multiplier of the Board
+  // game: the operations to be measured
+  @Param({"4", "8", "16", "64"})
+  int grid;
+  @Param({"2", "3"})
+  int multiplier;
+  PaintOperations game;
+
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.game = PaintOperations.create();
+    this.game.setUp(this.multiplier, this.grid);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.game.tearDown();
+  }
+
+  @Benchmark
+  public Graphics2D paint() {
+    return this.game.paint();
+  }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+
+/**
+ * PaintOperations is what the paint benchmark measures, implemented by PaintFixture in the default
+ * package for the same reason as BoardOperations. Additionally, it offers several methods:
+ *
+ * create() - create the PaintFixture
+ * setUp(int, int) - create a Game with a mid-game position and the offscreen Graphics2D
+ * tearDown() - release the offscreen Graphics2D
+ *
+ * paint() - paint the whole Game
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+public interface PaintOperations {
+  /**
+   * To create the PaintFixture from the default package.
+   *
+   * @return the PaintFixture
+   */
+  static PaintOperations create() {
+    try {
+      return (PaintOperations) Class.forName("PaintFixture").getDeclaredConstructor().newInstance();
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("PaintFixture is missing from the benchmarks", e);
+    }
+  }
+
+  void setUp(int multiplier, int grid);
+
+  void tearDown();
+
+  Graphics2D paint();
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SwarBenchmark measures the moves of wide Boards on one thread, with the lines slid by SwarSlide
+ * and by the scalar kernel of Board, on the same positions. Subtract copy() from the moves, since
+ * they copy a position before moving it.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwarBenchmark {
+  // grid: the grid size of the Boards
+  // swar: if the lines are slid by SwarSlide
+  // board: the operations to be measured
+  @Param({"64", "128"})
+  int grid;
+  @Param({"true", "false"})
+  boolean swar;
+  BoardOperations board;
+
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.board = BoardOperations.create();
+    this.board.setUp(2, this.grid, false);
+    this.board.setSwar(this.swar);
+  }
+
+  @Benchmark
+  public long copy() {
+    return this.board.copy();
+  }
+
+  @Benchmark
+  public long left() {
+    return this.board.left();
+  }
+
+  @Benchmark
+  public long up() {
+    return this.board.up();
+  }
+}
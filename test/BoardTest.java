@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BoardTest checks that a 4x4 Board backed by a BitBoard plays the same game as one backed by the
+ * cells array, including the merge of two Tiles of BitBoard.MAX_EXPONENT, whose exponent does not
+ * fit in a nibble.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+class BoardTest {
+  // FULL: a full Board whose only merge is the two Tiles of exponent 15 in the first row
+  private static final int[][] FULL = {
+          {15, 15, 1, 2},
+          {1, 2, 3, 1},
+          {2, 3, 1, 2},
+          {3, 1, 2, 3}
+  };
+
+
+
+  @Test
+  void mergesTwoTilesOfTheBiggestNibble() {
+    Board board = board(new int[][] {{15, 15, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 0}},
+            true);
+    assertTrue(board.isBitBoard());
+
+    MoveResult result = board.left();
+    assertTrue(result.isMoved());
+    assertEquals(1, result.getMerges());
+    assertEquals(1L << 16, result.getScoreGained());
+    assertEquals(16, board.getExponent(0, 0));
+    assertEquals(0, board.getExponent(0, 1));
+    assertFalse(board.isBitBoard());
+  }
+
+  @Test
+  void isNotOverWhileTheBiggestNibblesCanMerge() {
+    Board packed = board(FULL, true);
+    Board array = board(FULL, false);
+    assertFalse(array.isGameOver());
+    assertFalse(packed.isGameOver());
+    assertTrue(packed.hasLegalMove());
+    assertEquals(array.legalMoves(), packed.legalMoves());
+    assertEquals(Direction.LEFT.getMask() | Direction.RIGHT.getMask(), packed.legalMoves());
+  }
+
+  @Test
+  void movesLikeTheCellsArrayAfterThePromotion() {
+    Board packed = board(FULL, true);
+    Board array = board(FULL, false);
+    assertEquals(array.right().getScoreGained(), packed.right().getScoreGained());
+    assertEquals(array.toString(), packed.toString());
+    assertEquals(array.getKey(), packed.getKey());
+    assertEquals(array.isGameOver(), packed.isGameOver());
+  }
+
+  @Test
+  void afterstatesMergeTheBiggestNibbles() {
+    Board board = board(FULL, true);
+    Afterstates afterstates = new Afterstates();
+    assertEquals(Direction.LEFT.getMask() | Direction.RIGHT.getMask(),
+            board.afterstates(afterstates));
+    assertEquals(16, afterstates.getBoard(Direction.LEFT).getExponent(0, 0));
+    assertEquals(16, afterstates.getBoard(Direction.RIGHT).getExponent(0, 1));
+  }
+
+  @Test
+  void refillsAnAfterstateThatWasPromoted() {
+    Board board = board(new int[][] {{1, 1, 0, 0}, {0, 2, 0, 0}, {0, 0, 0, 0}, {0, 0, 0, 3}},
+            true);
+    Afterstates afterstates = new Afterstates();
+    int changed = board.afterstates(afterstates);
+    Board up = new Board(afterstates.getBoard(Direction.UP));
+    // To promote one of the afterstates, leaving the others on a BitBoard
+    afterstates.getBoard(Direction.DOWN).setExponent(0, 3, 16);
+    assertFalse(afterstates.getBoard(Direction.DOWN).isBitBoard());
+
+    assertEquals(changed, board.afterstates(afterstates));
+    for (Direction direction : Direction.values()) {
+      assertTrue(afterstates.getBoard(direction).isBitBoard());
+    }
+    assertEquals(up.toString(), afterstates.getBoard(Direction.UP).toString());
+    assertEquals(3, afterstates.getBoard(Direction.DOWN).getExponent(3, 3));
+  }
+
+  @Test
+  void unpacksAStatePackedBeforeThePromotion() {
+    Board board = board(FULL, true);
+    long[] states = new long[2 * board.getPackedWords()];
+    board.pack(states, 0);
+    board.left();
+    board.pack(states, board.getPackedWords());
+
+    board.unpack(states, 0, 0);
+    assertEquals(board(FULL, false).toString(), board.toString());
+    board.unpack(states, board.getPackedWords(), 1L << 16);
+    assertEquals(16, board.getExponent(0, 0));
+    assertEquals(1L << 16, board.getScore());
+  }
+
+  @Test
+  void copiesAcrossBackends() {
+    Board packed = board(FULL, true);
+    Board promoted = board(FULL, true);
+    promoted.left();
+    packed.copyFrom(promoted);
+    assertFalse(packed.isBitBoard());
+    assertEquals(promoted.toString(), packed.toString());
+
+    promoted.copyFrom(board(FULL, true));
+    assertTrue(promoted.isBitBoard());
+    assertEquals(board(FULL, false).toString(), promoted.toString());
+  }
+
+  @Test
+  void refusesAMultiplierThatOverflowsTheNibbles() {
+    assertThrows(IllegalArgumentException.class, () -> new BitBoard(19));
+    assertFalse(new Board(19).isBitBoard());
+    assertTrue(new Board(18).isBitBoard());
+  }
+
+
+
+  /**
+   * To create a 4x4 Board with the given exponents and no score.
+   *
+   * @param exponents is the exponent of every Tile
+   * @param bitBoard is if the Board should be backed by a BitBoard
+   * @return the Board
+   */
+  private static Board board(int[][] exponents, boolean bitBoard) {
+    Board board = new Board(2, bitBoard);
+    for (int i = 0; i < 4; i++) {
+      for (int j = 0; j < 4; j++) {
+        board.setExponent(i, j, exponents[i][j]);
+      }
+    }
+    return board;
+  }
+}
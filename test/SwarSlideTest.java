@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SwarSlideTest checks that SwarSlide slides and merges a line the same way as the scalar kernel
+ * of Board: one merge for every pair of equal Tiles, from the cell the Tiles move towards, and
+ * never a merge of the largest exponent. Boards of every width up to 3 words past SWAR_GRID are
+ * moved with the kernel on one thread and across a pool, and compared with the scalar moves.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+class SwarSlideTest {
+  // POWERS: the value of every exponent of a multiplier of 2, the last of which cannot grow
+  // POOL: the pool the columns of a split move are slid by SwarSlide on
+  private static final long[] POWERS = new long[32];
+  private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+  static {
+    for (int exponent = 1; exponent < POWERS.length; exponent++) {
+      POWERS[exponent] = 1L << exponent;
+    }
+  }
+
+
+
+  @AfterAll
+  static void shutDown() {
+    POOL.shutdown();
+  }
+
+  @Test
+  void mergesEveryPairOnceFromTheStart() {
+    byte[] line = {1, 1, 1, 0, 1, 2, 2, 2, 2, 0, 0, 3, 3, 3, 4, 0, 4, 5, 0, 5};
+    MoveResult result = new MoveResult();
+    SwarSlide.slide(line, 0, 1, line.length, POWERS, SwarSlide.scratch(line.length), result);
+    assertArrayEquals(new byte[] {2, 2, 3, 3, 4, 3, 5, 6, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+            line);
+    assertTrue(result.isMoved());
+    assertEquals(7, result.getMerges());
+    assertEquals(4 + 4 + 8 + 8 + 16 + 32 + 64, result.getScoreGained());
+  }
+
+  @Test
+  void mergesEveryPairOnceFromTheEnd() {
+    byte[] line = {1, 1, 1, 0, 1, 2, 2, 2, 2, 0, 0, 3, 3, 3, 4, 0, 4, 5, 0, 5};
+    MoveResult result = new MoveResult();
+    SwarSlide.slide(line, line.length - 1, -1, line.length, POWERS,
+            SwarSlide.scratch(line.length), result);
+    assertArrayEquals(new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 2, 3, 3, 3, 4, 5, 6},
+            line);
+    assertTrue(result.isMoved());
+    assertEquals(7, result.getMerges());
+    assertEquals(4 + 4 + 8 + 8 + 16 + 32 + 64, result.getScoreGained());
+  }
+
+  @Test
+  void neverGrowsTheLargestExponent() {
+    int largest = POWERS.length - 1;
+    byte[] line = new byte[9];
+    line[3] = (byte) largest;
+    line[8] = (byte) largest;
+    MoveResult result = new MoveResult();
+    SwarSlide.slide(line, 0, 1, line.length, POWERS, SwarSlide.scratch(line.length), result);
+    assertEquals(largest, line[0]);
+    assertEquals(largest, line[1]);
+    assertEquals(0, result.getMerges());
+
+    // To leave a line whose Tiles cannot move unchanged
+    result.reset();
+    SwarSlide.slide(line, 0, 1, line.length, POWERS, SwarSlide.scratch(line.length), result);
+    assertFalse(result.isMoved());
+  }
+
+  @Test
+  void movesLikeTheScalarKernel() {
+    SplittableRandom random = new SplittableRandom(2048);
+    for (int length = 1; length <= Board.SWAR_GRID + 25; length++) {
+      for (int multiplier = 2; multiplier <= 3; multiplier++) {
+        Board scalar = board(multiplier, length, false, null);
+        Board swar = board(multiplier, length, true, null);
+        Board split = board(multiplier, length, true, POOL);
+        for (int trial = 0; trial < 4; trial++) {
+          // To fill the Boards with small exponents, or with ones next to the largest
+          int largest = Tile.forMultiplier(multiplier).length - 1;
+          for (int x = 0; x < length; x++) {
+            for (int y = 0; y < length; y++) {
+              int exponent = random.nextInt(4) == 0 ? 0 : trial % 2 == 0
+                      ? 1 + random.nextInt(3) : largest - random.nextInt(3);
+              scalar.setExponent(x, y, exponent);
+              swar.setExponent(x, y, exponent);
+              split.setExponent(x, y, exponent);
+            }
+          }
+          for (Direction direction : Direction.values()) {
+            String expected = scalar.move(direction).toString();
+            assertMovedAlike(scalar, swar, expected, swar.move(direction).toString(), direction);
+            assertMovedAlike(scalar, split, expected, split.move(direction).toString(), direction);
+          }
+        }
+      }
+    }
+  }
+
+
+
+  /**
+   * To create a Board of a grid size that slides its lines with SwarSlide or without it.
+   *
+   * @param multiplier is the multiplier of the Board
+   * @param grid is the grid size of the Board
+   * @param swar is if the lines are slid by SwarSlide
+   * @param pool is the pool the moves are split across, null to move on this thread
+   * @return the Board
+   */
+  private static Board board(int multiplier, int grid, boolean swar, ForkJoinPool pool) {
+    Board board = new Board(multiplier, grid);
+    board.setPool(pool);
+    board.setSwar(swar);
+    return board;
+  }
+
+  /**
+   * To check that a Board moved the same way as the scalar one, down to its empty cells, its
+   * legal moves and its key.
+   *
+   * @param scalar is the Board moved by the scalar kernel
+   * @param board is the Board moved by SwarSlide
+   * @param expected is the MoveResult of the scalar move
+   * @param actual is the MoveResult of the move with SwarSlide
+   * @param direction is the Direction of the move
+   */
+  private static void assertMovedAlike(Board scalar, Board board, String expected, String actual,
+                                 Direction direction) {
+    String message = direction + " on a " + scalar.getGrid() + "x" + scalar.getGrid() + " Board";
+    assertEquals(expected, actual, message);
+    assertEquals(scalar.toString(), board.toString(), message);
+    assertEquals(scalar.getScore(), board.getScore(), message);
+    assertEquals(scalar.getEmptyCount(), board.getEmptyCount(), message);
+    assertEquals(scalar.legalMoves(), board.legalMoves(), message);
+    assertEquals(scalar.getKey(), board.getKey(), message);
+  }
+}
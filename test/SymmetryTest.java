@@ -0,0 +1,128 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SymmetryTest checks that every one of the 8 turns of a Board commutes with every move: turning
+ * a Board and moving it in the turned Direction gives the same Board as moving it and then turning
+ * it. It also checks that a 4x4 Board picks the same canonical turn, and so the same key for that
+ * turn, whether it is backed by a BitBoard or by the cells array.
+ *
+ * @author Jiaying Zheng
+ * @version Oct 18, 2026
+ */
+class SymmetryTest {
+  // BOARDS: the number of random Boards every check is run on
+  // SEED: the seed of the random Boards
+  private static final int BOARDS = 200;
+  private static final long SEED = 2048;
+
+
+
+  @Test
+  void turnsBackWithTheInverse() {
+    for (Symmetry symmetry : Symmetry.values()) {
+      for (int grid = 2; grid <= 5; grid++) {
+        for (int index = 0; index < grid * grid; index++) {
+          assertEquals(index, symmetry.inverse().map(symmetry.map(index, grid), grid));
+        }
+      }
+      for (Direction direction : Direction.values()) {
+        assertEquals(direction, symmetry.inverse().apply(symmetry.apply(direction)));
+      }
+    }
+  }
+
+  @Test
+  void movesTheSameBeforeAndAfterTheTurn() {
+    SplittableRandom random = new SplittableRandom(SEED);
+    for (int n = 0; n < BOARDS; n++) {
+      for (int grid : new int[] {4, 5}) {
+        for (boolean bitBoard : new boolean[] {true, false}) {
+          if (grid != 4 && bitBoard) {
+            continue;
+          }
+          Board board = board(random, grid, bitBoard, 6);
+          for (Symmetry symmetry : Symmetry.values()) {
+            for (Direction direction : Direction.values()) {
+              Board moved = new Board(board);
+              MoveResult before = moved.move(direction);
+              Board turned = turn(board, symmetry, bitBoard);
+              MoveResult after = turned.move(symmetry.apply(direction));
+
+              assertEquals(before.isMoved(), after.isMoved());
+              assertEquals(before.getMerges(), after.getMerges());
+              assertEquals(before.getScoreGained(), after.getScoreGained());
+              assertEquals(turn(moved, symmetry, bitBoard).toString(), turned.toString());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void picksTheSameCanonicalTurnOnBothBackends() {
+    SplittableRandom random = new SplittableRandom(SEED);
+    for (int n = 0; n < BOARDS; n++) {
+      Board packed = board(random, 4, true, 15);
+      Board array = turn(packed, Symmetry.IDENTITY, false);
+      Symmetry fromPacked = Symmetry.canonical(packed);
+      Symmetry fromArray = Symmetry.canonical(array);
+
+      assertEquals(turn(packed, fromPacked, false).toString(),
+              turn(array, fromArray, false).toString());
+      assertEquals(Symmetry.canonicalKey(packed), fromArray.apply(packed.getKey()));
+      assertEquals(Symmetry.canonicalKey(array), fromPacked.key(array));
+      // To check that the 8 turns of the Board share the key of the canonical turn
+      for (Symmetry symmetry : Symmetry.values()) {
+        assertEquals(Symmetry.canonicalKey(packed),
+                Symmetry.canonicalKey(turn(packed, symmetry, true)));
+        assertEquals(Symmetry.canonicalKey(array),
+                Symmetry.canonicalKey(turn(array, symmetry, false)));
+      }
+    }
+  }
+
+
+
+  /**
+   * To create a Board of random Tiles and empty cells, with no score.
+   *
+   * @param random is the source of the Tiles
+   * @param grid is the grid size
+   * @param bitBoard is if a 4x4 Board should be backed by a BitBoard
+   * @param maxExponent is the biggest exponent of a Tile
+   * @return the Board
+   */
+  private static Board board(SplittableRandom random, int grid, boolean bitBoard,
+                             int maxExponent) {
+    Board board = grid == 4 ? new Board(2, bitBoard) : new Board(2, grid);
+    for (int i = 0; i < grid; i++) {
+      for (int j = 0; j < grid; j++) {
+        board.setExponent(i, j, random.nextInt(maxExponent + 1));
+      }
+    }
+    return board;
+  }
+
+  /**
+   * To turn a Board with a Symmetry into a new Board, cell by cell.
+   *
+   * @param board is the Board
+   * @param symmetry is the turn
+   * @param bitBoard is if a 4x4 turned Board should be backed by a BitBoard
+   * @return the turned Board
+   */
+  private static Board turn(Board board, Symmetry symmetry, boolean bitBoard) {
+    int grid = board.getGrid();
+    Board turned = grid == 4 ? new Board(2, bitBoard) : new Board(2, grid);
+    for (int index = 0; index < grid * grid; index++) {
+      int to = symmetry.map(index, grid);
+      turned.setExponent(to / grid, to % grid, board.getExponent(index / grid, index % grid));
+    }
+    return turned;
+  }
+}